@@ -8,6 +8,8 @@ public class BytecodeEntryPoints {
     public static Path redirectAssetPackPath(Path assetPackPath) {
         // During development the manifest.json may not be where the asset resources
         // are located. Redirect the asset pack path accordingly.
+        StartupProfiler.mark("first-asset-pack");
+
         var redirectSource = HytaleDevAgent.getAssetRedirectSource();
         var redirectTarget = HytaleDevAgent.getAssetRedirectTarget();
 
@@ -20,16 +22,58 @@ public class BytecodeEntryPoints {
 
     @SuppressWarnings("unused") // called by transformed bytecode from transforms.BridgeInjectorTransformer
     public static void initializeBridge() {
+        StartupProfiler.mark("logger-init");
+        long start = System.nanoTime();
+
+        // This runs in the logger's static initializer, every other thread touching the logger
+        // waits until it returns. Only start capturing logs here and bring the bridge up on a
+        // virtual thread, which waits for the initializer to finish if it needs the logger.
         try {
             Class<?> bootstrapper = Thread.currentThread()
                     .getContextClassLoader()
                     .loadClass("net.janrupf.gradle.hytale.dev.bridge.BridgeBootstrapper");
-            bootstrapper.getMethod("initialize").invoke(null);
+            bootstrapper.getMethod("captureEarlyLogs").invoke(null);
+
+            var initialize = bootstrapper.getMethod("initialize");
+            Thread.ofVirtual().name("HytaleDev-BridgeBootstrap").start(() -> {
+                long bootstrapStart = System.nanoTime();
+
+                try {
+                    initialize.invoke(null);
+                } catch (Exception e) {
+                    System.err.println("[HytaleDev] Failed to initialize bridge: " + e.getMessage());
+                    e.printStackTrace();
+                }
+
+                StartupProfiler.record("bridge.bootstrapNanos", System.nanoTime() - bootstrapStart);
+            });
         } catch (ClassNotFoundException e) {
             // Bridge not available, skip silently
         } catch (Exception e) {
             System.err.println("[HytaleDev] Failed to initialize bridge: " + e.getMessage());
             e.printStackTrace();
         }
+
+        StartupProfiler.record("bridge.blockingNanos", System.nanoTime() - start);
+    }
+
+    @SuppressWarnings("unused") // called by transformed bytecode from transforms.TickProfilerTransformer
+    public static void tickEnter() {
+        TickProfiler.tickEnter();
+    }
+
+    @SuppressWarnings("unused") // called by transformed bytecode from transforms.TickProfilerTransformer
+    public static void tickExit() {
+        TickProfiler.tickExit();
+    }
+
+    @SuppressWarnings("unused") // called by transformed bytecode from transforms.TickProfilerTransformer
+    public static long systemEnter() {
+        return TickProfiler.systemEnter();
+    }
+
+    @SuppressWarnings("unused") // called by transformed bytecode from transforms.TickProfilerTransformer
+    public static void systemExit(long start, Object system) {
+        TickProfiler.systemExit(start, system);
     }
 }
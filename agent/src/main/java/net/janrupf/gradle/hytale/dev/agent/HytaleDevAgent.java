@@ -3,6 +3,7 @@ package net.janrupf.gradle.hytale.dev.agent;
 import net.janrupf.gradle.hytale.dev.agent.loader.HytaleDevAgentClassloader;
 import net.janrupf.gradle.hytale.dev.agent.transforms.AssetModuleTransformer;
 import net.janrupf.gradle.hytale.dev.agent.transforms.BridgeInjectorTransformer;
+import net.janrupf.gradle.hytale.dev.agent.transforms.TickProfilerTransformer;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -16,6 +17,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
 import java.util.Properties;
 
 public class HytaleDevAgent {
@@ -31,10 +33,32 @@ public class HytaleDevAgent {
     // to ceise to work. In order to force IDE's to run the application directly, we generate configurations
     // that launch the agent jar, which then performs the classpath setup and launches the actual main class.
 
+    /**
+     * System property used to hand the reload request file over to the bridge.
+     */
+    public static final String RELOAD_REQUEST_FILE_PROPERTY = "hytale.dev.reloadRequestFile";
+
+    /**
+     * System property used to hand the JFR recordings directory over to the bridge.
+     */
+    public static final String RECORDINGS_DIRECTORY_PROPERTY = "hytale.dev.recordingsDirectory";
+
+    /**
+     * System property used to hand the JVM telemetry interval in milliseconds over to the bridge.
+     */
+    public static final String TELEMETRY_INTERVAL_PROPERTY = "hytale.dev.telemetryInterval";
+
+    /**
+     * System property used to hand the asset index file over to the bridge.
+     */
+    public static final String ASSET_INDEX_FILE_PROPERTY = "hytale.dev.assetIndexFile";
+
     private static Path assetRedirectSource;
     private static Path assetRedirectTarget;
 
     public static void main(String[] args) throws Throwable /* Transparent pass through for wrapped exceptions */ {
+        StartupProfiler.start();
+
         var configurationFile = System.getenv("HYTALE_DEV_AGENT_CONFIGURATION");
         if (configurationFile == null) {
             throw new RuntimeException("HYTALE_DEV_AGENT_CONFIGURATION environment variable is not set");
@@ -48,6 +72,8 @@ public class HytaleDevAgent {
             throw new UncheckedIOException("Failed to read agent configuration file", e);
         }
 
+        StartupProfiler.mark("agent-configuration");
+
         var urls = new ArrayList<>(Arrays.asList(loadClassPath(properties.getProperty("classpath"))));
         var mainClassName = properties.getProperty("mainClassName");
 
@@ -56,6 +82,22 @@ public class HytaleDevAgent {
             assetRedirectTarget = Paths.get(properties.getProperty("asset.redirect.target"));
         }
 
+        if (properties.containsKey("reload.request")) {
+            System.setProperty(RELOAD_REQUEST_FILE_PROPERTY, properties.getProperty("reload.request"));
+        }
+
+        if (properties.containsKey("jfr.recordings")) {
+            System.setProperty(RECORDINGS_DIRECTORY_PROPERTY, properties.getProperty("jfr.recordings"));
+        }
+
+        if (properties.containsKey("asset.index")) {
+            System.setProperty(ASSET_INDEX_FILE_PROPERTY, properties.getProperty("asset.index"));
+        }
+
+        if (properties.containsKey("telemetry.interval")) {
+            System.setProperty(TELEMETRY_INTERVAL_PROPERTY, properties.getProperty("telemetry.interval"));
+        }
+
         // Load bridge JAR if specified
         boolean bridgeEnabled = false;
         if (properties.containsKey("bridge")) {
@@ -72,11 +114,14 @@ public class HytaleDevAgent {
             }
         }
 
+        StartupProfiler.mark("agent-classpath");
+
         var delegatingClassLoader = new HytaleDevAgentClassloader(
                 "Hytale",
                 urls.toArray(new URL[0]),
                 Thread.currentThread().getContextClassLoader()
         );
+        StartupProfiler.track(delegatingClassLoader);
         delegatingClassLoader.addTransformer(new AssetModuleTransformer());
 
         // Only add bridge transformer if bridge JAR is available
@@ -84,10 +129,21 @@ public class HytaleDevAgent {
             delegatingClassLoader.addTransformer(new BridgeInjectorTransformer());
         }
 
+        if (Boolean.parseBoolean(properties.getProperty("profile.ticks"))) {
+            delegatingClassLoader.addTransformer(new TickProfilerTransformer(
+                    splitList(properties.getProperty("profile.ticks.loops")),
+                    splitList(properties.getProperty("profile.ticks.systems"))
+            ));
+            TickProfiler.enable(Long.parseLong(properties.getProperty("profile.ticks.interval", "1000")));
+        }
+
+        StartupProfiler.mark("agent-classloader");
+
         try {
             Thread.currentThread().setContextClassLoader(delegatingClassLoader);
 
             var mainClass = delegatingClassLoader.loadClass(mainClassName);
+            StartupProfiler.mark("main-class-load");
 
             mainClass.getMethod("main", String[].class)
                     .invoke(null, (Object) args);
@@ -124,6 +180,14 @@ public class HytaleDevAgent {
         return urls;
     }
 
+    private static List<String> splitList(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+
+        return Arrays.asList(value.split(","));
+    }
+
     public static Path getAssetRedirectSource() {
         return assetRedirectSource;
     }
@@ -0,0 +1,158 @@
+package net.janrupf.gradle.hytale.dev.agent;
+
+import net.janrupf.gradle.hytale.dev.agent.loader.HytaleDevAgentClassloader;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records monotonic timestamps of the startup phases of the agent and the server.
+ * <p>
+ * The bridge is not compiled against the agent, it reads the profile reflectively
+ * through {@link #snapshot()}, which only uses JDK types. Keys are prefixed with
+ * {@code phase.}, {@code loader.}, {@code transformer.} or {@code bridge.}.
+ */
+public final class StartupProfiler {
+    private static final List<Phase> PHASES = new ArrayList<>();
+    private static final Map<String, Long> TIMINGS = new LinkedHashMap<>();
+
+    private static volatile HytaleDevAgentClassloader classLoader;
+    private static volatile boolean started;
+    private static volatile long startNanos;
+
+    private StartupProfiler() {
+        // Utility class
+    }
+
+    /**
+     * Start the clock all phases are measured from.
+     * <p>
+     * Called first thing in the agent, loading this class happens too late to serve as the start.
+     * Starting again keeps the first start.
+     */
+    public static synchronized void start() {
+        if (!started) {
+            startNanos = System.nanoTime();
+            started = true;
+        }
+    }
+
+    /**
+     * Mark the end of a startup phase.
+     * <p>
+     * The phase is considered to have started when the previous phase ended.
+     * Marking the same phase twice keeps the first mark.
+     *
+     * @param name the name of the phase that just ended
+     */
+    public static void mark(String name) {
+        if (!started) {
+            start();
+        }
+        long now = System.nanoTime() - startNanos;
+
+        synchronized (PHASES) {
+            for (var phase : PHASES) {
+                if (phase.name().equals(name)) {
+                    return;
+                }
+            }
+
+            PHASES.add(new Phase(name, now));
+        }
+    }
+
+    /**
+     * Record a duration which is not a startup phase, such as work moved off the main thread.
+     *
+     * @param key   the key to include the duration under in the snapshot
+     * @param nanos the duration in nanoseconds
+     */
+    public static void record(String key, long nanos) {
+        synchronized (TIMINGS) {
+            TIMINGS.put(key, nanos);
+        }
+    }
+
+    /**
+     * Set the class loader whose statistics are included in the profile.
+     *
+     * @param loader the class loader of the server
+     */
+    public static void track(HytaleDevAgentClassloader loader) {
+        classLoader = loader;
+    }
+
+    /**
+     * Take a snapshot of the profile recorded so far.
+     * <p>
+     * Phase values are nanoseconds since the agent started, in the order the phases ended.
+     *
+     * @return the profile as an ordered map
+     */
+    public static Map<String, Long> snapshot() {
+        var out = new LinkedHashMap<String, Long>();
+
+        synchronized (PHASES) {
+            for (var phase : PHASES) {
+                out.put("phase." + phase.name(), phase.endNanos());
+            }
+        }
+
+        synchronized (TIMINGS) {
+            out.putAll(TIMINGS);
+        }
+
+        var loader = classLoader;
+        if (loader != null) {
+            var statistics = loader.getStatistics();
+            out.put("loader.classes", statistics.getLoadedClasses());
+            out.put("loader.loadNanos", statistics.getLoadNanos());
+            out.put("loader.transformNanos", statistics.getTransformNanos());
+
+            for (var transformer : statistics.getTransformers()) {
+                out.put("transformer." + transformer.getName() + ".nanos", transformer.getNanos());
+                out.put("transformer." + transformer.getName() + ".transformed", transformer.getTransformedClasses());
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * Format the profile recorded so far as a human-readable summary.
+     *
+     * @return the summary
+     */
+    public static String summary() {
+        var builder = new StringBuilder("Startup profile:");
+        long previous = 0;
+
+        for (var entry : snapshot().entrySet()) {
+            var key = entry.getKey();
+            long value = entry.getValue();
+
+            if (key.startsWith("phase.")) {
+                builder.append(String.format("%n  %-32s %8.1f ms (at %.1f ms)",
+                        key.substring(6), millis(value - previous), millis(value)));
+                previous = value;
+            } else if (key.endsWith("classes") || key.endsWith(".transformed")) {
+                builder.append(String.format("%n  %-32s %8d", key, value));
+            } else {
+                var label = key.replace(".nanos", "").replace("Nanos", "");
+                builder.append(String.format("%n  %-32s %8.1f ms", label, millis(value)));
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private record Phase(String name, long endNanos) {
+    }
+}
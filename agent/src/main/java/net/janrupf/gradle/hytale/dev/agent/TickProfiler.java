@@ -0,0 +1,300 @@
+package net.janrupf.gradle.hytale.dev.agent;
+
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects per-tick durations and per-system times of the server tick loops.
+ * <p>
+ * The tick loop and system methods are instrumented by
+ * {@link net.janrupf.gradle.hytale.dev.agent.transforms.TickProfilerTransformer}. Finished
+ * ticks are published into a lock-free ring buffer, system times are accumulated per system
+ * until they are drained. Recording does not allocate and does not take locks, the tick
+ * threads never wait for the reader.
+ * <p>
+ * The bridge is not compiled against the agent, it drains the profiler reflectively using
+ * JDK types only.
+ */
+public final class TickProfiler {
+    /**
+     * System property used to hand the metrics interval in milliseconds over to the bridge.
+     */
+    public static final String INTERVAL_PROPERTY = "hytale.dev.tickMetricsInterval";
+
+    /**
+     * Number of longs written per tick by {@link #drainTicks(long[])}.
+     */
+    public static final int TICK_FIELDS = 4;
+
+    private static final int RING_CAPACITY = 4096;
+    private static final int RING_MASK = RING_CAPACITY - 1;
+    private static final int MAX_SYSTEMS = 4096;
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    // Ring buffer guarded by a stamp per slot: odd while the tick of a sequence is written, even
+    // once it is published, see stamp(). The reader discards slots whose stamp changed while copying.
+    private static final AtomicLong NEXT_SEQUENCE = new AtomicLong();
+    private static final AtomicLongArray PUBLISHED = new AtomicLongArray(RING_CAPACITY);
+    private static final long[] TICK_LOOP = new long[RING_CAPACITY];
+    private static final long[] TICK_END = new long[RING_CAPACITY];
+    private static final long[] TICK_DURATION = new long[RING_CAPACITY];
+    private static final long[] TICK_ALLOCATED = new long[RING_CAPACITY];
+    private static long readSequence;
+    private static long droppedTicks;
+
+    // Tick loops are identified by their thread, the state holds the current tick
+    private static final int INDEX = 0;
+    private static final int DEPTH = 1;
+    private static final int START = 2;
+    private static final int ALLOCATED = 3;
+    private static final ThreadLocal<long[]> LOOP_STATE = ThreadLocal.withInitial(TickProfiler::registerLoop);
+    private static final List<String> LOOPS = new CopyOnWriteArrayList<>();
+
+    private static final ClassValue<int[]> SYSTEM_IDS = new ClassValue<>() {
+        @Override
+        protected int[] computeValue(Class<?> type) {
+            return new int[]{registerSystem(type.getName())};
+        }
+    };
+    private static final List<String> SYSTEMS = new CopyOnWriteArrayList<>();
+    private static final AtomicLongArray SYSTEM_NANOS = new AtomicLongArray(MAX_SYSTEMS);
+    private static final AtomicLongArray SYSTEM_CALLS = new AtomicLongArray(MAX_SYSTEMS);
+
+    private TickProfiler() {
+        // Utility class
+    }
+
+    /**
+     * Enable streaming of the collected metrics by the bridge.
+     *
+     * @param intervalMillis the interval the metrics are sent at
+     */
+    public static void enable(long intervalMillis) {
+        System.setProperty(INTERVAL_PROPERTY, Long.toString(intervalMillis));
+    }
+
+    /**
+     * Record the start of a tick on the current thread.
+     * <p>
+     * Nested calls, for example an instrumented override calling its instrumented super
+     * method, are part of the outermost tick.
+     */
+    public static void tickEnter() {
+        var state = LOOP_STATE.get();
+        if (state[DEPTH]++ != 0) {
+            return;
+        }
+
+        state[ALLOCATED] = allocatedBytes();
+        state[START] = System.nanoTime();
+    }
+
+    /**
+     * Record the end of a tick on the current thread.
+     */
+    public static void tickExit() {
+        var state = LOOP_STATE.get();
+        if (state[DEPTH] == 0 || --state[DEPTH] != 0) {
+            return;
+        }
+
+        long end = System.nanoTime();
+        long allocated = allocatedBytes() - state[ALLOCATED];
+
+        long sequence = NEXT_SEQUENCE.getAndIncrement();
+        int slot = (int) (sequence & RING_MASK);
+        long writing = stamp(sequence) - 1;
+
+        // Invalidate the slot before touching the data, the fence keeps the writes below after it
+        PUBLISHED.set(slot, writing);
+        VarHandle.storeStoreFence();
+
+        TICK_LOOP[slot] = state[INDEX];
+        TICK_END[slot] = end;
+        TICK_DURATION[slot] = end - state[START];
+        TICK_ALLOCATED[slot] = allocated;
+
+        // Publishing makes the slot visible to the reader, unless a writer which lapped this one
+        // has claimed the slot in the meantime
+        PUBLISHED.compareAndExchangeRelease(slot, writing, stamp(sequence));
+    }
+
+    /**
+     * Record the start of a system invocation.
+     *
+     * @return the start timestamp, to be passed to {@link #systemExit(long, Object)}
+     */
+    public static long systemEnter() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the end of a system invocation.
+     * <p>
+     * The time is attributed to the runtime class of the system, so systems inheriting
+     * their tick method are still told apart.
+     *
+     * @param start  the timestamp returned by {@link #systemEnter()}
+     * @param system the system instance
+     */
+    public static void systemExit(long start, Object system) {
+        int id = SYSTEM_IDS.get(system.getClass())[0];
+        if (id < 0) {
+            return;
+        }
+
+        SYSTEM_NANOS.getAndAdd(id, System.nanoTime() - start);
+        SYSTEM_CALLS.getAndIncrement(id);
+    }
+
+    /**
+     * Copy the ticks finished since the last drain into the given buffer.
+     * <p>
+     * Each tick occupies {@link #TICK_FIELDS} longs: loop index, end timestamp, duration in
+     * nanoseconds and allocated bytes. Ticks not fitting into the buffer are kept for the
+     * next drain. Only a single thread may drain.
+     *
+     * @param out the buffer to fill
+     * @return the number of ticks copied
+     */
+    public static int drainTicks(long[] out) {
+        long available = NEXT_SEQUENCE.get();
+
+        if (available - readSequence > RING_CAPACITY) {
+            // The writers lapped the reader, the oldest ticks are gone
+            droppedTicks += available - readSequence - RING_CAPACITY;
+            readSequence = available - RING_CAPACITY;
+        }
+
+        int count = 0;
+        while (readSequence < available && (count + 1) * TICK_FIELDS <= out.length) {
+            int slot = (int) (readSequence & RING_MASK);
+            long expected = stamp(readSequence);
+
+            long before = PUBLISHED.getAcquire(slot);
+            if (before != expected) {
+                // Not written yet or still being written, wait for the next drain
+                if (before < expected) {
+                    break;
+                }
+
+                // Already claimed by a newer tick
+                droppedTicks++;
+                readSequence++;
+                continue;
+            }
+
+            int offset = count * TICK_FIELDS;
+            out[offset] = TICK_LOOP[slot];
+            out[offset + 1] = TICK_END[slot];
+            out[offset + 2] = TICK_DURATION[slot];
+            out[offset + 3] = TICK_ALLOCATED[slot];
+
+            // Keep the copies above before the check below
+            VarHandle.acquireFence();
+            readSequence++;
+            if (PUBLISHED.get(slot) != before) {
+                // Overwritten while copying
+                droppedTicks++;
+                continue;
+            }
+
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Get and reset the number of ticks dropped because the reader fell behind.
+     *
+     * @return the number of dropped ticks since the last call
+     */
+    public static long drainDroppedTicks() {
+        long dropped = droppedTicks;
+        droppedTicks = 0;
+        return dropped;
+    }
+
+    /**
+     * Copy and reset the accumulated system times.
+     *
+     * @param nanos buffer receiving the time spent per system id
+     * @param calls buffer receiving the number of invocations per system id
+     * @return the number of system ids written
+     */
+    public static int drainSystems(long[] nanos, long[] calls) {
+        int count = Math.min(SYSTEMS.size(), Math.min(nanos.length, calls.length));
+
+        for (int i = 0; i < count; i++) {
+            nanos[i] = SYSTEM_NANOS.getAndSet(i, 0);
+            calls[i] = SYSTEM_CALLS.getAndSet(i, 0);
+        }
+
+        return count;
+    }
+
+    /**
+     * Get the name of a system.
+     *
+     * @param system the system id
+     * @return the name of the system
+     */
+    public static String systemName(int system) {
+        return SYSTEMS.get(system);
+    }
+
+    /**
+     * Get the name of a tick loop, which is the name of its thread.
+     *
+     * @param loop the loop index
+     * @return the name of the tick loop
+     */
+    public static String loopName(int loop) {
+        return LOOPS.get(loop);
+    }
+
+    /**
+     * The stamp of a published sequence, even and never 0, one less while it is being written.
+     */
+    private static long stamp(long sequence) {
+        return (sequence + 1) * 2;
+    }
+
+    private static int registerSystem(String name) {
+        synchronized (SYSTEMS) {
+            if (SYSTEMS.size() >= MAX_SYSTEMS) {
+                return -1;
+            }
+
+            SYSTEMS.add(name);
+            return SYSTEMS.size() - 1;
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private static long[] registerLoop() {
+        synchronized (LOOPS) {
+            LOOPS.add(Thread.currentThread().getName());
+            return new long[]{LOOPS.size() - 1, 0, 0, 0};
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean &&
+                bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,90 @@
+package net.janrupf.gradle.hytale.dev.agent.loader;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative timings of a {@link HytaleDevAgentClassloader}.
+ * <p>
+ * Load times only count the outermost {@code loadClass} call of a thread, classes
+ * loaded while defining another class are part of the outer measurement.
+ */
+public class ClassLoadingStatistics {
+    private final LongAdder loadedClasses;
+    private final LongAdder loadNanos;
+    private final LongAdder transformNanos;
+    private final List<TransformerStatistics> transformers;
+
+    ClassLoadingStatistics() {
+        this.loadedClasses = new LongAdder();
+        this.loadNanos = new LongAdder();
+        this.transformNanos = new LongAdder();
+        this.transformers = new CopyOnWriteArrayList<>();
+    }
+
+    void recordLoad(long nanos) {
+        loadNanos.add(nanos);
+    }
+
+    void recordTransform(long nanos) {
+        loadedClasses.increment();
+        transformNanos.add(nanos);
+    }
+
+    TransformerStatistics addTransformer(HytaleDevAgentClassTransformer transformer) {
+        var statistics = new TransformerStatistics(transformer.getClass().getSimpleName());
+        transformers.add(statistics);
+        return statistics;
+    }
+
+    public long getLoadedClasses() {
+        return loadedClasses.sum();
+    }
+
+    public long getLoadNanos() {
+        return loadNanos.sum();
+    }
+
+    public long getTransformNanos() {
+        return transformNanos.sum();
+    }
+
+    public List<TransformerStatistics> getTransformers() {
+        return transformers;
+    }
+
+    /**
+     * Cumulative timings of a single transformer.
+     */
+    public static class TransformerStatistics {
+        private final String name;
+        private final LongAdder nanos;
+        private final LongAdder transformedClasses;
+
+        TransformerStatistics(String name) {
+            this.name = name;
+            this.nanos = new LongAdder();
+            this.transformedClasses = new LongAdder();
+        }
+
+        void record(long nanos, boolean transformed) {
+            this.nanos.add(nanos);
+            if (transformed) {
+                this.transformedClasses.increment();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        public long getTransformedClasses() {
+            return transformedClasses.sum();
+        }
+    }
+}
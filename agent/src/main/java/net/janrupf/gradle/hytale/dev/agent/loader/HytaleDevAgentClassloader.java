@@ -13,19 +13,47 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class HytaleDevAgentClassloader extends URLClassLoader {
-    private final List<HytaleDevAgentClassTransformer> transformers;
+    private static final ThreadLocal<int[]> LOAD_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final List<RegisteredTransformer> transformers;
+    private final ClassLoadingStatistics statistics;
 
     public HytaleDevAgentClassloader(String name, URL[] urls, ClassLoader parent) {
         super(name, urls, parent);
         this.transformers = new ArrayList<>();
+        this.statistics = new ClassLoadingStatistics();
     }
 
     public void addTransformer(HytaleDevAgentClassTransformer transformer) {
-        this.transformers.add(transformer);
+        this.transformers.add(new RegisteredTransformer(transformer, statistics.addTransformer(transformer)));
+    }
+
+    public ClassLoadingStatistics getStatistics() {
+        return statistics;
     }
 
     @Override
     protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        // Only time the outermost call, nested loads are part of its measurement
+        var depth = LOAD_DEPTH.get();
+        if (depth[0]++ != 0) {
+            try {
+                return loadClassLocked(name, resolve);
+            } finally {
+                depth[0]--;
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            return loadClassLocked(name, resolve);
+        } finally {
+            depth[0]--;
+            statistics.recordLoad(System.nanoTime() - start);
+        }
+    }
+
+    private Class<?> loadClassLocked(String name, boolean resolve) throws ClassNotFoundException {
         synchronized (this.getClassLoadingLock(name)) {
             var loaded = this.findLoadedClass(name);
             if (loaded != null) {
@@ -54,13 +82,20 @@ public class HytaleDevAgentClassloader extends URLClassLoader {
     }
 
     private Class<?> transformClass(URL url, String name, String internalName, byte[] classData) {
+        long transformStart = System.nanoTime();
+
         for (var transformer : transformers) {
-            var transformedData = transformer.transform(name, internalName, classData, this);
+            long start = System.nanoTime();
+            var transformedData = transformer.transformer().transform(name, internalName, classData, this);
+            transformer.statistics().record(System.nanoTime() - start, transformedData != null);
+
             if (transformedData != null) {
                 classData = transformedData;
             }
         }
 
+        statistics.recordTransform(System.nanoTime() - transformStart);
+
         URL codeSourceUrl = getCodeSourceUrl(url, internalName);
         CodeSource codeSource = new CodeSource(codeSourceUrl, (CodeSigner[]) null);
 
@@ -94,4 +129,9 @@ public class HytaleDevAgentClassloader extends URLClassLoader {
         return resource;
     }
 
+    private record RegisteredTransformer(
+            HytaleDevAgentClassTransformer transformer,
+            ClassLoadingStatistics.TransformerStatistics statistics
+    ) {
+    }
 }
@@ -0,0 +1,322 @@
+package net.janrupf.gradle.hytale.dev.agent.transforms;
+
+import net.janrupf.gradle.hytale.dev.agent.BytecodeEntryPoints;
+import net.janrupf.gradle.hytale.dev.agent.loader.HytaleDevAgentClassTransformer;
+
+import java.io.IOException;
+import java.lang.classfile.*;
+import java.lang.classfile.instruction.ReturnInstruction;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.reflect.AccessFlag;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transformer that instruments the server tick loops and systems for the tick profiler.
+ * <p>
+ * Targets are given as {@code owner#method}. Every class extending or implementing the owner
+ * which declares a method with the same name and descriptor as the owner's is instrumented, so
+ * overrides in subclasses, implementations and plugins are covered without naming them. The methods are wrapped so
+ * that the profiler is also notified when they complete exceptionally.
+ * <p>
+ * The class hierarchy is resolved by parsing class files through the loader, classes are
+ * never loaded while transforming.
+ */
+public class TickProfilerTransformer implements HytaleDevAgentClassTransformer {
+    private static final ClassDesc BYTECODE_ENTRY_POINTS_CLASS = ClassDesc.of(BytecodeEntryPoints.class.getName());
+    private static final MethodTypeDesc TICK_ENTER = MethodTypeDesc.of(ConstantDescs.CD_void);
+    private static final MethodTypeDesc TICK_EXIT = MethodTypeDesc.of(ConstantDescs.CD_void);
+    private static final MethodTypeDesc SYSTEM_ENTER = MethodTypeDesc.of(ConstantDescs.CD_long);
+    private static final MethodTypeDesc SYSTEM_EXIT = MethodTypeDesc.of(
+            ConstantDescs.CD_void,
+            ConstantDescs.CD_long,
+            ConstantDescs.CD_Object
+    );
+
+    private final List<Target> loopTargets;
+    private final List<Target> systemTargets;
+    private final Map<String, List<String>> supertypes;
+    private final Map<Target, Set<String>> descriptors;
+
+    /**
+     * Create a new tick profiler transformer.
+     *
+     * @param loopTargets   the tick loop methods, as {@code owner#method}
+     * @param systemTargets the system tick methods, as {@code owner#method}
+     */
+    public TickProfilerTransformer(List<String> loopTargets, List<String> systemTargets) {
+        this.loopTargets = Target.parseAll(loopTargets);
+        this.systemTargets = Target.parseAll(systemTargets);
+        this.supertypes = new ConcurrentHashMap<>();
+        this.descriptors = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public byte[] transform(String name, String internalName, byte[] classData, ClassLoader loader) {
+        if (internalName.startsWith("java/") || internalName.startsWith("net/janrupf/gradle/hytale/dev/")) {
+            return null;
+        }
+
+        var originalClass = ClassFile.of().parse(classData);
+        supertypes.putIfAbsent(internalName, supertypesOf(originalClass));
+
+        var loops = matchingMethods(internalName, originalClass, loopTargets, loader);
+        var systems = matchingMethods(internalName, originalClass, systemTargets, loader);
+
+        if (loops.isEmpty() && systems.isEmpty()) {
+            return null;
+        }
+
+        var resolver = ClassHierarchyResolver.defaultResolver()
+                .orElse(ClassHierarchyResolver.ofResourceParsing(loader));
+        return ClassFile.of(ClassFile.ClassHierarchyResolverOption.of(resolver)).build(
+                originalClass.thisClass().asSymbol(),
+                (builder) -> this.rebuildClass(originalClass, builder, loops, systems)
+        );
+    }
+
+    private void rebuildClass(ClassModel originalClass, ClassBuilder builder, Set<String> loops, Set<String> systems) {
+        for (var element : originalClass) {
+            if (!(element instanceof MethodModel method)) {
+                builder.with(element);
+                continue;
+            }
+
+            var key = method.methodName().stringValue() + method.methodType().stringValue();
+            boolean loop = loops.contains(key);
+            boolean system = systems.contains(key);
+
+            if (!loop && !system) {
+                builder.with(element);
+                continue;
+            }
+
+            builder.withMethod(
+                    method.methodName(),
+                    method.methodType(),
+                    method.flags().flagsMask(),
+                    (methodBuilder) -> this.rebuildMethod(method, methodBuilder, loop)
+            );
+        }
+    }
+
+    private void rebuildMethod(MethodModel originalMethod, MethodBuilder builder, boolean loop) {
+        for (var element : originalMethod) {
+            if (element instanceof CodeModel code) {
+                builder.transformCode(code, loop ? new LoopCodeTransform() : new SystemCodeTransform());
+            } else {
+                builder.with(element);
+            }
+        }
+    }
+
+    private Set<String> matchingMethods(
+            String internalName,
+            ClassModel classModel,
+            List<Target> targets,
+            ClassLoader loader
+    ) {
+        var out = new HashSet<String>();
+
+        for (var target : targets) {
+            if (!isSubtype(internalName, target.owner(), loader)) {
+                continue;
+            }
+
+            var targetDescriptors = descriptors.computeIfAbsent(target, (t) -> readDescriptors(t, loader));
+
+            for (var method : classModel.methods()) {
+                if (!method.methodName().equalsString(target.method()) ||
+                        !targetDescriptors.contains(method.methodType().stringValue()) ||
+                        method.flags().has(AccessFlag.STATIC) ||
+                        method.code().isEmpty()
+                ) {
+                    continue;
+                }
+
+                out.add(method.methodName().stringValue() + method.methodType().stringValue());
+            }
+        }
+
+        return out;
+    }
+
+    private boolean isSubtype(String internalName, String owner, ClassLoader loader) {
+        // Walks superclasses and interfaces, targets may be declared by either
+        var pending = new ArrayDeque<String>();
+        var visited = new HashSet<String>();
+        pending.add(internalName);
+
+        while (!pending.isEmpty()) {
+            var current = pending.pop();
+            if (current.equals(owner)) {
+                return true;
+            }
+
+            if (visited.add(current)) {
+                pending.addAll(supertypes.computeIfAbsent(current, (n) -> readSupertypes(n, loader)));
+            }
+        }
+
+        return false;
+    }
+
+    private static List<String> readSupertypes(String internalName, ClassLoader loader) {
+        if (internalName.startsWith("java/")) {
+            // Targets are never JDK classes
+            return List.of();
+        }
+
+        var model = readClass(internalName, loader);
+        return model != null ? supertypesOf(model) : List.of();
+    }
+
+    private static List<String> supertypesOf(ClassModel model) {
+        var out = new ArrayList<String>();
+        model.superclass().ifPresent((entry) -> out.add(entry.asInternalName()));
+        for (var entry : model.interfaces()) {
+            out.add(entry.asInternalName());
+        }
+
+        return out;
+    }
+
+    private static Set<String> readDescriptors(Target target, ClassLoader loader) {
+        var model = readClass(target.owner(), loader);
+        if (model == null) {
+            System.err.println("[HytaleDev] Tick profiler target class not found: " + target.owner());
+            return Set.of();
+        }
+
+        var out = new HashSet<String>();
+        for (var method : model.methods()) {
+            if (method.methodName().equalsString(target.method())) {
+                out.add(method.methodType().stringValue());
+            }
+        }
+
+        if (out.isEmpty()) {
+            System.err.println("[HytaleDev] Tick profiler target method not found: " + target);
+        }
+
+        return out;
+    }
+
+    private static ClassModel readClass(String internalName, ClassLoader loader) {
+        try (var in = loader.getResourceAsStream(internalName + ".class")) {
+            if (in == null) {
+                return null;
+            }
+
+            return ClassFile.of().parse(in.readAllBytes());
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Wraps a tick loop method with calls to {@code tickEnter} and {@code tickExit}.
+     */
+    private static final class LoopCodeTransform implements CodeTransform {
+        private Label start;
+
+        @Override
+        public void atStart(CodeBuilder builder) {
+            builder.invokestatic(BYTECODE_ENTRY_POINTS_CLASS, "tickEnter", TICK_ENTER);
+            start = builder.newBoundLabel();
+        }
+
+        @Override
+        public void accept(CodeBuilder builder, CodeElement element) {
+            if (element instanceof ReturnInstruction) {
+                builder.invokestatic(BYTECODE_ENTRY_POINTS_CLASS, "tickExit", TICK_EXIT);
+            }
+
+            builder.with(element);
+        }
+
+        @Override
+        public void atEnd(CodeBuilder builder) {
+            var end = builder.newBoundLabel();
+
+            // Exceptional exit, the throwable stays on the stack
+            builder.invokestatic(BYTECODE_ENTRY_POINTS_CLASS, "tickExit", TICK_EXIT);
+            builder.athrow();
+            builder.exceptionCatchAll(start, end, end);
+        }
+    }
+
+    /**
+     * Wraps a system tick method with calls to {@code systemEnter} and {@code systemExit}.
+     */
+    private static final class SystemCodeTransform implements CodeTransform {
+        private Label start;
+        private int startSlot;
+
+        @Override
+        public void atStart(CodeBuilder builder) {
+            startSlot = builder.allocateLocal(TypeKind.LONG);
+            builder.invokestatic(BYTECODE_ENTRY_POINTS_CLASS, "systemEnter", SYSTEM_ENTER);
+            builder.lstore(startSlot);
+            start = builder.newBoundLabel();
+        }
+
+        @Override
+        public void accept(CodeBuilder builder, CodeElement element) {
+            if (element instanceof ReturnInstruction) {
+                exit(builder);
+            }
+
+            builder.with(element);
+        }
+
+        @Override
+        public void atEnd(CodeBuilder builder) {
+            var end = builder.newBoundLabel();
+
+            // Exceptional exit, the throwable stays on the stack
+            exit(builder);
+            builder.athrow();
+            builder.exceptionCatchAll(start, end, end);
+        }
+
+        private void exit(CodeBuilder builder) {
+            builder.lload(startSlot);
+            builder.aload(0);
+            builder.invokestatic(BYTECODE_ENTRY_POINTS_CLASS, "systemExit", SYSTEM_EXIT);
+        }
+    }
+
+    private record Target(String owner, String method) {
+        static List<Target> parseAll(List<String> targets) {
+            var out = new ArrayList<Target>();
+
+            for (var target : targets) {
+                int split = target.indexOf('#');
+                if (split <= 0 || split == target.length() - 1) {
+                    System.err.println("[HytaleDev] Ignoring invalid tick profiler target: " + target);
+                    continue;
+                }
+
+                out.add(new Target(
+                        target.substring(0, split).trim().replace('.', '/'),
+                        target.substring(split + 1).trim()
+                ));
+            }
+
+            return out;
+        }
+
+        @Override
+        public String toString() {
+            return owner.replace('/', '.') + "#" + method;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.3"
+}
+
+group = rootProject.group
+version = rootProject.version
+
+repositories {
+    mavenCentral()
+}
+
+// The bridge is compiled against HytaleServer.jar, which is not redistributable and
+// may not be installed. Compile its sources together with stand-ins for the server
+// classes it uses instead, so the benchmarks run anywhere.
+sourceSets {
+    named("jmh") {
+        java {
+            srcDir("src/standin/java")
+            srcDir("../bridge/src/main/java")
+        }
+    }
+}
+
+dependencies {
+    jmh(project(":agent"))
+    jmh(project(":protocol"))
+    jmh("org.java-websocket:Java-WebSocket:1.5.4")
+    jmh("com.google.protobuf:protobuf-java:3.25.1")
+    jmh("com.google.code.findbugs:jsr305:3.0.2")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+
+    // Reports the bytes allocated per operation next to the timings
+    profilers.add("gc")
+}
@@ -0,0 +1,109 @@
+package net.janrupf.gradle.hytale.dev.benchmarks;
+
+import net.janrupf.gradle.hytale.dev.agent.loader.HytaleDevAgentClassloader;
+import net.janrupf.gradle.hytale.dev.agent.transforms.AssetModuleTransformer;
+import net.janrupf.gradle.hytale.dev.agent.transforms.BridgeInjectorTransformer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.classfile.ClassFile;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Loads a synthetic jar through a fresh {@link HytaleDevAgentClassloader}, the way the
+ * server jar is loaded at startup.
+ * <p>
+ * The transformers never match the synthetic classes, so the difference between the
+ * two variants is the cost every class pays for the transformer checks and statistics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassLoadingBenchmark {
+    private static final String PACKAGE = "net/janrupf/gradle/hytale/dev/benchmarks/generated/";
+
+    @Param({"1000"})
+    public int classCount;
+
+    @Param({"false", "true"})
+    public boolean transformers;
+
+    private Path jar;
+    private URL[] urls;
+    private String[] classNames;
+
+    @Setup(Level.Trial)
+    public void generateJar() throws IOException {
+        jar = Files.createTempFile("hytale-dev-classloading", ".jar");
+        urls = new URL[]{jar.toUri().toURL()};
+        classNames = new String[classCount];
+
+        try (var out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (int i = 0; i < classCount; i++) {
+                var internalName = PACKAGE + "Generated" + i;
+                classNames[i] = internalName.replace('/', '.');
+
+                out.putNextEntry(new JarEntry(internalName + ".class"));
+                out.write(generateClass(internalName));
+                out.closeEntry();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteJar() throws IOException {
+        Files.deleteIfExists(jar);
+    }
+
+    @Benchmark
+    public void loadAll(Blackhole blackhole) throws Exception {
+        try (var loader = new HytaleDevAgentClassloader("benchmark", urls, getClass().getClassLoader())) {
+            if (transformers) {
+                loader.addTransformer(new AssetModuleTransformer());
+                loader.addTransformer(new BridgeInjectorTransformer());
+            }
+
+            for (var name : classNames) {
+                blackhole.consume(loader.loadClass(name));
+            }
+        }
+    }
+
+    private static byte[] generateClass(String internalName) {
+        var self = ClassDesc.ofInternalName(internalName);
+
+        return ClassFile.of().build(self, (builder) -> builder
+                .withFlags(ClassFile.ACC_PUBLIC)
+                .withField("value", ConstantDescs.CD_int, ClassFile.ACC_PRIVATE)
+                .withMethodBody(
+                        ConstantDescs.INIT_NAME,
+                        ConstantDescs.MTD_void,
+                        ClassFile.ACC_PUBLIC,
+                        (code) -> code
+                                .aload(0)
+                                .invokespecial(ConstantDescs.CD_Object, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                                .return_()
+                )
+                .withMethodBody(
+                        "getValue",
+                        MethodTypeDesc.of(ConstantDescs.CD_int),
+                        ClassFile.ACC_PUBLIC,
+                        (code) -> code
+                                .aload(0)
+                                .getfield(self, "value", ConstantDescs.CD_int)
+                                .ireturn()
+                ));
+    }
+}
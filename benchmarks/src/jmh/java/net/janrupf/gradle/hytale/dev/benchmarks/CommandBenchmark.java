@@ -0,0 +1,92 @@
+package net.janrupf.gradle.hytale.dev.benchmarks;
+
+import com.hypixel.hytale.server.core.command.system.AbstractCommand;
+import com.hypixel.hytale.server.core.command.system.CommandManager;
+import com.hypixel.hytale.server.core.command.system.arguments.system.AbstractOptionalArg;
+import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgumentType;
+import net.janrupf.gradle.hytale.dev.bridge.CommandMetadataExtractor;
+import net.janrupf.gradle.hytale.dev.bridge.SuggestionHandler;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.CommandRegistryResponse;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.GetSuggestionsRequest;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.SuggestionsResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers the command requests of the IDE against a generated command tree of
+ * roughly the size of the server's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandBenchmark {
+    @Param({"200"})
+    public int commandCount;
+
+    private GetSuggestionsRequest commandNameRequest;
+    private GetSuggestionsRequest argumentRequest;
+
+    @Setup(Level.Trial)
+    public void registerCommands() {
+        var manager = new CommandManager();
+        var player = new ArgumentType<String>("player", "alice", "bob", "carol");
+        var amount = new ArgumentType<Integer>("integer", "1", "16", "64");
+
+        for (int i = 0; i < commandCount; i++) {
+            var command = new AbstractCommand("command" + i, "server.commands.command" + i + ".desc")
+                    .alias("c" + i)
+                    .required(new RequiredArg<>("player", "server.commands.args.player", player));
+
+            for (int j = 0; j < 5; j++) {
+                command.subCommand(new AbstractCommand("sub" + j, "server.commands.sub" + j + ".desc")
+                        .required(new RequiredArg<>("player", "server.commands.args.player", player))
+                        .required(new RequiredArg<>("amount", "server.commands.args.amount", amount))
+                        .optional(new OptionalArg<>("silent", "server.commands.args.silent", amount)));
+            }
+
+            manager.register(command);
+        }
+
+        CommandManager.set(manager);
+
+        commandNameRequest = GetSuggestionsRequest.newBuilder()
+                .setPartialCommand("command1")
+                .setCursorPosition(8)
+                .build();
+        argumentRequest = GetSuggestionsRequest.newBuilder()
+                .setPartialCommand("command42 a")
+                .setCursorPosition(11)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void unregisterCommands() {
+        CommandManager.set(null);
+    }
+
+    @Benchmark
+    public CommandRegistryResponse extractRegistry() {
+        return CommandMetadataExtractor.getInstance().extractFullRegistry();
+    }
+
+    @Benchmark
+    public SuggestionsResponse suggestCommandName() {
+        return SuggestionHandler.getInstance().getSuggestions(commandNameRequest);
+    }
+
+    @Benchmark
+    public SuggestionsResponse suggestArgument() {
+        return SuggestionHandler.getInstance().getSuggestions(argumentRequest);
+    }
+
+    private static class OptionalArg<T> extends AbstractOptionalArg<OptionalArg<T>, T> {
+        OptionalArg(String name, String description, ArgumentType<T> argumentType) {
+            super(name, description, argumentType);
+        }
+    }
+}
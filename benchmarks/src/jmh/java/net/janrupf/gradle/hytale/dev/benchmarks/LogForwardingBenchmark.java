@@ -0,0 +1,83 @@
+package net.janrupf.gradle.hytale.dev.benchmarks;
+
+import com.hypixel.hytale.logger.backend.HytaleLoggerBackend;
+import net.janrupf.gradle.hytale.dev.bridge.DevBridgeClient;
+import net.janrupf.gradle.hytale.dev.bridge.LogSubscriber;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.LogRecord;
+
+/**
+ * Forwards a server log record to the IDE, from the logger backend to the encoded
+ * websocket frame payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogForwardingBenchmark {
+    private LogSubscriber subscriber;
+    private LogRecord record;
+    private LogRecord recordWithThrowable;
+
+    @Setup(Level.Trial)
+    public void subscribe(Blackhole blackhole) {
+        subscriber = new LogSubscriber(new BlackholeClient(blackhole));
+        subscriber.subscribe();
+
+        record = new LogRecord(java.util.logging.Level.INFO, "Loaded 1234 assets from pack Hytale:Hytale in 56ms");
+        record.setLoggerName("AssetModule");
+
+        recordWithThrowable = new LogRecord(java.util.logging.Level.SEVERE, "Failed to load asset");
+        recordWithThrowable.setLoggerName("AssetModule");
+        recordWithThrowable.setThrown(new IllegalStateException("Invalid asset"));
+    }
+
+    @TearDown(Level.Trial)
+    public void unsubscribe() {
+        subscriber.unsubscribe();
+    }
+
+    @Benchmark
+    public void forward() {
+        HytaleLoggerBackend.publish(record);
+    }
+
+    @Benchmark
+    public void forwardWithThrowable() {
+        HytaleLoggerBackend.publish(recordWithThrowable);
+    }
+
+    /**
+     * Client that is never connected to a socket and hands the frame payload to the blackhole.
+     */
+    private static class BlackholeClient extends DevBridgeClient {
+        private final Blackhole blackhole;
+
+        BlackholeClient(Blackhole blackhole) {
+            super(0, "benchmark");
+            this.blackhole = blackhole;
+            onOpen(null);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void send(byte[] data) {
+            blackhole.consume(data);
+        }
+
+        @Override
+        public void send(ByteBuffer bytes) {
+            blackhole.consume(bytes);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package net.janrupf.gradle.hytale.dev.benchmarks;
+
+import net.janrupf.gradle.hytale.dev.bridge.MessageEncoder;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.AgentMessage;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.LogEvent;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.LogLevel;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.SystemTiming;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.TickMetrics;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.TickSample;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes high rate agent messages, once by building the envelope and serializing it into a
+ * new array and once through the pooled {@link MessageEncoder}.
+ * <p>
+ * {@code gc.alloc.rate.norm} of the {@code gc} profiler shows the bytes allocated per message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageEncodingBenchmark {
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+    private static final String LOGGER_NAME = "AssetModule";
+    private static final String MESSAGE = "Loaded 1234 assets from pack Hytale:Hytale in 56ms";
+    private static final String THREAD_NAME = "WorldThread - default";
+
+    private MessageEncoder encoder;
+    private TickMetrics tickMetrics;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        encoder = new MessageEncoder();
+
+        var builder = TickMetrics.newBuilder().addLoops("default");
+        for (int i = 0; i < 30; i++) {
+            builder.addTicks(TickSample.newBuilder()
+                    .setEndNanos(i * 33_333_333L)
+                    .setDurationNanos(4_000_000L + i)
+                    .setAllocatedBytes(512 * 1024L));
+        }
+        for (int i = 0; i < 40; i++) {
+            builder.addSystems(SystemTiming.newBuilder()
+                    .setName("com.hypixel.hytale.server.core.modules.System" + i)
+                    .setNanos(100_000L * i)
+                    .setCalls(30));
+        }
+        tickMetrics = builder.build();
+    }
+
+    @Benchmark
+    public void logEventToByteArray(Blackhole blackhole) {
+        var event = LogEvent.newBuilder()
+                .setTimestamp(TIMESTAMP)
+                .setLevel(LogLevel.LOG_LEVEL_INFO)
+                .setLoggerName(LOGGER_NAME)
+                .setMessage(MESSAGE)
+                .setThreadName(THREAD_NAME)
+                .build();
+
+        blackhole.consume(AgentMessage.newBuilder().setLogEvent(event).build().toByteArray());
+    }
+
+    @Benchmark
+    public void logEventPooled(Blackhole blackhole) {
+        var slot = encoder.acquire();
+        blackhole.consume(slot.encodeLogEvent(
+                TIMESTAMP,
+                LogLevel.LOG_LEVEL_INFO,
+                LOGGER_NAME,
+                MESSAGE,
+                "",
+                THREAD_NAME,
+                ""
+        ));
+        encoder.release(slot);
+    }
+
+    @Benchmark
+    public void tickMetricsToByteArray(Blackhole blackhole) {
+        blackhole.consume(AgentMessage.newBuilder().setTickMetrics(tickMetrics).build().toByteArray());
+    }
+
+    @Benchmark
+    public void tickMetricsPooled(Blackhole blackhole) {
+        var slot = encoder.acquire();
+        blackhole.consume(slot.encode(0, AgentMessage.TICK_METRICS_FIELD_NUMBER, tickMetrics));
+        encoder.release(slot);
+    }
+}
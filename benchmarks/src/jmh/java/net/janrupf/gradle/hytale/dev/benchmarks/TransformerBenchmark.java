@@ -0,0 +1,76 @@
+package net.janrupf.gradle.hytale.dev.benchmarks;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.asset.AssetModule;
+import net.janrupf.gradle.hytale.dev.agent.transforms.AssetModuleTransformer;
+import net.janrupf.gradle.hytale.dev.agent.transforms.BridgeInjectorTransformer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rewrites the classes targeted by the agent transformers, and measures the check every
+ * other class goes through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformerBenchmark {
+    private final AssetModuleTransformer assetModuleTransformer = new AssetModuleTransformer();
+    private final BridgeInjectorTransformer bridgeInjectorTransformer = new BridgeInjectorTransformer();
+
+    private ClassLoader loader;
+    private byte[] assetModuleClass;
+    private byte[] loggerClass;
+
+    @Setup(Level.Trial)
+    public void readClasses() throws IOException {
+        loader = getClass().getClassLoader();
+        assetModuleClass = readClass(AssetModule.class);
+        loggerClass = readClass(HytaleLogger.class);
+    }
+
+    @Benchmark
+    public byte[] assetModule() {
+        return assetModuleTransformer.transform(
+                AssetModule.class.getName(),
+                AssetModule.class.getName().replace('.', '/'),
+                assetModuleClass,
+                loader
+        );
+    }
+
+    @Benchmark
+    public byte[] bridgeInjector() {
+        return bridgeInjectorTransformer.transform(
+                HytaleLogger.class.getName(),
+                HytaleLogger.class.getName().replace('.', '/'),
+                loggerClass,
+                loader
+        );
+    }
+
+    @Benchmark
+    public byte[] notMatching() {
+        return assetModuleTransformer.transform(
+                HytaleLogger.class.getName(),
+                HytaleLogger.class.getName().replace('.', '/'),
+                loggerClass,
+                loader
+        );
+    }
+
+    private static byte[] readClass(Class<?> type) throws IOException {
+        try (var in = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+            if (in == null) {
+                throw new IOException("Class file of " + type.getName() + " not found");
+            }
+
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.hypixel.hytale.logger;
+
+import java.util.logging.Level;
+
+/**
+ * Stand-in for the server logger, drops everything.
+ */
+public class HytaleLogger {
+    private static final HytaleLogger INSTANCE = new HytaleLogger();
+    private static final Api API = new Api();
+
+    public static HytaleLogger forEnclosingClass() {
+        return INSTANCE;
+    }
+
+    public Api at(Level level) {
+        return API;
+    }
+
+    public static class Api {
+        public Api withCause(Throwable cause) {
+            return this;
+        }
+
+        public void log(String message, Object... arguments) {
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.hypixel.hytale.logger.backend;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.LogRecord;
+
+/**
+ * Stand-in for the logger backend, {@link #publish(LogRecord)} mimics a server log call.
+ */
+public class HytaleLoggerBackend {
+    private static final List<CopyOnWriteArrayList<LogRecord>> SUBSCRIBERS = new CopyOnWriteArrayList<>();
+
+    public static void subscribe(CopyOnWriteArrayList<LogRecord> subscriber) {
+        SUBSCRIBERS.add(subscriber);
+    }
+
+    public static void unsubscribe(CopyOnWriteArrayList<LogRecord> subscriber) {
+        SUBSCRIBERS.remove(subscriber);
+    }
+
+    public static void publish(LogRecord record) {
+        for (var subscriber : SUBSCRIBERS) {
+            subscriber.add(record);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.hypixel.hytale.server.core.asset;
+
+import java.nio.file.Path;
+
+/**
+ * Stand-in for the asset module, targeted by the asset redirect transformer.
+ */
+public class AssetModule {
+    private Path lastPack;
+
+    public void registerPack(String name, Path path) {
+        if (name == null || path == null) {
+            throw new IllegalArgumentException("Invalid asset pack");
+        }
+
+        this.lastPack = path;
+    }
+
+    public Path getLastPack() {
+        return lastPack;
+    }
+}
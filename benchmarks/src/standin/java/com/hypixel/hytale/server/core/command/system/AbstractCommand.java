@@ -0,0 +1,75 @@
+package com.hypixel.hytale.server.core.command.system;
+
+import com.hypixel.hytale.server.core.command.system.arguments.system.AbstractOptionalArg;
+import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stand-in for a server command.
+ * <p>
+ * Keeps optional arguments in a private field named like the real one, the metadata
+ * extractor reads it reflectively.
+ */
+public class AbstractCommand {
+    private final String name;
+    private final String description;
+    private final Set<String> aliases = new HashSet<>();
+    private final List<RequiredArg<?>> requiredArguments = new ArrayList<>();
+    private final Map<String, AbstractOptionalArg<?, ?>> optionalArguments = new LinkedHashMap<>();
+    private final Map<String, AbstractCommand> subCommands = new LinkedHashMap<>();
+
+    public AbstractCommand(String name, String description) {
+        this.name = name;
+        this.description = description;
+    }
+
+    public AbstractCommand alias(String alias) {
+        aliases.add(alias);
+        return this;
+    }
+
+    public AbstractCommand required(RequiredArg<?> argument) {
+        requiredArguments.add(argument);
+        return this;
+    }
+
+    public AbstractCommand optional(AbstractOptionalArg<?, ?> argument) {
+        optionalArguments.put(argument.getName(), argument);
+        return this;
+    }
+
+    public AbstractCommand subCommand(AbstractCommand command) {
+        subCommands.put(command.getName(), command);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Set<String> getAliases() {
+        return aliases;
+    }
+
+    public String getPermission() {
+        return "hytale.command." + name;
+    }
+
+    public List<RequiredArg<?>> getRequiredArguments() {
+        return requiredArguments;
+    }
+
+    public Map<String, AbstractCommand> getSubCommands() {
+        return subCommands;
+    }
+}
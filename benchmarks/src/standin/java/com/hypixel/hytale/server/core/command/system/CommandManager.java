@@ -0,0 +1,36 @@
+package com.hypixel.hytale.server.core.command.system;
+
+import com.hypixel.hytale.server.core.console.ConsoleSender;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stand-in for the command manager, the registry is filled by the benchmarks.
+ */
+public class CommandManager {
+    private static volatile CommandManager instance;
+
+    private final Map<String, AbstractCommand> registration = new LinkedHashMap<>();
+
+    public static CommandManager get() {
+        return instance;
+    }
+
+    public static void set(CommandManager manager) {
+        instance = manager;
+    }
+
+    public void register(AbstractCommand command) {
+        registration.put(command.getName(), command);
+    }
+
+    public Map<String, AbstractCommand> getCommandRegistration() {
+        return registration;
+    }
+
+    public CompletableFuture<Void> handleCommand(ConsoleSender sender, String command) {
+        return CompletableFuture.completedFuture(null);
+    }
+}
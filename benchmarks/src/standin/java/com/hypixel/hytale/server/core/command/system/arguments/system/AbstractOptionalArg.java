@@ -0,0 +1,30 @@
+package com.hypixel.hytale.server.core.command.system.arguments.system;
+
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgumentType;
+
+/**
+ * Stand-in for an optional argument.
+ */
+public class AbstractOptionalArg<A extends AbstractOptionalArg<A, T>, T> {
+    private final String name;
+    private final String description;
+    private final ArgumentType<T> argumentType;
+
+    public AbstractOptionalArg(String name, String description, ArgumentType<T> argumentType) {
+        this.name = name;
+        this.description = description;
+        this.argumentType = argumentType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public ArgumentType<T> getArgumentType() {
+        return argumentType;
+    }
+}
@@ -0,0 +1,47 @@
+package com.hypixel.hytale.server.core.command.system.arguments.system;
+
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgumentType;
+import com.hypixel.hytale.server.core.console.ConsoleSender;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in for a required argument, suggests the examples of its type.
+ */
+public class RequiredArg<T> {
+    private final String name;
+    private final String description;
+    private final ArgumentType<T> argumentType;
+
+    public RequiredArg(String name, String description, ArgumentType<T> argumentType) {
+        this.name = name;
+        this.description = description;
+        this.argumentType = argumentType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public ArgumentType<T> getArgumentType() {
+        return argumentType;
+    }
+
+    public List<String> getSuggestions(ConsoleSender sender, String[] input) {
+        var prefix = input.length > 0 ? input[input.length - 1] : "";
+        var out = new ArrayList<String>();
+
+        for (var example : argumentType.getExamples()) {
+            if (example.startsWith(prefix)) {
+                out.add(example);
+            }
+        }
+
+        return out;
+    }
+}
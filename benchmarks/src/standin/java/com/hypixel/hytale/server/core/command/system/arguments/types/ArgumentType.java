@@ -0,0 +1,26 @@
+package com.hypixel.hytale.server.core.command.system.arguments.types;
+
+/**
+ * Stand-in for an argument type.
+ */
+public class ArgumentType<T> {
+    private final String name;
+    private final String[] examples;
+
+    public ArgumentType(String name, String... examples) {
+        this.name = name;
+        this.examples = examples;
+    }
+
+    public Object getName() {
+        return name;
+    }
+
+    public boolean isListArgument() {
+        return false;
+    }
+
+    public String[] getExamples() {
+        return examples;
+    }
+}
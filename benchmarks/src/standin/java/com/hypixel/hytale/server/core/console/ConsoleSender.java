@@ -0,0 +1,8 @@
+package com.hypixel.hytale.server.core.console;
+
+/**
+ * Stand-in for the console command sender.
+ */
+public class ConsoleSender {
+    public static final ConsoleSender INSTANCE = new ConsoleSender();
+}
@@ -0,0 +1,16 @@
+package com.hypixel.hytale.server.core.modules.i18n;
+
+/**
+ * Stand-in for the translation module, echoes the key.
+ */
+public class I18nModule {
+    private static final I18nModule INSTANCE = new I18nModule();
+
+    public static I18nModule get() {
+        return INSTANCE;
+    }
+
+    public String getMessage(String language, String key) {
+        return key;
+    }
+}
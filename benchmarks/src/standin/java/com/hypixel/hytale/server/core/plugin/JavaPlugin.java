@@ -0,0 +1,24 @@
+package com.hypixel.hytale.server.core.plugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+/**
+ * Stand-in for the plugin base class.
+ */
+public abstract class JavaPlugin {
+    public JavaPlugin(JavaPluginInit init) {
+    }
+
+    public HytaleLogger getLogger() {
+        return HytaleLogger.forEnclosingClass();
+    }
+
+    protected void setup() {
+    }
+
+    protected void start() {
+    }
+
+    protected void shutdown() {
+    }
+}
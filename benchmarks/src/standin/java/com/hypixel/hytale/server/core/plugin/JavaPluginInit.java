@@ -0,0 +1,7 @@
+package com.hypixel.hytale.server.core.plugin;
+
+/**
+ * Stand-in for the plugin init context.
+ */
+public class JavaPluginInit {
+}
@@ -0,0 +1,168 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.AssetInfo;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.AssetQueryRequest;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.AssetQueryResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Answers asset queries from the index of {@code Assets.zip} built by the Gradle plugin.
+ * <p>
+ * The index file is handed over by the agent and read once on the first query, a failure is
+ * not retried. Its format is documented on {@code AssetIndex} in the Gradle plugin, which
+ * writes it.
+ */
+public class AssetCatalog {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final String INDEX_FILE_PROPERTY = "hytale.dev.assetIndexFile";
+    private static final int MAGIC = 0x48444149;
+    private static final int VERSION = 1;
+    private static final int DEFAULT_LIMIT = 500;
+
+    // Kept in place of an index which could not be read, so it is not read again on every query
+    private static final Index UNREADABLE = new Index("", List.of());
+
+    private final Path indexFile;
+    private volatile Index index;
+
+    private AssetCatalog(Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Create a catalog for the index handed over by the agent.
+     *
+     * @return the catalog, or null if the run has no asset index
+     */
+    public static AssetCatalog fromSystemProperty() {
+        var indexFile = System.getProperty(INDEX_FILE_PROPERTY);
+        return indexFile != null ? new AssetCatalog(Paths.get(indexFile)) : null;
+    }
+
+    /**
+     * Find the assets matching a query.
+     *
+     * @param request the query
+     * @return the matching assets, empty if the index can not be read
+     */
+    public AssetQueryResponse query(AssetQueryRequest request) {
+        var loaded = load();
+        if (loaded == UNREADABLE) {
+            return AssetQueryResponse.getDefaultInstance();
+        }
+
+        int limit = request.getLimit() > 0 ? request.getLimit() : DEFAULT_LIMIT;
+        var prefix = request.getPrefix();
+        var type = request.getType();
+        var references = request.getReferences();
+
+        var response = AssetQueryResponse.newBuilder().setZipHash(loaded.zipHash);
+        for (var asset : loaded.assets) {
+            if (!type.isEmpty() && !asset.type.equals(type)) {
+                continue;
+            }
+            if (!prefix.isEmpty() && !asset.id.startsWith(prefix) && !asset.pathBelowRoot().startsWith(prefix)) {
+                continue;
+            }
+            if (!references.isEmpty() && !asset.references.contains(references)) {
+                continue;
+            }
+
+            if (response.getAssetsCount() == limit) {
+                response.setTruncated(true);
+                break;
+            }
+
+            response.addAssets(AssetInfo.newBuilder()
+                    .setId(asset.id)
+                    .setPath(asset.path)
+                    .setType(asset.type)
+                    .setSize(asset.size)
+                    .setCrc(asset.crc)
+                    .addAllReferences(asset.references));
+        }
+
+        return response.build();
+    }
+
+    private Index load() {
+        var loaded = index;
+        if (loaded != null) {
+            return loaded;
+        }
+
+        synchronized (this) {
+            if (index == null) {
+                try {
+                    index = read(indexFile);
+                    LOGGER.at(Level.FINE).log("Loaded %d assets from %s", index.assets.size(), indexFile);
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.at(Level.WARNING).withCause(e).log("Failed to read asset index %s, asset queries stay empty", indexFile);
+                    index = UNREADABLE;
+                }
+            }
+
+            return index;
+        }
+    }
+
+    private static Index read(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException(file + " is not an asset index of version " + VERSION);
+            }
+
+            var zipHash = readString(buffer);
+            var count = buffer.getInt();
+            var assets = new ArrayList<Asset>(count);
+
+            for (int i = 0; i < count; i++) {
+                var path = readString(buffer);
+                var id = readString(buffer);
+                var type = readString(buffer);
+                buffer.getLong(); // Local header offset
+                buffer.getLong(); // Compressed size
+                var size = buffer.getLong();
+                var crc = buffer.getInt();
+                buffer.getShort(); // Compression method
+
+                var referenceCount = buffer.getInt();
+                var references = new ArrayList<String>(referenceCount);
+                for (int r = 0; r < referenceCount; r++) {
+                    references.add(readString(buffer));
+                }
+
+                assets.add(new Asset(path, id, type, size, crc, references));
+            }
+
+            return new Index(zipHash, assets);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Index(String zipHash, List<Asset> assets) {
+    }
+
+    private record Asset(String path, String id, String type, long size, int crc, List<String> references) {
+        String pathBelowRoot() {
+            return path.substring(path.indexOf('/') + 1);
+        }
+    }
+}
@@ -1,28 +1,51 @@
 package net.janrupf.gradle.hytale.dev.bridge;
 
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.ServerState;
+
 /**
  * Static initialization entry point called from bytecode injection.
  * <p>
  * This class is loaded reflectively by the agent after injecting a call
  * into HytaleLogger's static initializer. It provides early bridge
  * initialization before the main server code runs.
+ * <p>
+ * Only {@link #captureEarlyLogs()} runs in the static initializer, the agent
+ * calls {@link #initialize()} on a virtual thread so creating the client does
+ * not hold up the server. The connection is established in the background as
+ * well. Logs written until then are buffered by the subscriber and the client
+ * and replayed once connected. The bridge plugin shares this client.
  */
 public final class BridgeBootstrapper {
-    private static volatile boolean initialized = false;
-    private static DevBridgeClient client;
+    private static boolean initialized = false;
+    private static volatile DevBridgeClient client;
     private static LogSubscriber subscriber;
 
     private BridgeBootstrapper() {
         // Prevent instantiation
     }
 
+    /**
+     * Subscribe to the logger backend and buffer log records until the bridge is initialized.
+     * <p>
+     * Kept cheap, this is called from the logger's static initializer. Does nothing if the
+     * bridge is not configured or already initialized.
+     */
+    public static synchronized void captureEarlyLogs() {
+        if (initialized || subscriber != null || !isConfigured()) {
+            return;
+        }
+
+        subscriber = new LogSubscriber();
+        subscriber.subscribe();
+    }
+
     /**
      * Initialize the bridge if not already initialized.
      * <p>
      * This method is safe to call multiple times - subsequent calls will be no-ops.
      * If the required environment variables are not set, initialization is skipped silently.
      */
-    public static void initialize() {
+    public static synchronized void initialize() {
         if (initialized) {
             return;
         }
@@ -32,7 +55,7 @@ public final class BridgeBootstrapper {
         String port = System.getenv("HYTALE_DEV_BRIDGE_PORT");
         String token = System.getenv("HYTALE_DEV_BRIDGE_TOKEN");
 
-        if (port == null || token == null) {
+        if (!isConfigured()) {
             // Bridge not configured, skip initialization silently
             return;
         }
@@ -41,41 +64,63 @@ public final class BridgeBootstrapper {
             int portNumber = Integer.parseInt(port);
 
             // Initialize bridge client and log subscriber
-            client = new DevBridgeClient(portNumber, token);
-            subscriber = new LogSubscriber(client);
-
-            // Connect synchronously (wait for connection before subscribing to logs)
-            // This ensures we don't miss early logs while connection is being established
-            boolean connected = client.connectBlocking(5, java.util.concurrent.TimeUnit.SECONDS);
-            if (!connected) {
-                System.err.println("[HytaleDev] Failed to connect to IDE bridge (timeout)");
-                return;
+            var bridgeClient = new DevBridgeClient(portNumber, token);
+            if (subscriber == null) {
+                subscriber = new LogSubscriber();
+                subscriber.subscribe();
             }
 
-            // Now subscribe to logs - connection is established
-            subscriber.subscribe();
+            // The client buffers logs until the connection is up
+            bridgeClient.sendServerState(ServerState.SERVER_STATE_STARTING);
+            subscriber.attach(bridgeClient);
+            bridgeClient.connectInBackground();
+            client = bridgeClient;
 
-            System.out.println("[HytaleDev] Bridge initialized on port " + portNumber);
+            System.out.println("[HytaleDev] Bridge connecting to IDE on port " + portNumber);
         } catch (NumberFormatException e) {
             System.err.println("[HytaleDev] Invalid bridge port number: " + port);
-        } catch (InterruptedException e) {
-            System.err.println("[HytaleDev] Bridge connection interrupted");
-            Thread.currentThread().interrupt();
+            stopCapturing();
         } catch (Exception e) {
             System.err.println("[HytaleDev] Failed to initialize bridge: " + e.getMessage());
             e.printStackTrace();
+            stopCapturing();
         }
     }
 
+    private static boolean isConfigured() {
+        return System.getenv("HYTALE_DEV_BRIDGE_PORT") != null && System.getenv("HYTALE_DEV_BRIDGE_TOKEN") != null;
+    }
+
+    private static void stopCapturing() {
+        if (client == null && subscriber != null) {
+            // Nothing will ever drain the buffered records
+            subscriber.unsubscribe();
+            subscriber = null;
+        }
+    }
+
+    /**
+     * Get the bridge client.
+     *
+     * @return the client, or null if the bridge is not configured
+     */
+    public static DevBridgeClient getClient() {
+        return client;
+    }
+
     /**
      * Shutdown the bridge gracefully.
      * <p>
      * This method can be called during server shutdown to clean up resources.
      */
     public static void shutdown() {
+        if (subscriber != null) {
+            subscriber.unsubscribe();
+        }
+
         if (client != null) {
             try {
-                client.close();
+                client.disconnect();
             } catch (Exception e) {
                 System.err.println("[HytaleDev] Failed to close bridge client: " + e.getMessage());
             }
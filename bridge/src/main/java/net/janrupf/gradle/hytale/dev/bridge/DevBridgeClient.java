@@ -1,18 +1,31 @@
 package net.janrupf.gradle.hytale.dev.bridge;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.MessageLite;
 import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.server.core.command.system.CommandManager;
 import com.hypixel.hytale.server.core.console.ConsoleSender;
-import com.hypixel.hytale.server.core.modules.i18n.I18nModule;
 import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.*;
 import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
 import org.java_websocket.handshake.ServerHandshake;
 
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 /**
@@ -21,19 +34,62 @@ import java.util.logging.Level;
  * Handles the bidirectional protocol communication between the running
  * Hytale server and the IDE for features like log forwarding, command
  * autocomplete, and asset path synchronization.
+ * <p>
+ * Connecting never blocks the caller. If the IDE is not listening yet or the
+ * connection drops, the client keeps reconnecting in the background with
+ * exponential backoff. Log events sent in the meantime are kept in a bounded
+ * {@link ReplayBuffer} and delivered after the hello on the next connect,
+ * together with the latest server state, startup profile and asset paths.
  */
 public class DevBridgeClient extends WebSocketClient {
     private static final int PROTOCOL_VERSION = 1;
     private static final String AGENT_VERSION = "0.1.0";
+    private static final int HANDLER_THREADS = 4;
+    private static final int HANDLER_QUEUE_SIZE = 64;
+    private static final long COMMAND_TIMEOUT_SECONDS = 60;
+    private static final long RECONNECT_MIN_DELAY_MILLIS = 500;
+    private static final long RECONNECT_MAX_DELAY_MILLIS = 30_000;
+    private static final int REPLAY_MAX_MESSAGES = 2048;
+    private static final long REPLAY_MAX_BYTES = 4 * 1024 * 1024;
+    private static final String INSTANCE_PROPERTY = "hytale.dev.instance";
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
 
     private final String authToken;
+    private final String instance;
+    private final JfrController jfrController;
+    private final MessageEncoder encoder;
+    private final TranslationCache translationCache;
+    private final AssetCatalog assetCatalog;
+    private final ThreadPoolExecutor handlerExecutor;
+    private final AtomicInteger pendingCommands;
+    private final ScheduledExecutorService reconnectScheduler;
+    private final ReplayBuffer replayBuffer;
     private volatile boolean connected = false;
+    private volatile boolean closing = false;
+
+    // Completes once the last queued command completed, only extended by the socket thread
+    private volatile CompletableFuture<Void> commandChain = CompletableFuture.completedFuture(null);
+
+    // Only touched by the socket and reconnect threads, which never run concurrently
+    private int reconnectAttempts;
 
     public DevBridgeClient(int port, String authToken) {
         super(URI.create("ws://localhost:" + port + "/hytale-dev-bridge"),
                 createHeaders(authToken));
         this.authToken = authToken;
+        this.instance = System.getProperty(INSTANCE_PROPERTY, "");
+        this.jfrController = new JfrController(this);
+        this.encoder = new MessageEncoder();
+        this.translationCache = new TranslationCache(this::sendTranslationsInvalidated);
+        this.assetCatalog = AssetCatalog.fromSystemProperty();
+        this.handlerExecutor = createHandlerExecutor("HytaleDev-Bridge-Handler", HANDLER_THREADS);
+        this.pendingCommands = new AtomicInteger();
+        this.reconnectScheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            var thread = new Thread(runnable, "HytaleDev-Bridge-Reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.replayBuffer = new ReplayBuffer(REPLAY_MAX_MESSAGES, REPLAY_MAX_BYTES);
         this.setConnectionLostTimeout(30);
     }
 
@@ -41,25 +97,84 @@ public class DevBridgeClient extends WebSocketClient {
         return Collections.singletonMap("Authorization", "Bearer " + token);
     }
 
+    /**
+     * Create an executor IDE requests are handled on.
+     * <p>
+     * Handlers such as command execution and translation can take a while, running them on
+     * the socket thread would stall every other message including pings. Responses carry the
+     * request id, so the IDE can pipeline requests and match responses arriving in any order.
+     * The queue is bounded so a flood of requests cannot pile up, requests beyond it are
+     * rejected and answered with {@link RequestRejected}.
+     *
+     * @param name    the name of the handler threads
+     * @param threads the number of handler threads
+     */
+    private static ThreadPoolExecutor createHandlerExecutor(String name, int threads) {
+        var threadCount = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                30,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(HANDLER_QUEUE_SIZE),
+                (runnable) -> {
+                    var thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Start connecting to the IDE in the background.
+     * <p>
+     * Returns immediately, failed attempts are retried until {@link #disconnect()} is called.
+     */
+    public void connectInBackground() {
+        connect();
+    }
+
     @Override
     public void onOpen(ServerHandshake handshakedata) {
-        connected = true;
+        reconnectAttempts = 0;
 
         // Send hello message
-        AgentHello hello = AgentHello.newBuilder()
+        AgentHello.Builder hello = AgentHello.newBuilder()
                 .setProtocolVersion(PROTOCOL_VERSION)
                 .setAgentVersion(AGENT_VERSION)
                 .addCapabilities("logs")
                 .addCapabilities("commands")
                 .addCapabilities("assets")
                 .addCapabilities("translate")
-                .build();
+                .addCapabilities("startup-profile")
+                .addCapabilities("tick-metrics")
+                .addCapabilities("jfr")
+                .addCapabilities("jvm-telemetry")
+                .addCapabilities("request-ids")
+                .addCapabilities("command-results")
+                .setInstance(instance);
+
+        if (assetCatalog != null) {
+            hello.addCapabilities("asset-index");
+        }
 
-        AgentMessage message = AgentMessage.newBuilder()
-                .setHello(hello)
-                .build();
+        if (translationCache.canEnumerate()) {
+            hello.addCapabilities("translate-dump");
+        }
 
-        send(message.toByteArray());
+        // Replay while holding the buffer, senders wait so nothing overtakes the replay
+        long dropped;
+        synchronized (replayBuffer) {
+            sendPayload(AgentMessage.HELLO_FIELD_NUMBER, hello.build());
+            dropped = replayBuffer.replay(this::send);
+            connected = true;
+        }
+
+        if (dropped > 0) {
+            LOGGER.at(Level.WARNING).log("Dropped %d log events while the IDE was not connected", dropped);
+        }
     }
 
     @Override
@@ -69,32 +184,75 @@ public class DevBridgeClient extends WebSocketClient {
 
     @Override
     public void onMessage(ByteBuffer bytes) {
+        IdeMessage message;
         try {
-            byte[] data = new byte[bytes.remaining()];
-            bytes.get(data);
-            IdeMessage message = IdeMessage.parseFrom(data);
-            handleIdeMessage(message);
+            // Parsed on the socket thread, the frame buffer is not ours once this returns
+            message = IdeMessage.parseFrom(CodedInputStream.newInstance(bytes));
         } catch (Exception e) {
             LOGGER.at(Level.WARNING).withCause(e).log("Failed to parse IDE message");
+            return;
         }
+
+        if (message.getPayloadCase() == IdeMessage.PayloadCase.EXECUTE_COMMAND) {
+            // Commands change server state and run one after another in the order they arrived,
+            // everything else only reads and is handled concurrently
+            enqueueCommand(message.getRequestId(), message.getExecuteCommand());
+            return;
+        }
+
+        try {
+            handlerExecutor.execute(() -> {
+                try {
+                    handleIdeMessage(message);
+                } catch (Exception e) {
+                    LOGGER.at(Level.WARNING).withCause(e).log("Failed to handle IDE message %s", message.getPayloadCase());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (!handlerExecutor.isShutdown()) {
+                LOGGER.at(Level.WARNING).log("Rejecting IDE request %s, %d requests are pending",
+                        message.getPayloadCase(), HANDLER_QUEUE_SIZE);
+                sendRequestRejected(message.getRequestId(), HANDLER_QUEUE_SIZE + " requests are pending");
+            }
+        }
+    }
+
+    private void sendRequestRejected(long requestId, String reason) {
+        if (requestId == 0) {
+            // Nobody waits for the response
+            return;
+        }
+
+        RequestRejected rejected = RequestRejected.newBuilder()
+                .setReason(reason)
+                .build();
+        sendResponse(requestId, AgentMessage.REQUEST_REJECTED_FIELD_NUMBER, rejected);
     }
 
     private void handleIdeMessage(IdeMessage message) {
+        long requestId = message.getRequestId();
+
         switch (message.getPayloadCase()) {
             case HELLO:
                 handleIdeHello(message.getHello());
                 break;
             case GET_COMMANDS:
-                handleGetCommands(message.getGetCommands());
+                handleGetCommands(requestId, message.getGetCommands());
                 break;
             case GET_SUGGESTIONS:
-                handleGetSuggestions(message.getGetSuggestions());
-                break;
-            case EXECUTE_COMMAND:
-                handleExecuteCommand(message.getExecuteCommand());
+                handleGetSuggestions(requestId, message.getGetSuggestions());
                 break;
             case TRANSLATE:
-                handleTranslateRequest(message.getTranslate());
+                handleTranslateRequest(requestId, message.getTranslate());
+                break;
+            case JFR:
+                handleJfrRequest(requestId, message.getJfr());
+                break;
+            case TRANSLATION_DUMP:
+                handleTranslationDumpRequest(requestId, message.getTranslationDump());
+                break;
+            case ASSET_QUERY:
+                handleAssetQueryRequest(requestId, message.getAssetQuery());
                 break;
             default:
                 LOGGER.at(Level.WARNING).log("Received unknown IDE message type: %s", message.getPayloadCase());
@@ -106,61 +264,180 @@ public class DevBridgeClient extends WebSocketClient {
         LOGGER.at(Level.INFO).log("IDE connected: version %s", hello.getPluginVersion());
     }
 
-    private void handleGetCommands(GetCommandsRequest request) {
+    private void handleGetCommands(long requestId, GetCommandsRequest request) {
         LOGGER.at(Level.FINE).log("Extracting command registry...");
         CommandRegistryResponse response = CommandMetadataExtractor.getInstance().extractFullRegistry();
-        AgentMessage message = AgentMessage.newBuilder()
-                .setCommandRegistry(response)
-                .build();
-        send(message.toByteArray());
+        sendResponse(requestId, AgentMessage.COMMAND_REGISTRY_FIELD_NUMBER, response);
         LOGGER.at(Level.INFO).log("Sent %d commands to IDE", response.getCommandsCount());
     }
 
-    private void handleGetSuggestions(GetSuggestionsRequest request) {
+    private void handleGetSuggestions(long requestId, GetSuggestionsRequest request) {
         SuggestionsResponse response = SuggestionHandler.getInstance().getSuggestions(request);
-        AgentMessage message = AgentMessage.newBuilder()
-                .setSuggestions(response)
-                .build();
-        send(message.toByteArray());
+        sendResponse(requestId, AgentMessage.SUGGESTIONS_FIELD_NUMBER, response);
+    }
+
+    /**
+     * Queue a command behind the previously received ones.
+     * <p>
+     * No thread waits for a command, the next one is dispatched on the handler executor once the
+     * previous one completed. A command not completing within {@link #COMMAND_TIMEOUT_SECONDS}
+     * is reported as failed and no longer holds back the ones after it.
+     */
+    private void enqueueCommand(long requestId, ExecuteCommandRequest request) {
+        if (pendingCommands.incrementAndGet() > HANDLER_QUEUE_SIZE) {
+            pendingCommands.decrementAndGet();
+            LOGGER.at(Level.WARNING).log("Rejecting IDE command, %d commands are pending", HANDLER_QUEUE_SIZE);
+            sendRequestRejected(requestId, HANDLER_QUEUE_SIZE + " commands are pending");
+            return;
+        }
+
+        commandChain = commandChain
+                .thenComposeAsync((ignored) -> executeCommand(requestId, request), handlerExecutor)
+                .handle((ignored, error) -> {
+                    pendingCommands.decrementAndGet();
+                    if (error != null) {
+                        // Not dispatched at all, e.g. because the client is shutting down
+                        sendCommandResult(requestId, 0, commandError(error));
+                    }
+                    return null;
+                });
     }
 
-    private void handleExecuteCommand(ExecuteCommandRequest request) {
+    private CompletableFuture<Void> executeCommand(long requestId, ExecuteCommandRequest request) {
         String command = request.getCommand();
         LOGGER.at(Level.INFO).log("Executing command from IDE: %s", command);
 
         CommandManager manager = CommandManager.get();
-        if (manager != null) {
-            manager.handleCommand(ConsoleSender.INSTANCE, command);
+        if (manager == null) {
+            sendCommandResult(requestId, 0, "CommandManager not available");
+            return CompletableFuture.completedFuture(null);
         }
+
+        // The timeout applies to a copy, the future of the server is left alone
+        long start = System.nanoTime();
+        return manager.handleCommand(ConsoleSender.INSTANCE, command)
+                .copy()
+                .orTimeout(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .handle((ignored, error) -> {
+                    sendCommandResult(requestId, System.nanoTime() - start, commandError(error));
+                    return null;
+                });
     }
 
-    private void handleTranslateRequest(TranslateRequest request) {
+    private static String commandError(Throwable error) {
+        if (error == null) {
+            return "";
+        }
+
+        var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "Did not complete within " + COMMAND_TIMEOUT_SECONDS + " seconds";
+        }
+
+        return String.valueOf(cause);
+    }
+
+    private void sendCommandResult(long requestId, long durationNanos, String error) {
+        if (requestId == 0) {
+            // Nobody waits for the result
+            return;
+        }
+
+        ExecuteCommandResponse response = ExecuteCommandResponse.newBuilder()
+                .setDurationNanos(durationNanos)
+                .setError(error)
+                .build();
+        sendResponse(requestId, AgentMessage.EXECUTE_COMMAND_RESPONSE_FIELD_NUMBER, response);
+    }
+
+    private void handleTranslateRequest(long requestId, TranslateRequest request) {
         String language = request.hasLanguage() ? request.getLanguage() : "en";
-        I18nModule i18n = I18nModule.get();
 
         TranslateResponse.Builder builder = TranslateResponse.newBuilder();
         for (String key : request.getKeysList()) {
-            String translated = i18n.getMessage(language, key);
+            String translated = translationCache.translate(language, key);
             if (translated != null) {
                 builder.putTranslations(key, translated);
             }
         }
 
-        AgentMessage message = AgentMessage.newBuilder()
-                .setTranslateResponse(builder.build())
+        sendResponse(requestId, AgentMessage.TRANSLATE_RESPONSE_FIELD_NUMBER, builder.build());
+    }
+
+    private void handleTranslationDumpRequest(long requestId, TranslationDumpRequest request) {
+        String language = request.hasLanguage() ? request.getLanguage() : "en";
+
+        Map<String, String> translations = new HashMap<>();
+        boolean complete = translationCache.dump(language, request.getPrefix(), translations);
+
+        TranslationDumpResponse response = TranslationDumpResponse.newBuilder()
+                .setLanguage(language)
+                .setPrefix(request.getPrefix())
+                .putAllTranslations(translations)
+                .setComplete(complete)
                 .build();
-        send(message.toByteArray());
+
+        sendResponse(requestId, AgentMessage.TRANSLATION_DUMP_FIELD_NUMBER, response);
+        LOGGER.at(Level.FINE).log("Sent %d %s translations with prefix '%s' to IDE", translations.size(), language, request.getPrefix());
+    }
+
+    private void handleAssetQueryRequest(long requestId, AssetQueryRequest request) {
+        AssetQueryResponse response = assetCatalog != null
+                ? assetCatalog.query(request)
+                : AssetQueryResponse.getDefaultInstance();
+        sendResponse(requestId, AgentMessage.ASSET_QUERY_FIELD_NUMBER, response);
+    }
+
+    private void handleJfrRequest(long requestId, JfrRequest request) {
+        JfrStatus status = jfrController.handle(request);
+        sendResponse(requestId, AgentMessage.JFR_STATUS_FIELD_NUMBER, status);
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
+        boolean wasConnected = connected;
         connected = false;
-        LOGGER.at(Level.INFO).log("Connection closed: %s", reason);
+
+        if (wasConnected) {
+            LOGGER.at(Level.INFO).log("Connection closed: %s", reason);
+        }
+
+        scheduleReconnect();
     }
 
     @Override
     public void onError(Exception ex) {
-        LOGGER.at(Level.WARNING).withCause(ex).log("Connection error");
+        // Failed connection attempts are expected while the IDE is not listening
+        LOGGER.at(connected ? Level.WARNING : Level.FINE).withCause(ex).log("Connection error");
+    }
+
+    private void scheduleReconnect() {
+        if (closing) {
+            return;
+        }
+
+        long delay = Math.min(RECONNECT_MIN_DELAY_MILLIS << Math.min(reconnectAttempts, 16), RECONNECT_MAX_DELAY_MILLIS);
+        reconnectAttempts++;
+
+        try {
+            reconnectScheduler.schedule(this::reconnectNow, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Disconnected concurrently
+        }
+    }
+
+    private void reconnectNow() {
+        if (closing) {
+            return;
+        }
+
+        try {
+            // Must not run on the socket thread, reconnect() waits for it to finish
+            reconnect();
+        } catch (Exception e) {
+            LOGGER.at(Level.FINE).withCause(e).log("Failed to start reconnect");
+            scheduleReconnect();
+        }
     }
 
     /**
@@ -169,13 +446,45 @@ public class DevBridgeClient extends WebSocketClient {
      * @param logEvent the log event to send
      */
     public void sendLogEvent(LogEvent logEvent) {
-        if (!connected) return;
-
-        AgentMessage message = AgentMessage.newBuilder()
-                .setLogEvent(logEvent)
-                .build();
+        var slot = encoder.acquire();
+        try {
+            if (!instance.isEmpty() && logEvent.getInstance().isEmpty()) {
+                logEvent = logEvent.toBuilder().setInstance(instance).build();
+            }
+            sendOrBuffer(slot.encode(0, AgentMessage.LOG_EVENT_FIELD_NUMBER, logEvent));
+        } finally {
+            encoder.release(slot);
+        }
+    }
 
-        send(message.toByteArray());
+    /**
+     * Send a log event to the IDE without building the message first.
+     * <p>
+     * The event is encoded straight into a pooled buffer, which keeps log forwarding
+     * from allocating per record while connected. Events are tagged with the cluster instance
+     * name, if the server is one.
+     *
+     * @param timestamp  the log timestamp in milliseconds
+     * @param level      the log level
+     * @param loggerName the logger name
+     * @param message    the log message
+     * @param throwable  the stack trace, or an empty string
+     * @param threadName the name of the logging thread
+     */
+    public void sendLogEvent(
+            long timestamp,
+            LogLevel level,
+            String loggerName,
+            String message,
+            String throwable,
+            String threadName
+    ) {
+        var slot = encoder.acquire();
+        try {
+            sendOrBuffer(slot.encodeLogEvent(timestamp, level, loggerName, message, throwable, threadName, instance));
+        } finally {
+            encoder.release(slot);
+        }
     }
 
     /**
@@ -184,17 +493,71 @@ public class DevBridgeClient extends WebSocketClient {
      * @param state the server state
      */
     public void sendServerState(ServerState state) {
-        if (!connected) return;
-
         ServerStateEvent event = ServerStateEvent.newBuilder()
                 .setState(state)
                 .build();
 
-        AgentMessage message = AgentMessage.newBuilder()
-                .setServerState(event)
-                .build();
+        sendLatest(AgentMessage.SERVER_STATE_FIELD_NUMBER, event);
+    }
+
+    /**
+     * Send the startup profile to the IDE.
+     *
+     * @param profile the startup profile
+     */
+    public void sendStartupProfile(StartupProfile profile) {
+        sendLatest(AgentMessage.STARTUP_PROFILE_FIELD_NUMBER, profile);
+    }
+
+    /**
+     * Send tick metrics to the IDE.
+     *
+     * @param metrics the tick metrics
+     */
+    public void sendTickMetrics(TickMetrics metrics) {
+        if (!connected) return;
+
+        sendPayload(AgentMessage.TICK_METRICS_FIELD_NUMBER, metrics);
+    }
+
+    /**
+     * Send a JVM telemetry sample to the IDE.
+     *
+     * @param telemetry the telemetry sample
+     */
+    public void sendJvmTelemetry(JvmTelemetry telemetry) {
+        if (!connected) return;
+
+        sendPayload(AgentMessage.JVM_TELEMETRY_FIELD_NUMBER, telemetry);
+    }
+
+    /**
+     * Send streamed JFR events to the IDE.
+     *
+     * @param events the batch of events
+     */
+    public void sendJfrEvents(JfrEvents events) {
+        if (!connected) return;
 
-        send(message.toByteArray());
+        sendPayload(AgentMessage.JFR_EVENTS_FIELD_NUMBER, events);
+    }
+
+    /**
+     * Drop all cached translations, for example after a plugin with translations was reloaded.
+     */
+    public void invalidateTranslations() {
+        translationCache.invalidate();
+    }
+
+    private void sendTranslationsInvalidated(String language) {
+        if (!connected) return;
+
+        TranslationsInvalidated.Builder event = TranslationsInvalidated.newBuilder();
+        if (language != null) {
+            event.addLanguages(language);
+        }
+
+        sendPayload(AgentMessage.TRANSLATIONS_INVALIDATED_FIELD_NUMBER, event.build());
     }
 
     /**
@@ -206,20 +569,75 @@ public class DevBridgeClient extends WebSocketClient {
      * @param paths list of absolute paths to plugin asset directories
      */
     public void sendAssetPaths(List<String> paths) {
-        if (!connected) return;
-
         AssetPathsEvent event = AssetPathsEvent.newBuilder()
                 .addAllPaths(paths)
                 .build();
 
-        AgentMessage message = AgentMessage.newBuilder()
-                .setAssetPaths(event)
-                .build();
-
-        send(message.toByteArray());
+        sendLatest(AgentMessage.ASSET_PATHS_FIELD_NUMBER, event);
         LOGGER.at(Level.INFO).log("Sent %d asset paths to IDE", paths.size());
     }
 
+    private void sendOrBuffer(ByteBuffer encoded) {
+        if (closing) return;
+
+        if (!connected) {
+            synchronized (replayBuffer) {
+                if (!connected) {
+                    replayBuffer.add(encoded);
+                    return;
+                }
+            }
+        }
+
+        try {
+            send(encoded);
+        } catch (WebsocketNotConnectedException e) {
+            // Closed since the check, the frame is only built once the socket is open
+            synchronized (replayBuffer) {
+                replayBuffer.add(encoded);
+            }
+        }
+    }
+
+    private void sendLatest(int fieldNumber, MessageLite payload) {
+        if (closing) return;
+
+        var slot = encoder.acquire();
+        try {
+            var encoded = slot.encode(0, fieldNumber, payload);
+
+            synchronized (replayBuffer) {
+                replayBuffer.putLatest(fieldNumber, encoded);
+                if (!connected) {
+                    // Delivered with the replay on the next connect
+                    return;
+                }
+            }
+
+            try {
+                send(encoded);
+            } catch (WebsocketNotConnectedException e) {
+                // Closed since the check, the message is kept as the latest and replayed on connect
+            }
+        } finally {
+            encoder.release(slot);
+        }
+    }
+
+    private void sendPayload(int fieldNumber, MessageLite payload) {
+        sendResponse(0, fieldNumber, payload);
+    }
+
+    private void sendResponse(long requestId, int fieldNumber, MessageLite payload) {
+        var slot = encoder.acquire();
+        try {
+            // The socket copies the payload into the frame, so the slot can be reused right away
+            send(slot.encode(requestId, fieldNumber, payload));
+        } finally {
+            encoder.release(slot);
+        }
+    }
+
     /**
      * Check if the client is currently connected to the IDE.
      *
@@ -233,6 +651,11 @@ public class DevBridgeClient extends WebSocketClient {
      * Disconnect from the IDE gracefully.
      */
     public void disconnect() {
+        closing = true;
+        reconnectScheduler.shutdownNow();
+        handlerExecutor.shutdownNow();
+        jfrController.close();
+
         if (isOpen()) {
             close();
         }
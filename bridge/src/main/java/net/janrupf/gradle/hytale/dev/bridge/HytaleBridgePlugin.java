@@ -2,8 +2,10 @@ package net.janrupf.gradle.hytale.dev.bridge;
 
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.ServerState;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
 import java.util.logging.Level;
 
 /**
@@ -18,7 +20,9 @@ import java.util.logging.Level;
  */
 public class HytaleBridgePlugin extends JavaPlugin {
     private DevBridgeClient bridgeClient;
-    private LogSubscriber logSubscriber;
+    private PluginReloadWatcher reloadWatcher;
+    private TickMetricsReporter tickMetricsReporter;
+    private JvmTelemetryReporter telemetryReporter;
 
     public HytaleBridgePlugin(@Nonnull JavaPluginInit init) {
         super(init);
@@ -28,50 +32,65 @@ public class HytaleBridgePlugin extends JavaPlugin {
     protected void setup() {
         getLogger().at(Level.INFO).log("Hytale Dev Bridge initializing...");
 
-        // Check for bridge connection environment variables
-        String port = System.getenv("HYTALE_DEV_BRIDGE_PORT");
-        String token = System.getenv("HYTALE_DEV_BRIDGE_TOKEN");
+        // Usually already done from the logger's static initializer, unless loaded without the agent
+        BridgeBootstrapper.initialize();
+        bridgeClient = BridgeBootstrapper.getClient();
 
-        if (port == null || token == null) {
+        if (bridgeClient == null) {
             getLogger().at(Level.INFO).log("Bridge environment variables not set - running standalone");
-            return;
-        }
-
-        try {
-            int portNumber = Integer.parseInt(port);
-            bridgeClient = new DevBridgeClient(portNumber, token);
-            logSubscriber = new LogSubscriber(bridgeClient);
-            getLogger().at(Level.INFO).log("Dev Bridge configured for port %d", portNumber);
-        } catch (NumberFormatException e) {
-            getLogger().at(Level.WARNING).log("Invalid bridge port: %s", port);
         }
     }
 
     @Override
     protected void start() {
-        if (bridgeClient != null) {
+        // Hot reload does not depend on the IDE connection
+        reloadWatcher = PluginReloadWatcher.fromSystemProperties();
+        if (reloadWatcher != null) {
+            if (bridgeClient != null) {
+                // The reloaded plugin may have brought new translations
+                reloadWatcher.setReloadListener(bridgeClient::invalidateTranslations);
+            }
+
             try {
-                bridgeClient.connectBlocking();
-                if (bridgeClient.isConnected()) {
-                    logSubscriber.subscribe();
-                    getLogger().at(Level.INFO).log("Dev Bridge connected to IDE");
-                } else {
-                    getLogger().at(Level.WARNING).log("Dev Bridge failed to connect to IDE");
-                }
-            } catch (InterruptedException e) {
-                getLogger().at(Level.WARNING).withCause(e).log("Interrupted while connecting to IDE");
-                Thread.currentThread().interrupt();
+                reloadWatcher.start();
+                getLogger().at(Level.INFO).log("Watching for plugin reload requests");
+            } catch (IOException e) {
+                getLogger().at(Level.WARNING).withCause(e).log("Failed to watch for plugin reload requests");
+                reloadWatcher = null;
             }
         }
+
+        tickMetricsReporter = TickMetricsReporter.create(bridgeClient);
+        if (tickMetricsReporter != null) {
+            tickMetricsReporter.start();
+        }
+
+        telemetryReporter = JvmTelemetryReporter.create(bridgeClient);
+        if (telemetryReporter != null) {
+            telemetryReporter.start();
+        }
+
+        // Plugins are started last, treat this as the point the server became ready
+        if (bridgeClient != null) {
+            bridgeClient.sendServerState(ServerState.SERVER_STATE_READY);
+        }
+        StartupProfileReporter.report(bridgeClient);
     }
 
     @Override
     protected void shutdown() {
-        if (logSubscriber != null) {
-            logSubscriber.unsubscribe();
+        if (tickMetricsReporter != null) {
+            tickMetricsReporter.stop();
+        }
+        if (telemetryReporter != null) {
+            telemetryReporter.stop();
+        }
+        if (reloadWatcher != null) {
+            reloadWatcher.stop();
         }
         if (bridgeClient != null) {
-            bridgeClient.disconnect();
+            bridgeClient.sendServerState(ServerState.SERVER_STATE_STOPPING);
+            BridgeBootstrapper.shutdown();
             getLogger().at(Level.INFO).log("Dev Bridge disconnected");
         }
     }
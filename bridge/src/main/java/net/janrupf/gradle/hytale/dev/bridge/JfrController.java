@@ -0,0 +1,275 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.JfrEvent;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.JfrEventKind;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.JfrEvents;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.JfrRequest;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.JfrStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Controls Java Flight Recorder sessions on behalf of the IDE.
+ * <p>
+ * A recording started by the IDE is written to disk when it is stopped or dumped. While
+ * it runs, selected events can additionally be streamed to the IDE; they are batched per
+ * JFR flush and only carry the few fields the IDE displays. If the run was started with
+ * the {@code profile} flag, the recording started from the command line is dumped when
+ * the IDE did not start one of its own.
+ */
+public class JfrController {
+    private static final String RECORDINGS_DIRECTORY_PROPERTY = "hytale.dev.recordingsDirectory";
+    private static final String RECORDING_NAME = "hytale-dev-ide";
+    private static final String STARTUP_RECORDING_NAME = "hytale-dev";
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private static final int MAX_STACK_FRAMES = 8;
+    private static final Duration LOCK_THRESHOLD = Duration.ofMillis(10);
+    private static final Duration CPU_SAMPLE_PERIOD = Duration.ofMillis(20);
+
+    private final DevBridgeClient client;
+    private Recording recording;
+    private RecordingStream stream;
+    private List<JfrEventKind> streaming = List.of();
+
+    // Only touched by the stream thread
+    private JfrEvents.Builder pendingEvents;
+
+    public JfrController(DevBridgeClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Handle a request from the IDE.
+     *
+     * @param request the request
+     * @return the status after the request has been handled
+     */
+    public synchronized JfrStatus handle(JfrRequest request) {
+        var status = JfrStatus.newBuilder();
+
+        try {
+            switch (request.getAction()) {
+                case JFR_ACTION_START -> start(request);
+                case JFR_ACTION_STOP -> status.setPath(stop(request).toString());
+                case JFR_ACTION_DUMP -> status.setPath(dump(request).toString());
+                case JFR_ACTION_STATUS -> {
+                    // Only report the status
+                }
+                default -> status.setError("Unknown action: " + request.getAction());
+            }
+        } catch (IOException | ParseException | IllegalStateException e) {
+            LOGGER.at(Level.WARNING).withCause(e).log("JFR request %s failed", request.getAction());
+            status.setError(e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+
+        return status
+                .setRecording(recording != null)
+                .addAllStreaming(streaming)
+                .build();
+    }
+
+    /**
+     * Stop the recording and the event stream without writing the recording.
+     */
+    public synchronized void close() {
+        closeStream();
+
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private void start(JfrRequest request) throws IOException, ParseException {
+        if (recording != null) {
+            throw new IllegalStateException("A recording is already running");
+        }
+
+        var settings = request.getSettings().isEmpty() ? "profile" : request.getSettings();
+        var configuration = settings.endsWith(".jfc")
+                ? Configuration.create(Paths.get(settings))
+                : Configuration.getConfiguration(settings);
+
+        recording = new Recording(configuration);
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.start();
+
+        if (request.getStreamEventsCount() > 0) {
+            startStream(request.getStreamEventsList());
+        }
+
+        LOGGER.at(Level.INFO).log("Started JFR recording with settings %s", settings);
+    }
+
+    private Path stop(JfrRequest request) throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No recording is running");
+        }
+
+        closeStream();
+
+        var path = targetPath(request);
+        recording.stop();
+        recording.dump(path);
+        recording.close();
+        recording = null;
+
+        LOGGER.at(Level.INFO).log("Stopped JFR recording, written to %s", path);
+        return path;
+    }
+
+    private Path dump(JfrRequest request) throws IOException {
+        var target = recording;
+        if (target == null) {
+            target = findStartupRecording();
+        }
+
+        if (target == null) {
+            throw new IllegalStateException("No recording is running");
+        }
+
+        var path = targetPath(request);
+        target.dump(path);
+
+        LOGGER.at(Level.INFO).log("Dumped JFR recording to %s", path);
+        return path;
+    }
+
+    private Recording findStartupRecording() {
+        for (var candidate : FlightRecorder.getFlightRecorder().getRecordings()) {
+            if (STARTUP_RECORDING_NAME.equals(candidate.getName())) {
+                return candidate;
+            }
+        }
+
+        return null;
+    }
+
+    private Path targetPath(JfrRequest request) throws IOException {
+        if (!request.getPath().isEmpty()) {
+            return Paths.get(request.getPath()).toAbsolutePath();
+        }
+
+        var directory = Paths.get(System.getProperty(RECORDINGS_DIRECTORY_PROPERTY, "recordings"));
+        Files.createDirectories(directory);
+
+        return directory.resolve("hytale-" + LocalDateTime.now().format(FILE_NAME_FORMAT) + ".jfr").toAbsolutePath();
+    }
+
+    private void startStream(List<JfrEventKind> kinds) {
+        stream = new RecordingStream();
+        streaming = List.copyOf(kinds);
+        pendingEvents = null;
+
+        for (var kind : kinds) {
+            switch (kind) {
+                case JFR_EVENT_KIND_GC_PAUSE -> stream.enable("jdk.GarbageCollection");
+                case JFR_EVENT_KIND_ALLOCATION -> stream.enable("jdk.ObjectAllocationSample").withStackTrace();
+                case JFR_EVENT_KIND_LOCK_CONTENTION -> stream.enable("jdk.JavaMonitorEnter")
+                        .withThreshold(LOCK_THRESHOLD)
+                        .withStackTrace();
+                case JFR_EVENT_KIND_CPU_SAMPLE -> stream.enable("jdk.ExecutionSample").withPeriod(CPU_SAMPLE_PERIOD);
+                default -> LOGGER.at(Level.WARNING).log("Ignoring unknown JFR event kind %s", kind);
+            }
+        }
+
+        stream.onEvent("jdk.GarbageCollection", (event) -> addEvent(JfrEventKind.JFR_EVENT_KIND_GC_PAUSE, event));
+        stream.onEvent("jdk.ObjectAllocationSample", (event) -> addEvent(JfrEventKind.JFR_EVENT_KIND_ALLOCATION, event));
+        stream.onEvent("jdk.JavaMonitorEnter", (event) -> addEvent(JfrEventKind.JFR_EVENT_KIND_LOCK_CONTENTION, event));
+        stream.onEvent("jdk.ExecutionSample", (event) -> addEvent(JfrEventKind.JFR_EVENT_KIND_CPU_SAMPLE, event));
+        stream.onFlush(this::flushEvents);
+        stream.startAsync();
+    }
+
+    private void closeStream() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+
+        streaming = List.of();
+    }
+
+    private void addEvent(JfrEventKind kind, RecordedEvent event) {
+        if (pendingEvents == null) {
+            pendingEvents = JfrEvents.newBuilder();
+        }
+
+        var builder = JfrEvent.newBuilder()
+                .setKind(kind)
+                .setStartMillis(event.getStartTime().toEpochMilli())
+                .setDurationNanos(event.getDuration().toNanos());
+
+        RecordedThread thread = event.getThread();
+        if (thread == null && event.hasField("sampledThread")) {
+            thread = event.getThread("sampledThread");
+        }
+        if (thread != null && thread.getJavaName() != null) {
+            builder.setThread(thread.getJavaName());
+        }
+
+        switch (kind) {
+            case JFR_EVENT_KIND_GC_PAUSE -> builder
+                    .setName(event.getString("name"))
+                    .setDurationNanos(event.getDuration("sumOfPauses").toNanos());
+            case JFR_EVENT_KIND_ALLOCATION -> builder
+                    .setName(event.getClass("objectClass").getName())
+                    .setWeight(event.getLong("weight"));
+            case JFR_EVENT_KIND_LOCK_CONTENTION -> builder
+                    .setName(event.getClass("monitorClass").getName());
+            default -> {
+                // CPU samples only carry the stack
+            }
+        }
+
+        addStack(builder, event.getStackTrace());
+        pendingEvents.addEvents(builder);
+    }
+
+    private static void addStack(JfrEvent.Builder builder, RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return;
+        }
+
+        var frames = stackTrace.getFrames();
+        for (int i = 0; i < frames.size() && i < MAX_STACK_FRAMES; i++) {
+            RecordedFrame frame = frames.get(i);
+            var method = frame.getMethod();
+            builder.addStack(method.getType().getName() + "." + method.getName() + ":" + frame.getLineNumber());
+        }
+    }
+
+    private void flushEvents() {
+        if (pendingEvents == null || pendingEvents.getEventsCount() == 0) {
+            return;
+        }
+
+        var events = pendingEvents.build();
+        pendingEvents = null;
+
+        if (client.isConnected()) {
+            client.sendJfrEvents(events);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.GarbageCollectorStats;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.JvmTelemetry;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.MemoryPoolUsage;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.ThreadStats;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Periodically samples heap, GC, thread and CPU usage of the server and sends it to the IDE.
+ * <p>
+ * Samples are taken on a single low priority daemon thread. All MXBeans and message builders
+ * are looked up and created once and then updated in place, so a sample only allocates the
+ * values returned by the platform MXBeans and the outgoing message itself.
+ */
+public class JvmTelemetryReporter {
+    private static final String INTERVAL_PROPERTY = "hytale.dev.telemetryInterval";
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final DevBridgeClient client;
+    private final long intervalMillis;
+
+    private final List<MemoryPoolMXBean> memoryPools;
+    private final List<GarbageCollectorMXBean> garbageCollectors;
+    private final java.lang.management.ThreadMXBean threads;
+    private final com.sun.management.ThreadMXBean allocations;
+    private final com.sun.management.OperatingSystemMXBean operatingSystem;
+
+    // Updated in place, only touched by the scheduler thread
+    private final JvmTelemetry.Builder telemetry;
+    private final ThreadStats.Builder threadStats;
+    private final long[] previousCollections;
+    private final long[] previousCollectionTimes;
+    private long previousAllocatedBytes;
+    private long previousSampleNanos;
+
+    private ScheduledExecutorService scheduler;
+
+    private JvmTelemetryReporter(DevBridgeClient client, long intervalMillis) {
+        this.client = client;
+        this.intervalMillis = intervalMillis;
+
+        this.memoryPools = ManagementFactory.getMemoryPoolMXBeans();
+        this.garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+        this.threads = ManagementFactory.getThreadMXBean();
+        this.allocations = threads instanceof com.sun.management.ThreadMXBean bean &&
+                bean.isThreadAllocatedMemorySupported() ? bean : null;
+        this.operatingSystem = ManagementFactory.getOperatingSystemMXBean()
+                instanceof com.sun.management.OperatingSystemMXBean bean ? bean : null;
+
+        this.telemetry = JvmTelemetry.newBuilder();
+        for (var pool : memoryPools) {
+            telemetry.addMemoryPoolsBuilder()
+                    .setName(pool.getName())
+                    .setHeap(pool.getType() == MemoryType.HEAP);
+        }
+        for (var collector : garbageCollectors) {
+            telemetry.addGarbageCollectorsBuilder().setName(collector.getName());
+        }
+        this.threadStats = telemetry.getThreadsBuilder();
+
+        this.previousCollections = new long[garbageCollectors.size()];
+        this.previousCollectionTimes = new long[garbageCollectors.size()];
+    }
+
+    /**
+     * Create a reporter if telemetry is enabled for this run.
+     *
+     * @param client the bridge client to send the telemetry with
+     * @return the reporter, or null if telemetry is disabled
+     */
+    public static JvmTelemetryReporter create(DevBridgeClient client) {
+        String interval = System.getProperty(INTERVAL_PROPERTY);
+        if (interval == null || client == null) {
+            return null;
+        }
+
+        long intervalMillis;
+        try {
+            intervalMillis = Long.parseLong(interval);
+        } catch (NumberFormatException e) {
+            LOGGER.at(Level.WARNING).log("Invalid telemetry interval: %s", interval);
+            return null;
+        }
+
+        return intervalMillis > 0 ? new JvmTelemetryReporter(client, intervalMillis) : null;
+    }
+
+    /**
+     * Start sampling.
+     */
+    public void start() {
+        // Establish the baseline for the deltas of the first sample
+        sample();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            var thread = new Thread(runnable, "HytaleDev-Telemetry");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop sampling.
+     */
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void report() {
+        try {
+            sample();
+
+            if (client.isConnected()) {
+                client.sendJvmTelemetry(telemetry.build());
+            }
+        } catch (Exception e) {
+            LOGGER.at(Level.WARNING).withCause(e).log("Failed to report JVM telemetry");
+        }
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        telemetry.setTimestamp(System.currentTimeMillis());
+
+        for (int i = 0; i < memoryPools.size(); i++) {
+            var usage = memoryPools.get(i).getUsage();
+            var pool = telemetry.getMemoryPoolsBuilder(i);
+
+            if (usage != null) {
+                pool.setUsed(usage.getUsed())
+                        .setCommitted(usage.getCommitted())
+                        .setMax(usage.getMax());
+            }
+        }
+
+        for (int i = 0; i < garbageCollectors.size(); i++) {
+            var collector = garbageCollectors.get(i);
+            long collections = collector.getCollectionCount();
+            long time = collector.getCollectionTime();
+
+            telemetry.getGarbageCollectorsBuilder(i)
+                    .setCollections(collections - previousCollections[i])
+                    .setTimeMillis(time - previousCollectionTimes[i])
+                    .setTotalCollections(collections)
+                    .setTotalTimeMillis(time);
+
+            previousCollections[i] = collections;
+            previousCollectionTimes[i] = time;
+        }
+
+        sampleThreads();
+
+        if (operatingSystem != null) {
+            telemetry.setProcessCpuLoad(operatingSystem.getProcessCpuLoad());
+            telemetry.setSystemCpuLoad(operatingSystem.getCpuLoad());
+        } else {
+            telemetry.setProcessCpuLoad(-1);
+            telemetry.setSystemCpuLoad(-1);
+        }
+
+        if (allocations != null) {
+            long allocated = allocations.getTotalThreadAllocatedBytes();
+            long elapsed = now - previousSampleNanos;
+
+            if (previousSampleNanos != 0 && elapsed > 0 && allocated >= previousAllocatedBytes) {
+                telemetry.setAllocationRate((allocated - previousAllocatedBytes) * 1_000_000_000L / elapsed);
+            }
+
+            previousAllocatedBytes = allocated;
+        }
+
+        previousSampleNanos = now;
+    }
+
+    private void sampleThreads() {
+        threadStats.setLive(threads.getThreadCount())
+                .setDaemon(threads.getDaemonThreadCount())
+                .setPeak(threads.getPeakThreadCount());
+
+        int runnable = 0;
+        int blocked = 0;
+        int waiting = 0;
+        int timedWaiting = 0;
+
+        // Thread states are only exposed through ThreadInfo, this is the one sizable allocation
+        for (var info : threads.getThreadInfo(threads.getAllThreadIds(), 0)) {
+            if (info == null) {
+                // Terminated since the ids were taken
+                continue;
+            }
+
+            switch (info.getThreadState()) {
+                case RUNNABLE -> runnable++;
+                case BLOCKED -> blocked++;
+                case WAITING -> waiting++;
+                case TIMED_WAITING -> timedWaiting++;
+                default -> {
+                    // NEW and TERMINATED are not interesting
+                }
+            }
+        }
+
+        threadStats.setRunnable(runnable)
+                .setBlocked(blocked)
+                .setWaiting(waiting)
+                .setTimedWaiting(timedWaiting);
+    }
+}
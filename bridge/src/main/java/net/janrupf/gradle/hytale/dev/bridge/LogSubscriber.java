@@ -1,13 +1,12 @@
 package net.janrupf.gradle.hytale.dev.bridge;
 
 import com.hypixel.hytale.logger.backend.HytaleLoggerBackend;
-import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.LogEvent;
 import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.LogLevel;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayDeque;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 
@@ -18,14 +17,51 @@ import java.util.logging.LogRecord;
  * expects a CopyOnWriteArrayList and calls {@code add()} on subscribers (lines 98-100
  * in HytaleLoggerBackend.java). We subclass and override {@code add()} to get
  * callback-style notification instead of storing log records.
+ * <p>
+ * The subscriber can be subscribed before the client exists. This is done from the
+ * logger's static initializer, where creating the client would hold up the server, so
+ * records are kept in a bounded buffer until the client is attached.
  */
 public class LogSubscriber {
-    private final DevBridgeClient client;
+    private static final int MAX_EARLY_RECORDS = 1024;
+
     private final LogRecordCallback callback;
+    private final ArrayDeque<EarlyRecord> earlyRecords;
+    private volatile DevBridgeClient client;
+    private int droppedEarlyRecords;
+
+    /**
+     * Create a subscriber which buffers records until a client is attached.
+     */
+    public LogSubscriber() {
+        // No lambda, the first one costs a noticeable bootstrap in the static initializer
+        this.callback = new LogRecordCallback(this);
+        this.earlyRecords = new ArrayDeque<>();
+    }
 
     public LogSubscriber(DevBridgeClient client) {
+        this();
         this.client = client;
-        this.callback = new LogRecordCallback(this::onLogRecord);
+    }
+
+    /**
+     * Attach the client to forward records to, forwarding the buffered records first.
+     *
+     * @param client the client
+     */
+    public void attach(DevBridgeClient client) {
+        synchronized (earlyRecords) {
+            for (var early : earlyRecords) {
+                forward(client, early.record(), early.threadName());
+            }
+            earlyRecords.clear();
+
+            if (droppedEarlyRecords > 0) {
+                System.err.println("[HytaleDev] Dropped " + droppedEarlyRecords + " log records before the bridge started");
+            }
+
+            this.client = client;
+        }
     }
 
     /**
@@ -43,25 +79,44 @@ public class LogSubscriber {
     }
 
     private void onLogRecord(LogRecord record) {
-        if (!client.isConnected()) {
-            return;
+        var target = client;
+
+        if (target == null) {
+            synchronized (earlyRecords) {
+                target = client;
+
+                if (target == null) {
+                    // The thread name is taken at forwarding time, keep the logging thread's
+                    earlyRecords.addLast(new EarlyRecord(record, Thread.currentThread().getName()));
+                    if (earlyRecords.size() > MAX_EARLY_RECORDS) {
+                        earlyRecords.removeFirst();
+                        droppedEarlyRecords++;
+                    }
+                    return;
+                }
+            }
         }
 
-        LogEvent.Builder builder = LogEvent.newBuilder()
-                .setTimestamp(record.getMillis())
-                .setLevel(convertLevel(record.getLevel()))
-                .setLoggerName(record.getLoggerName() != null ? record.getLoggerName() : "")
-                .setMessage(record.getMessage() != null ? record.getMessage() : "");
+        forward(target, record, Thread.currentThread().getName());
+    }
 
+    private void forward(DevBridgeClient target, LogRecord record, String threadName) {
+        // Forwarded even while disconnected, the client buffers the event for replay
+        String throwable = "";
         if (record.getThrown() != null) {
             StringWriter sw = new StringWriter();
             record.getThrown().printStackTrace(new PrintWriter(sw));
-            builder.setThrowable(sw.toString());
+            throwable = sw.toString();
         }
 
-        builder.setThreadName(Thread.currentThread().getName());
-
-        client.sendLogEvent(builder.build());
+        target.sendLogEvent(
+                record.getMillis(),
+                convertLevel(record.getLevel()),
+                record.getLoggerName() != null ? record.getLoggerName() : "",
+                record.getMessage() != null ? record.getMessage() : "",
+                throwable,
+                threadName
+        );
     }
 
     private LogLevel convertLevel(Level level) {
@@ -91,17 +146,17 @@ public class LogSubscriber {
      * callbacks instead of storing records.
      */
     private static class LogRecordCallback extends CopyOnWriteArrayList<LogRecord> {
-        private final Consumer<LogRecord> onLog;
+        private final LogSubscriber subscriber;
 
-        LogRecordCallback(Consumer<LogRecord> onLog) {
-            this.onLog = onLog;
+        LogRecordCallback(LogSubscriber subscriber) {
+            this.subscriber = subscriber;
         }
 
         @Override
         public boolean add(LogRecord record) {
             // Immediate callback when server logs
             try {
-                onLog.accept(record);
+                subscriber.onLogRecord(record);
             } catch (Exception e) {
                 // Don't let callback errors break logging
                 System.err.println("[DevBridge] Error in log callback: " + e.getMessage());
@@ -110,4 +165,7 @@ public class LogSubscriber {
             return false;
         }
     }
+
+    private record EarlyRecord(LogRecord record, String threadName) {
+    }
 }
@@ -0,0 +1,189 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.WireFormat;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.AgentMessage;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.LogEvent;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.LogLevel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Encodes agent messages into pooled buffers.
+ * <p>
+ * Every message the agent sends is an {@link AgentMessage} with exactly one payload set and
+ * possibly a request id, so instead of building the envelope and serializing it into a fresh
+ * array, the payload and id are written as the envelope's fields directly into a reused buffer. Log events, the
+ * highest rate messages, are written field by field without building a {@link LogEvent}.
+ * <p>
+ * Buffers are handed out as {@link Slot}s. The size of a message is computed up front, so it is
+ * encoded straight into the array of the slot without an intermediate buffer. The only allocation
+ * per message is the small encoder protobuf creates for the array. A slot must be released once
+ * the encoded buffer has been handed to the socket, which copies it into the outgoing frame.
+ */
+public class MessageEncoder {
+    private static final int POOL_SIZE = 8;
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private final ArrayBlockingQueue<Slot> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * Take a slot from the pool, creating a new one if the pool is empty.
+     *
+     * @return the slot
+     */
+    public Slot acquire() {
+        var slot = pool.poll();
+        return slot != null ? slot : new Slot();
+    }
+
+    /**
+     * Return a slot to the pool.
+     * <p>
+     * Slots which grew beyond a sane size for a single message are dropped instead, so
+     * a large command registry does not pin its buffer for the rest of the run.
+     *
+     * @param slot the slot to return
+     */
+    public void release(Slot slot) {
+        if (slot.array.length <= MAX_RETAINED_CAPACITY) {
+            pool.offer(slot);
+        }
+    }
+
+    /**
+     * A reused array and the buffer view handed to the socket.
+     */
+    public static final class Slot {
+        private byte[] array;
+        private ByteBuffer buffer;
+
+        private Slot() {
+            this.array = new byte[INITIAL_CAPACITY];
+            this.buffer = ByteBuffer.wrap(array);
+        }
+
+        /**
+         * Encode an agent message with the given payload.
+         *
+         * @param requestId   the id of the request this responds to, 0 if none
+         * @param fieldNumber the number of the payload field in {@link AgentMessage}
+         * @param payload     the payload
+         * @return the encoded message, valid until the slot is released
+         */
+        public ByteBuffer encode(long requestId, int fieldNumber, MessageLite payload) {
+            // The serialized size is memoized by the message, writing it does not compute it again
+            int size = CodedOutputStream.computeMessageSize(fieldNumber, payload);
+            if (requestId != 0) {
+                size += CodedOutputStream.computeUInt64Size(AgentMessage.REQUEST_ID_FIELD_NUMBER, requestId);
+            }
+
+            var output = start(size);
+            try {
+                output.writeMessage(fieldNumber, payload);
+                if (requestId != 0) {
+                    output.writeUInt64(AgentMessage.REQUEST_ID_FIELD_NUMBER, requestId);
+                }
+            } catch (IOException e) {
+                // Only thrown if the computed size was wrong
+                throw new UncheckedIOException(e);
+            }
+
+            return finish(size);
+        }
+
+        /**
+         * Encode an agent message carrying a log event.
+         * <p>
+         * Produces the same bytes as building the {@link LogEvent} and its envelope.
+         *
+         * @param timestamp  the log timestamp in milliseconds
+         * @param level      the log level
+         * @param loggerName the logger name
+         * @param message    the log message
+         * @param throwable  the stack trace, or an empty string
+         * @param threadName the name of the logging thread
+         * @param instance   the cluster instance name, or an empty string
+         * @return the encoded message, valid until the slot is released
+         */
+        public ByteBuffer encodeLogEvent(
+                long timestamp,
+                LogLevel level,
+                String loggerName,
+                String message,
+                String throwable,
+                String threadName,
+                String instance
+        ) {
+            // Default values are omitted, like the generated code does
+            int eventSize = 0;
+            if (timestamp != 0) {
+                eventSize += CodedOutputStream.computeInt64Size(LogEvent.TIMESTAMP_FIELD_NUMBER, timestamp);
+            }
+            if (level != LogLevel.LOG_LEVEL_UNKNOWN) {
+                eventSize += CodedOutputStream.computeEnumSize(LogEvent.LEVEL_FIELD_NUMBER, level.getNumber());
+            }
+            eventSize += stringSize(LogEvent.LOGGER_NAME_FIELD_NUMBER, loggerName);
+            eventSize += stringSize(LogEvent.MESSAGE_FIELD_NUMBER, message);
+            eventSize += stringSize(LogEvent.THROWABLE_FIELD_NUMBER, throwable);
+            eventSize += stringSize(LogEvent.THREAD_NAME_FIELD_NUMBER, threadName);
+            eventSize += stringSize(LogEvent.INSTANCE_FIELD_NUMBER, instance);
+
+            int size = CodedOutputStream.computeTagSize(AgentMessage.LOG_EVENT_FIELD_NUMBER) +
+                    CodedOutputStream.computeUInt32SizeNoTag(eventSize) +
+                    eventSize;
+
+            var output = start(size);
+            try {
+                output.writeTag(AgentMessage.LOG_EVENT_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(eventSize);
+
+                if (timestamp != 0) {
+                    output.writeInt64(LogEvent.TIMESTAMP_FIELD_NUMBER, timestamp);
+                }
+                if (level != LogLevel.LOG_LEVEL_UNKNOWN) {
+                    output.writeEnum(LogEvent.LEVEL_FIELD_NUMBER, level.getNumber());
+                }
+                writeString(output, LogEvent.LOGGER_NAME_FIELD_NUMBER, loggerName);
+                writeString(output, LogEvent.MESSAGE_FIELD_NUMBER, message);
+                writeString(output, LogEvent.THROWABLE_FIELD_NUMBER, throwable);
+                writeString(output, LogEvent.THREAD_NAME_FIELD_NUMBER, threadName);
+                writeString(output, LogEvent.INSTANCE_FIELD_NUMBER, instance);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return finish(size);
+        }
+
+        private CodedOutputStream start(int size) {
+            if (array.length < size) {
+                array = new byte[Math.max(array.length * 2, size)];
+                buffer = ByteBuffer.wrap(array);
+            }
+
+            return CodedOutputStream.newInstance(array, 0, size);
+        }
+
+        private ByteBuffer finish(int size) {
+            buffer.clear();
+            buffer.limit(size);
+            return buffer;
+        }
+
+        private static int stringSize(int fieldNumber, String value) {
+            return value.isEmpty() ? 0 : CodedOutputStream.computeStringSize(fieldNumber, value);
+        }
+
+        private static void writeString(CodedOutputStream output, int fieldNumber, String value) throws IOException {
+            if (!value.isEmpty()) {
+                output.writeString(fieldNumber, value);
+            }
+        }
+    }
+}
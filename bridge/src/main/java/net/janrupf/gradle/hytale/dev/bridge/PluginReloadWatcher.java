@@ -0,0 +1,209 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.command.system.CommandManager;
+import com.hypixel.hytale.server.core.console.ConsoleSender;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchService;
+import java.util.Properties;
+import java.util.logging.Level;
+
+/**
+ * Watches the reload request file written by the Gradle {@code redeploy<Name>} task.
+ * <p>
+ * Gradle has no connection to the running server, so the request is handed over
+ * through the file system: the task atomically replaces the plugin jar in the mods
+ * directory and then drops a request file containing the reload command. This
+ * watcher picks the file up, deletes it and executes the command as the console.
+ * <p>
+ * While watching, the process id is published next to the request file so the task
+ * knows whether to wait for the result file, which carries the timestamps used to
+ * report the edit to reload latency.
+ */
+public class PluginReloadWatcher {
+    private static final String REQUEST_FILE_PROPERTY = "hytale.dev.reloadRequestFile";
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final Path requestFile;
+    private final Path resultFile;
+    private final Path watcherFile;
+    private WatchService watchService;
+    private Thread thread;
+    private volatile Runnable reloadListener;
+
+    public PluginReloadWatcher(Path requestFile) {
+        this.requestFile = requestFile.toAbsolutePath();
+        this.resultFile = this.requestFile.resolveSibling("reload-result.properties");
+        this.watcherFile = this.requestFile.resolveSibling("reload-watcher.pid");
+    }
+
+    /**
+     * Create a watcher for the request file configured by the agent.
+     *
+     * @return the watcher, or null if hot reload is not enabled for this run
+     */
+    public static PluginReloadWatcher fromSystemProperties() {
+        String requestFile = System.getProperty(REQUEST_FILE_PROPERTY);
+        if (requestFile == null || requestFile.isEmpty()) {
+            return null;
+        }
+
+        return new PluginReloadWatcher(Paths.get(requestFile));
+    }
+
+    /**
+     * Set a listener which is called after a reload has been executed.
+     *
+     * @param listener the listener, or null to remove it
+     */
+    public void setReloadListener(Runnable listener) {
+        this.reloadListener = listener;
+    }
+
+    /**
+     * Start watching for reload requests.
+     *
+     * @throws IOException if the request directory can not be watched
+     */
+    public void start() throws IOException {
+        Path directory = requestFile.getParent();
+        Files.createDirectories(directory);
+
+        // Requests written while no server was running are stale
+        Files.deleteIfExists(requestFile);
+
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        thread = new Thread(this::watch, "HytaleDev-ReloadWatcher");
+        thread.setDaemon(true);
+        thread.start();
+
+        Files.writeString(watcherFile, Long.toString(ProcessHandle.current().pid()));
+    }
+
+    /**
+     * Stop watching for reload requests.
+     */
+    public void stop() {
+        try {
+            Files.deleteIfExists(watcherFile);
+        } catch (IOException e) {
+            LOGGER.at(Level.FINE).withCause(e).log("Failed to delete reload watcher file");
+        }
+
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.at(Level.FINE).withCause(e).log("Failed to close reload watch service");
+            }
+        }
+    }
+
+    private void watch() {
+        Path fileName = requestFile.getFileName();
+
+        try {
+            while (true) {
+                var key = watchService.take();
+
+                boolean requested = false;
+                for (var event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        requested = true;
+                    }
+                }
+
+                if (requested) {
+                    handleRequest();
+                }
+
+                if (!key.reset()) {
+                    LOGGER.at(Level.WARNING).log("Reload request directory is no longer accessible");
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Stopped
+        }
+    }
+
+    private void handleRequest() {
+        var properties = new Properties();
+
+        try (var reader = Files.newBufferedReader(requestFile)) {
+            properties.load(reader);
+            Files.deleteIfExists(requestFile);
+        } catch (IOException e) {
+            // Already consumed by a previous event for the same request
+            return;
+        }
+
+        String command = properties.getProperty("command");
+        if (command == null || command.isEmpty()) {
+            LOGGER.at(Level.WARNING).log("Ignoring reload request without command");
+            return;
+        }
+
+        long dispatched = System.currentTimeMillis();
+        long editedAt = Long.parseLong(properties.getProperty("edited", "0"));
+        LOGGER.at(Level.INFO).log(
+                "Reloading plugin (edited %d ms ago): %s",
+                editedAt > 0 ? dispatched - editedAt : -1,
+                command
+        );
+
+        CommandManager manager = CommandManager.get();
+        if (manager == null) {
+            LOGGER.at(Level.WARNING).log("CommandManager not available, can not reload plugin");
+            writeResult(dispatched, System.currentTimeMillis(), "CommandManager not available");
+            return;
+        }
+
+        // The command only completes once the plugin finished reloading
+        manager.handleCommand(ConsoleSender.INSTANCE, command).whenComplete((ignored, error) -> {
+            // Translations may have changed even if the reload failed half way
+            Runnable listener = reloadListener;
+            if (listener != null) {
+                listener.run();
+            }
+
+            long completed = System.currentTimeMillis();
+            if (error == null) {
+                LOGGER.at(Level.INFO).log("Plugin reload finished in %d ms", completed - dispatched);
+                writeResult(dispatched, completed, "");
+            } else {
+                LOGGER.at(Level.WARNING).withCause(error).log("Plugin reload failed after %d ms", completed - dispatched);
+                writeResult(dispatched, completed, String.valueOf(error));
+            }
+        });
+    }
+
+    private void writeResult(long dispatched, long completed, String error) {
+        var result = new Properties();
+        result.setProperty("dispatched", Long.toString(dispatched));
+        result.setProperty("completed", Long.toString(completed));
+        if (!error.isEmpty()) {
+            result.setProperty("error", error);
+        }
+
+        Path temporary = resultFile.resolveSibling("." + resultFile.getFileName() + ".tmp");
+        try {
+            try (var writer = Files.newBufferedWriter(temporary)) {
+                result.store(writer, "Hytale Dev Reload Result");
+            }
+
+            Files.move(temporary, resultFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.at(Level.WARNING).withCause(e).log("Failed to write reload result");
+        }
+    }
+}
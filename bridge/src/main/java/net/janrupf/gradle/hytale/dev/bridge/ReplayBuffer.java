@@ -0,0 +1,87 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Holds encoded messages for delivery once the IDE (re)connects.
+ * <p>
+ * Log events sent while disconnected are kept in a ring bounded by message count and size,
+ * the oldest events are dropped once it is full. State messages are kept as the latest
+ * message of each kind regardless of the connection and are replayed on every connect, so
+ * an IDE which restarted still learns the state of the server.
+ * <p>
+ * Not thread safe, the client synchronizes on the buffer to order replays with sends.
+ */
+class ReplayBuffer {
+    private final int maxMessages;
+    private final long maxBytes;
+
+    private final ArrayDeque<byte[]> messages;
+    private final Map<Integer, byte[]> latest;
+    private long bytes;
+    private long dropped;
+
+    ReplayBuffer(int maxMessages, long maxBytes) {
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.messages = new ArrayDeque<>();
+        this.latest = new TreeMap<>();
+    }
+
+    /**
+     * Buffer a message until the next connect.
+     *
+     * @param encoded the encoded message, its position is not changed
+     */
+    void add(ByteBuffer encoded) {
+        var message = copy(encoded);
+
+        messages.addLast(message);
+        bytes += message.length;
+
+        while (messages.size() > maxMessages || (bytes > maxBytes && messages.size() > 1)) {
+            bytes -= messages.removeFirst().length;
+            dropped++;
+        }
+    }
+
+    /**
+     * Remember a state message, replacing the previous message of the same kind.
+     *
+     * @param kind    the kind of the message, messages are replayed ordered by kind
+     * @param encoded the encoded message, its position is not changed
+     */
+    void putLatest(int kind, ByteBuffer encoded) {
+        latest.put(kind, copy(encoded));
+    }
+
+    /**
+     * Hand all state messages and buffered messages to the consumer and clear the buffered
+     * messages.
+     *
+     * @param consumer the consumer to send the messages with
+     * @return the number of messages dropped since the last replay
+     */
+    long replay(Consumer<byte[]> consumer) {
+        latest.values().forEach(consumer);
+
+        while (!messages.isEmpty()) {
+            consumer.accept(messages.removeFirst());
+        }
+
+        long droppedSinceReplay = dropped;
+        bytes = 0;
+        dropped = 0;
+        return droppedSinceReplay;
+    }
+
+    private static byte[] copy(ByteBuffer encoded) {
+        var message = new byte[encoded.remaining()];
+        encoded.get(encoded.position(), message);
+        return message;
+    }
+}
@@ -0,0 +1,106 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.StartupPhase;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.StartupProfile;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.TransformerTiming;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Reports the startup profile recorded by the agent once the server is ready.
+ * <p>
+ * The bridge is not compiled against the agent. The profiler lives on the application
+ * class path, which is the parent of the class loader the bridge is loaded by, so it is
+ * looked up reflectively and exchanges its data using JDK types only.
+ */
+public final class StartupProfileReporter {
+    private static final String PROFILER_CLASS = "net.janrupf.gradle.hytale.dev.agent.StartupProfiler";
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private StartupProfileReporter() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Mark the server as ready, log the startup summary and send it to the IDE.
+     *
+     * @param client the bridge client, may be null if the IDE is not connected
+     */
+    public static void report(DevBridgeClient client) {
+        Map<String, Long> snapshot;
+
+        try {
+            Class<?> profiler = Class.forName(PROFILER_CLASS);
+            profiler.getMethod("mark", String.class).invoke(null, "server-ready");
+
+            LOGGER.at(Level.INFO).log("%s", profiler.getMethod("summary").invoke(null));
+
+            @SuppressWarnings("unchecked")
+            Map<String, Long> result = (Map<String, Long>) profiler.getMethod("snapshot").invoke(null);
+            snapshot = result;
+        } catch (ClassNotFoundException e) {
+            // Not launched through the agent, nothing was recorded
+            return;
+        } catch (Exception e) {
+            LOGGER.at(Level.WARNING).withCause(e).log("Failed to collect startup profile");
+            return;
+        }
+
+        if (client != null) {
+            // Kept by the client and delivered once the IDE connects
+            client.sendStartupProfile(toProto(snapshot));
+        }
+    }
+
+    private static StartupProfile toProto(Map<String, Long> snapshot) {
+        StartupProfile.Builder builder = StartupProfile.newBuilder();
+        Map<String, TransformerTiming.Builder> transformers = new LinkedHashMap<>();
+        long previousPhaseEnd = 0;
+
+        for (Map.Entry<String, Long> entry : snapshot.entrySet()) {
+            String key = entry.getKey();
+            long value = entry.getValue();
+
+            if (key.startsWith("phase.")) {
+                builder.addPhases(StartupPhase.newBuilder()
+                        .setName(key.substring("phase.".length()))
+                        .setEndNanos(value)
+                        .setDurationNanos(value - previousPhaseEnd));
+                previousPhaseEnd = value;
+            } else if (key.startsWith("transformer.")) {
+                int split = key.lastIndexOf('.');
+                String name = key.substring("transformer.".length(), split);
+                TransformerTiming.Builder transformer = transformers.computeIfAbsent(
+                        name,
+                        (n) -> TransformerTiming.newBuilder().setName(n)
+                );
+
+                if (key.endsWith(".nanos")) {
+                    transformer.setNanos(value);
+                } else if (key.endsWith(".transformed")) {
+                    transformer.setClassesTransformed(value);
+                }
+            } else {
+                switch (key) {
+                    case "loader.classes" -> builder.setClassesLoaded(value);
+                    case "loader.loadNanos" -> builder.setClassLoadNanos(value);
+                    case "loader.transformNanos" -> builder.setClassTransformNanos(value);
+                    case "bridge.blockingNanos" -> builder.setBridgeBlockingNanos(value);
+                    case "bridge.bootstrapNanos" -> builder.setBridgeBootstrapNanos(value);
+                    default -> {
+                        // Unknown key from a newer agent
+                    }
+                }
+            }
+        }
+
+        for (TransformerTiming.Builder transformer : transformers.values()) {
+            builder.addTransformers(transformer);
+        }
+
+        return builder.build();
+    }
+}
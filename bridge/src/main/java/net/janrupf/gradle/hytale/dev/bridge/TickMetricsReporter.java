@@ -0,0 +1,168 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.SystemTiming;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.TickMetrics;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.TickSample;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Periodically sends the tick metrics collected by the agent's tick profiler to the IDE.
+ * <p>
+ * The profiler is only active if the run has tick profiling enabled, in which case the
+ * agent publishes the interval as a system property. Like {@link StartupProfileReporter},
+ * the profiler is accessed reflectively.
+ */
+public class TickMetricsReporter {
+    private static final String PROFILER_CLASS = "net.janrupf.gradle.hytale.dev.agent.TickProfiler";
+    private static final String INTERVAL_PROPERTY = "hytale.dev.tickMetricsInterval";
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private static final int MAX_TICKS = 4096;
+    private static final int MAX_SYSTEMS = 4096;
+
+    private final DevBridgeClient client;
+    private final long intervalMillis;
+    private final MethodHandle drainTicks;
+    private final MethodHandle drainDroppedTicks;
+    private final MethodHandle drainSystems;
+    private final MethodHandle systemName;
+    private final MethodHandle loopName;
+    private final int tickFields;
+
+    // Reused between intervals, only touched by the scheduler thread
+    private final long[] ticks;
+    private final long[] systemNanos;
+    private final long[] systemCalls;
+    private int knownLoops;
+
+    private ScheduledExecutorService scheduler;
+
+    private TickMetricsReporter(DevBridgeClient client, long intervalMillis, Class<?> profiler) throws ReflectiveOperationException {
+        var lookup = MethodHandles.publicLookup();
+
+        this.client = client;
+        this.intervalMillis = intervalMillis;
+        this.drainTicks = lookup.findStatic(profiler, "drainTicks", MethodType.methodType(int.class, long[].class));
+        this.drainDroppedTicks = lookup.findStatic(profiler, "drainDroppedTicks", MethodType.methodType(long.class));
+        this.drainSystems = lookup.findStatic(
+                profiler,
+                "drainSystems",
+                MethodType.methodType(int.class, long[].class, long[].class)
+        );
+        this.systemName = lookup.findStatic(profiler, "systemName", MethodType.methodType(String.class, int.class));
+        this.loopName = lookup.findStatic(profiler, "loopName", MethodType.methodType(String.class, int.class));
+        this.tickFields = profiler.getField("TICK_FIELDS").getInt(null);
+
+        this.ticks = new long[MAX_TICKS * tickFields];
+        this.systemNanos = new long[MAX_SYSTEMS];
+        this.systemCalls = new long[MAX_SYSTEMS];
+    }
+
+    /**
+     * Create a reporter if tick profiling is enabled for this run.
+     *
+     * @param client the bridge client to send the metrics with
+     * @return the reporter, or null if tick profiling is not enabled
+     */
+    public static TickMetricsReporter create(DevBridgeClient client) {
+        String interval = System.getProperty(INTERVAL_PROPERTY);
+        if (interval == null || client == null) {
+            return null;
+        }
+
+        try {
+            return new TickMetricsReporter(client, Long.parseLong(interval), Class.forName(PROFILER_CLASS));
+        } catch (ClassNotFoundException e) {
+            // Not launched through the agent
+            return null;
+        } catch (Exception e) {
+            LOGGER.at(Level.WARNING).withCause(e).log("Failed to access tick profiler");
+            return null;
+        }
+    }
+
+    /**
+     * Start sending tick metrics.
+     */
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            var thread = new Thread(runnable, "HytaleDev-TickMetrics");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+
+        LOGGER.at(Level.INFO).log("Streaming tick metrics every %d ms", intervalMillis);
+    }
+
+    /**
+     * Stop sending tick metrics.
+     */
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void report() {
+        try {
+            var metrics = collect();
+
+            // Always drain so a reconnecting IDE does not receive a backlog
+            if (client.isConnected() && (metrics.getTicksCount() > 0 || metrics.getSystemsCount() > 0)) {
+                client.sendTickMetrics(metrics);
+            }
+        } catch (Throwable t) {
+            LOGGER.at(Level.WARNING).withCause(t).log("Failed to report tick metrics");
+        }
+    }
+
+    private TickMetrics collect() throws Throwable {
+        var builder = TickMetrics.newBuilder();
+
+        int tickCount = (int) drainTicks.invokeExact(ticks);
+        int maxLoop = -1;
+
+        for (int i = 0; i < tickCount; i++) {
+            int offset = i * tickFields;
+            int loop = (int) ticks[offset];
+            maxLoop = Math.max(maxLoop, loop);
+
+            builder.addTicks(TickSample.newBuilder()
+                    .setLoop(loop)
+                    .setEndNanos(ticks[offset + 1])
+                    .setDurationNanos(ticks[offset + 2])
+                    .setAllocatedBytes(ticks[offset + 3]));
+        }
+
+        // Loop names are sent in full so every message can be interpreted on its own
+        knownLoops = Math.max(knownLoops, maxLoop + 1);
+        for (int i = 0; i < knownLoops; i++) {
+            builder.addLoops((String) loopName.invokeExact(i));
+        }
+
+        int systemCount = (int) drainSystems.invokeExact(systemNanos, systemCalls);
+        for (int i = 0; i < systemCount; i++) {
+            if (systemCalls[i] == 0) {
+                continue;
+            }
+
+            builder.addSystems(SystemTiming.newBuilder()
+                    .setName((String) systemName.invokeExact(i))
+                    .setNanos(systemNanos[i])
+                    .setCalls(systemCalls[i]));
+        }
+
+        builder.setDroppedTicks((long) drainDroppedTicks.invokeExact());
+        return builder.build();
+    }
+}
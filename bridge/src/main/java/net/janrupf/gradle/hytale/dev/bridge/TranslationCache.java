@@ -0,0 +1,212 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.modules.i18n.I18nModule;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Caches translations per language so repeated IDE lookups do not go through the i18n module.
+ * <p>
+ * Single lookups only need {@link I18nModule#getMessage(String, String)}. Dumping all keys with a
+ * prefix needs the message map of a language, which is read through
+ * {@code I18nModule#getMessages(String)}. That method is resolved once when the cache is created.
+ * If it is missing a warning is logged and {@link #canEnumerate()} returns false, so the bridge
+ * does not announce the dump capability and dumps only contain keys which were looked up before.
+ * <p>
+ * A language counts as reloaded when the module hands out a different map instance for it, which
+ * is a reference comparison per lookup. If the module returns a fresh copy on every call, this is
+ * detected on the first mismatch and reload detection is limited to replaced module instances
+ * and plugin hot reloads, which invalidate all languages.
+ */
+public class TranslationCache {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    // Cached for keys without a translation, so misses are not looked up again
+    private static final String MISSING = new String("<missing>");
+
+    private final Consumer<String> invalidationListener;
+    private final Map<String, Language> languages;
+    private volatile MethodHandle getMessages;
+    private volatile I18nModule module;
+    private volatile boolean messagesAreCopies;
+
+    /**
+     * Create a new translation cache.
+     *
+     * @param invalidationListener called with the language after its cached translations were
+     *                             dropped, or with null if all languages were dropped
+     */
+    public TranslationCache(Consumer<String> invalidationListener) {
+        this.invalidationListener = invalidationListener;
+        this.languages = new ConcurrentHashMap<>();
+        this.getMessages = findGetMessages();
+    }
+
+    /**
+     * Whether all keys of a language can be enumerated, which complete dumps require.
+     *
+     * @return true if the i18n module exposes its message maps
+     */
+    public boolean canEnumerate() {
+        return getMessages != null;
+    }
+
+    /**
+     * Look up a single translation.
+     *
+     * @param language the language
+     * @param key      the translation key
+     * @return the translated text, or null if the key has no translation
+     */
+    public String translate(String language, String key) {
+        var i18n = I18nModule.get();
+        if (i18n == null) {
+            return null;
+        }
+
+        var value = language(i18n, language).values.computeIfAbsent(key, (k) -> {
+            var translated = i18n.getMessage(language, k);
+            return translated != null ? translated : MISSING;
+        });
+
+        return value != MISSING ? value : null;
+    }
+
+    /**
+     * Collect all translations of a language whose key starts with a prefix.
+     *
+     * @param language the language
+     * @param prefix   the key prefix, empty for all keys
+     * @param out      the map to put the translations into
+     * @return true if all keys were enumerated, false if only previously looked up keys were
+     */
+    public boolean dump(String language, String prefix, Map<String, String> out) {
+        var i18n = I18nModule.get();
+        if (i18n == null) {
+            return false;
+        }
+
+        var cached = language(i18n, language);
+
+        // Copies are not kept, the dump needs the current map
+        var source = messagesAreCopies ? messages(i18n, language) : cached.source;
+        if (source != null) {
+            for (var entry : source.entrySet()) {
+                if (entry.getKey() instanceof String key && key.startsWith(prefix) &&
+                        entry.getValue() instanceof String value) {
+                    out.put(key, value);
+                }
+            }
+
+            return true;
+        }
+
+        for (var entry : cached.values.entrySet()) {
+            if (entry.getValue() != MISSING && entry.getKey().startsWith(prefix)) {
+                out.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Drop all cached translations.
+     */
+    public void invalidate() {
+        languages.clear();
+        invalidationListener.accept(null);
+    }
+
+    private Language language(I18nModule i18n, String language) {
+        if (module != i18n) {
+            // Module has been replaced, nothing cached so far is trustworthy
+            boolean hadModule = module != null;
+            module = i18n;
+            languages.clear();
+
+            if (hadModule) {
+                invalidationListener.accept(null);
+            }
+        }
+
+        var cached = languages.get(language);
+        if (cached == null) {
+            return languages.computeIfAbsent(language, (l) -> new Language(messagesAreCopies ? null : messages(i18n, l)));
+        }
+
+        if (cached.source == null || messagesAreCopies) {
+            return cached;
+        }
+
+        var source = messages(i18n, language);
+        if (source == cached.source) {
+            return cached;
+        }
+
+        if (source != null && source.equals(cached.source)) {
+            // A copy, comparing them on every lookup would cost more than the cache saves
+            messagesAreCopies = true;
+            LOGGER.at(Level.FINE).log("I18n module returns message copies, language reloads are not detected");
+            return cached;
+        }
+
+        // The language has been reloaded
+        var reloaded = new Language(source);
+        if (languages.replace(language, cached, reloaded)) {
+            invalidationListener.accept(language);
+        }
+
+        return reloaded;
+    }
+
+    private Map<?, ?> messages(I18nModule i18n, String language) {
+        var handle = getMessages;
+        if (handle == null) {
+            return null;
+        }
+
+        try {
+            return (Map<?, ?>) handle.invoke(i18n, language);
+        } catch (Throwable t) {
+            LOGGER.at(Level.WARNING).withCause(t).log(
+                    "I18nModule#getMessages(String) failed, translation dumps are limited to cached keys from now on"
+            );
+            getMessages = null;
+            return null;
+        }
+    }
+
+    private static MethodHandle findGetMessages() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(
+                    I18nModule.class,
+                    "getMessages",
+                    MethodType.methodType(Map.class, String.class)
+            );
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            LOGGER.at(Level.WARNING).log(
+                    "I18nModule#getMessages(String) is not available, the translate-dump capability is not " +
+                            "announced and language reloads are only detected through plugin reloads"
+            );
+            return null;
+        }
+    }
+
+    private static final class Language {
+        private final Map<?, ?> source;
+        private final Map<String, String> values;
+
+        Language(Map<?, ?> source) {
+            this.source = source;
+            this.values = new ConcurrentHashMap<>();
+        }
+    }
+}
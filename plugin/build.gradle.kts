@@ -1,6 +1,7 @@
 plugins {
     `java-gradle-plugin`
     id("com.gradle.plugin-publish") version "2.0.0"
+    id("com.gradleup.shadow") version "9.3.1"
 }
 
 group = rootProject.group
@@ -8,12 +9,49 @@ version = rootProject.version
 
 val agentProject = project(":agent")
 val bridgeProject = project(":bridge")
+val protocolProject = project(":protocol")
 
 repositories {
     mavenCentral()
     gradlePluginPortal()
 }
 
+// TestKit builds of consumer projects, run as part of check
+val functionalTest by sourceSets.creating
+
+val functionalTestTask = tasks.register<Test>("functionalTest") {
+    group = "verification"
+    description = "Runs the functional tests against consumer builds."
+
+    testClassesDirs = functionalTest.output.classesDirs
+    classpath = functionalTest.runtimeClasspath
+    useJUnitPlatform()
+}
+
+tasks.check {
+    dependsOn(functionalTestTask)
+}
+
+tasks.shadowJar {
+    // The protocol module is not published, its classes are shipped inside the plugin jar together with
+    // its dependencies, relocated to avoid conflicts with other plugins on the build script classpath
+    relocate("com.google.protobuf", "net.janrupf.gradle.hytale.dev.shadow.protobuf")
+    relocate("org.java_websocket", "net.janrupf.gradle.hytale.dev.shadow.websocket")
+
+    // Provided by Gradle
+    dependencies {
+        exclude(dependency("org.slf4j:.*"))
+    }
+
+    // Published instead of the plain jar, which plugin-publish moves to the "main" classifier
+    archiveClassifier.set("")
+}
+
+tasks.pluginUnderTestMetadata {
+    // Dependencies in the shadow configuration are not part of the runtime classpath
+    pluginClasspath.from(configurations.shadow)
+}
+
 tasks.processResources {
     from(agentProject.tasks.named("shadowJar")) {
         into("hytale-dev/agent")
@@ -33,11 +71,23 @@ dependencies {
     compileOnly("tools.jackson.core:jackson-core:3.0.3")
     compileOnly("tools.jackson.core:jackson-databind:3.0.3")
 
-    // For generating IDE run configurations
-    implementation("org.jetbrains.gradle.plugin.idea-ext:org.jetbrains.gradle.plugin.idea-ext.gradle.plugin:1.3")
+    // Used by the bridge server hosted for runs and benchmarks, bundled into the plugin jar,
+    // keep in sync with the versions used by the bridge
+    implementation(protocolProject)
+    implementation("com.google.protobuf:protobuf-java:3.25.1")
+    implementation("org.java-websocket:Java-WebSocket:1.5.4")
+
+    // For generating IDE run configurations, published as a dependency instead of being bundled
+    shadow("org.jetbrains.gradle.plugin.idea-ext:org.jetbrains.gradle.plugin.idea-ext.gradle.plugin:1.3")
+
+    // Functional tests run consumer builds through TestKit
+    "functionalTestImplementation"(gradleTestKit())
+    "functionalTestImplementation"("org.junit.jupiter:junit-jupiter:5.11.4")
+    "functionalTestRuntimeOnly"("org.junit.platform:junit-platform-launcher:1.11.4")
 }
 
 gradlePlugin {
+    testSourceSets(functionalTest)
     website.set("https://github.com/Janrupf/hytale-dev-gradle-plugin")
     vcsUrl.set("https://github.com/Janrupf/hytale-dev-gradle-plugin.git")
     plugins {
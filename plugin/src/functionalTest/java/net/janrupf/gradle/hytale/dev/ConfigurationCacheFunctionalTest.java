@@ -0,0 +1,130 @@
+package net.janrupf.gradle.hytale.dev;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the key tasks of a consumer build twice with the configuration cache and checks that the
+ * second build reuses the cache entry.
+ * <p>
+ * The consumer uses a stand-in game package, so no Hytale installation is required.
+ */
+class ConfigurationCacheFunctionalTest {
+    private static final List<String> TASKS = List.of(
+            "compileJava",
+            "generatePluginManifest",
+            "prepareRunHytaleServer",
+            "indexHytaleAssets",
+            "validateHytaleAssets",
+            "transformHytaleAssets",
+            "packageHytalePlugin",
+            "checkHytaleCompatibility"
+    );
+
+    @TempDir
+    Path projectDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        write("settings.gradle.kts", "rootProject.name = \"consumer\"\n");
+        write("build.gradle.kts", """
+                plugins {
+                    id("net.janrupf.hytale-dev")
+                }
+
+                group = "com.example"
+                version = "1.0.0"
+
+                repositories {
+                    mavenCentral()
+                }
+
+                hytale {
+                    transformAssets.set(true)
+                    packageAssets.set(true)
+
+                    manifest {
+                        main("com.example.Main")
+                    }
+                }
+                """);
+        write("src/main/java/com/example/Main.java", "package com.example;\n\npublic class Main {\n}\n");
+        write("src/main/resources/Server/Item/Items/Example.json", "{\n    \"Id\": \"Example\"\n}\n");
+
+        writeZip("game/Server/HytaleServer.jar", Map.of(
+                "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n"
+        ));
+        writeZip("game/Assets.zip", Map.of(
+                "Server/Item/Items/Stone.json", "{\"Id\": \"Stone\"}"
+        ));
+    }
+
+    @Test
+    void reusesConfigurationCache() {
+        var first = build();
+        assertTrue(first.getOutput().contains("Configuration cache entry stored."), first.getOutput());
+        assertSucceeded(first);
+
+        var second = build();
+        assertTrue(second.getOutput().contains("Configuration cache entry reused."), second.getOutput());
+        assertSucceeded(second);
+    }
+
+    private BuildResult build() {
+        var arguments = new ArrayList<>(TASKS);
+        arguments.add("--configuration-cache");
+        arguments.add("--stacktrace");
+        arguments.add("-Phytale.gamePackageDir=" + projectDir.resolve("game").toAbsolutePath());
+
+        return GradleRunner.create()
+                .withProjectDir(projectDir.toFile())
+                .withPluginClasspath()
+                .withArguments(arguments)
+                .forwardOutput()
+                .build();
+    }
+
+    private static void assertSucceeded(BuildResult result) {
+        for (var task : TASKS) {
+            assertNotNull(result.task(":" + task), "Task " + task + " did not run");
+        }
+        assertEquals(List.of(), result.tasks(TaskOutcome.FAILED));
+    }
+
+    private void write(String path, String content) throws IOException {
+        var file = projectDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private void writeZip(String path, Map<String, String> entries) throws IOException {
+        var file = projectDir.resolve(path);
+        Files.createDirectories(file.getParent());
+
+        try (var zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            for (var entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+    }
+}
@@ -3,29 +3,54 @@ package net.janrupf.gradle.hytale.dev;
 import net.janrupf.gradle.hytale.dev.agent.HytaleDevAgentConfiguration;
 import net.janrupf.gradle.hytale.dev.extension.HytaleServerDependencyExtension;
 import net.janrupf.gradle.hytale.dev.extension.HytaleExtension;
+import net.janrupf.gradle.hytale.dev.extension.HytaleManifestModel;
 import net.janrupf.gradle.hytale.dev.ide.IdeIntegration;
 import net.janrupf.gradle.hytale.dev.repository.HytaleServerRepository;
 import net.janrupf.gradle.hytale.dev.run.RunGenerator;
+import net.janrupf.gradle.hytale.dev.tasks.BenchmarkHytaleServerTask;
+import net.janrupf.gradle.hytale.dev.tasks.CheckHytaleCompatibilityTask;
+import net.janrupf.gradle.hytale.dev.tasks.DiffHytaleAssetsTask;
+import net.janrupf.gradle.hytale.dev.tasks.DiffHytaleServerApiTask;
 import net.janrupf.gradle.hytale.dev.tasks.ExtractAgentTask;
 import net.janrupf.gradle.hytale.dev.tasks.ExtractBridgeTask;
 import net.janrupf.gradle.hytale.dev.tasks.GenerateHytaleManifestTask;
+import net.janrupf.gradle.hytale.dev.tasks.IndexHytaleAssetsTask;
+import net.janrupf.gradle.hytale.dev.tasks.PackageHytalePluginTask;
 import net.janrupf.gradle.hytale.dev.tasks.SingleFileCopyTask;
+import net.janrupf.gradle.hytale.dev.tasks.TransformHytaleAssetsTask;
+import net.janrupf.gradle.hytale.dev.tasks.ValidateHytaleAssetsTask;
 import net.janrupf.gradle.hytale.dev.tasks.VineflowerDecompileTask;
+import net.janrupf.gradle.hytale.dev.util.CacheUtil;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
 import org.gradle.api.artifacts.repositories.FlatDirectoryArtifactRepository;
+import org.gradle.api.file.Directory;
 import org.gradle.api.file.RegularFile;
+import org.gradle.api.plugins.BasePlugin;
+import org.gradle.api.plugins.BasePluginExtension;
 import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.*;
+import org.gradle.api.tasks.bundling.Jar;
+import org.gradle.language.base.plugins.LifecycleBasePlugin;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.Collections;
+import java.util.List;
 
 public abstract class HytaleDevPlugin implements Plugin<Project> {
     public static final String HYTALE_TASK_GROUP = "hytale";
     public static final String HYTALE_LOCAL_REPOSITORY_GROUP = "net.janrupf.gradle.hytale.local";
 
+    // Asset roots of a plugin's asset pack, packed by the asset packaging task
+    private static final List<String> ASSET_ROOTS = List.of("Common", "Server");
+    private static final String[] ASSET_PATTERNS = ASSET_ROOTS.stream()
+            .map((root) -> root + "/**")
+            .toArray(String[]::new);
+
     private Project project;
     private IdeIntegration ideIntegration;
     private HytaleExtension extension;
@@ -37,6 +62,8 @@ public abstract class HytaleDevPlugin implements Plugin<Project> {
     private TaskProvider<GenerateHytaleManifestTask> generateManifestTask;
 
     private Provider<RegularFile> importedHytaleServerJar;
+    private Provider<RegularFile> assetIndexFile;
+    private TaskProvider<TransformHytaleAssetsTask> transformAssetsTask;
     private Configuration vineflowerConfiguration;
     private Configuration jacksonConfiguration;
 
@@ -71,20 +98,88 @@ public abstract class HytaleDevPlugin implements Plugin<Project> {
                 this::configureGenerateManifestTask
         );
 
+        var indexHytaleAssetsTask = project.getTasks().register(
+                "indexHytaleAssets",
+                IndexHytaleAssetsTask.class,
+                this::configureIndexHytaleAssetsTask
+        );
+        this.assetIndexFile = indexHytaleAssetsTask.flatMap(IndexHytaleAssetsTask::getIndexFile);
+
         this.agentConfiguration = new HytaleDevAgentConfiguration(
                 extractAgentTask.flatMap(ExtractAgentTask::getTargetFile),
                 importedHytaleServerJar,
-                extractBridgeTask.flatMap(ExtractBridgeTask::getTargetFile)
+                extractBridgeTask.flatMap(ExtractBridgeTask::getTargetFile),
+                assetIndexFile
         );
 
         var mainSourceSet = project.getExtensions().getByType(SourceSetContainer.class).getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+        this.transformAssetsTask = project.getTasks().register("transformHytaleAssets", TransformHytaleAssetsTask.class, (task) -> {
+            task.setGroup(HYTALE_TASK_GROUP);
+            task.setDescription("Optimizes PNG and minifies JSON assets for the plugin jar");
+
+            // Runs without assets while disabled, which removes the results of earlier builds
+            var transformAssets = extension.getTransformAssets();
+            task.getAssets().from(transformAssets.map((enabled) -> enabled
+                    ? mainSourceSet.getResources().matching((pattern) -> pattern.include(ASSET_PATTERNS))
+                    : project.files()));
+            task.getOutputDirectory().convention(project.getLayout().getBuildDirectory().dir("hytale-dev/transformed-assets"));
+            task.getCacheDirectory().convention(CacheUtil.directory(project, "asset-transforms"));
+        });
+
         var mainProcessResourcesTask = project.getTasks().named(mainSourceSet.getProcessResourcesTaskName(), Copy.class, this::configureProcessResourcesTask);
 
+        var jarTask = project.getTasks().named(JavaPlugin.JAR_TASK_NAME, Jar.class, this::configureJarTask);
+        var packagePluginTask = project.getTasks().register("packageHytalePlugin", PackageHytalePluginTask.class, (task) -> {
+            task.setGroup(HYTALE_TASK_GROUP);
+            task.setDescription("Writes the plugin jar with assets compressed in parallel");
+
+            task.getBaseJar().convention(jarTask.flatMap(Jar::getArchiveFile));
+            task.getAssets().from(project.fileTree(mainProcessResourcesTask.map(Copy::getDestinationDir), (tree) -> {
+                tree.include(ASSET_PATTERNS);
+                tree.builtBy(mainProcessResourcesTask);
+            }));
+            task.getOutputJar().convention(libsDirectory().zip(jarTask.flatMap(Jar::getArchiveFileName), Directory::file));
+            task.getThreads().convention(project.getGradle().getStartParameter().getMaxWorkerCount());
+
+            var packageAssets = extension.getPackageAssets();
+            task.onlyIf("Asset packaging is enabled", (t) -> packageAssets.get());
+        });
+        project.getTasks().named(BasePlugin.ASSEMBLE_TASK_NAME, (task) -> task.dependsOn(packagePluginTask));
+
+        var pluginJar = extension.getPackageAssets().flatMap((packageAssets) -> packageAssets
+                ? packagePluginTask.flatMap(PackageHytalePluginTask::getOutputJar)
+                : jarTask.flatMap(Jar::getArchiveFile));
+
+        // Consumers and publications get the plugin jar, with asset packaging the jar task output lacks the assets
+        for (var configurationName : List.of(JavaPlugin.API_ELEMENTS_CONFIGURATION_NAME, JavaPlugin.RUNTIME_ELEMENTS_CONFIGURATION_NAME)) {
+            project.getConfigurations().named(configurationName, (configuration) -> {
+                configuration.getOutgoing().getArtifacts().clear();
+                configuration.getOutgoing().artifact(pluginJar, (artifact) -> artifact.setType(ArtifactTypeDefinition.JAR_TYPE));
+            });
+        }
+
+        var checkCompatibilityTask = project.getTasks().register("checkHytaleCompatibility", CheckHytaleCompatibilityTask.class, (task) -> {
+            task.setGroup(HYTALE_TASK_GROUP);
+            task.setDescription("Checks that the server references of the plugin classes exist in the server jar");
+
+            task.getPluginClasses().from(mainSourceSet.getOutput().getClassesDirs());
+            task.getServerJar().convention(importedHytaleServerJar);
+            task.getCacheDirectory().convention(CacheUtil.directory(project, "symbol-index"));
+            task.getStateDirectory().convention(project.getLayout().getBuildDirectory().dir("hytale-dev/server/compatibility"));
+            task.getReport().convention(project.getLayout().getBuildDirectory().file("hytale-dev/server/compatibility-report.txt"));
+        });
+        project.getTasks().named(LifecycleBasePlugin.CHECK_TASK_NAME, (task) -> task.dependsOn(checkCompatibilityTask));
+
         this.runGenerator = new RunGenerator(
                 project,
                 ideIntegration,
                 project.getLayout().dir(mainProcessResourcesTask.map(Copy::getDestinationDir)),
-                agentConfiguration
+                agentConfiguration,
+                pluginJar,
+                checkCompatibilityTask,
+                extension.getManifest()
+                        .flatMap(HytaleManifestModel::getIdentifier)
+                        .flatMap(HytaleManifestModel.Identifier::toManifestString)
         );
 
         var dependencies = project.getDependencies();
@@ -96,6 +191,42 @@ public abstract class HytaleDevPlugin implements Plugin<Project> {
 
         this.ideIntegration.runTaskOnSync(project.getTasks().register("decompileHytaleServer", VineflowerDecompileTask.class, this::configureDecompileHytaleServerTask));
 
+        project.getTasks().register("validateHytaleAssets", ValidateHytaleAssetsTask.class, (task) -> {
+            task.setGroup(HYTALE_TASK_GROUP);
+            task.setDescription("Checks the references of the plugin's asset definitions without starting a server");
+
+            task.getAssets().from(mainSourceSet.getResources());
+            task.getAssetIndex().convention(assetIndexFile);
+            task.getStateDirectory().convention(project.getLayout().getBuildDirectory().dir("hytale-dev/assets/validation"));
+            task.getReport().convention(project.getLayout().getBuildDirectory().file("hytale-dev/assets/validation-report.txt"));
+            task.getJacksonClasspath().setFrom(jacksonConfiguration);
+        });
+
+        project.getTasks().register("diffHytaleAssets", DiffHytaleAssetsTask.class, (task) -> {
+            task.setGroup(HYTALE_TASK_GROUP);
+            task.setDescription("Lists the assets changed since a previous Assets.zip, set with -Phytale.previousAssetsZip");
+
+            task.getPreviousAssetsZip().convention(project.getLayout().file(project.getProviders()
+                    .gradleProperty("hytale.previousAssetsZip")
+                    .map(File::new)));
+            task.getAssetsZip().convention(extension.getHytaleAssetsZip());
+            task.getReportDirectory().convention(project.getLayout().getBuildDirectory().dir("hytale-dev/assets/diff"));
+            task.getJacksonClasspath().setFrom(jacksonConfiguration);
+        });
+
+        project.getTasks().register("diffHytaleServerApi", DiffHytaleServerApiTask.class, (task) -> {
+            task.setGroup(HYTALE_TASK_GROUP);
+            task.setDescription("Lists the server API changes since a previous HytaleServer.jar, set with -Phytale.previousServerJar");
+
+            task.getPreviousServerJar().convention(project.getLayout().file(project.getProviders()
+                    .gradleProperty("hytale.previousServerJar")
+                    .map(File::new)));
+            task.getServerJar().convention(importedHytaleServerJar);
+            task.getPluginClasses().from(mainSourceSet.getOutput().getClassesDirs());
+            task.getCacheDirectory().convention(CacheUtil.directory(project, "symbol-index"));
+            task.getReport().convention(project.getLayout().getBuildDirectory().file("hytale-dev/server/api-diff.txt"));
+        });
+
         project.getRepositories().flatDir(this::configureHytaleInstallationAsFlatDirRepository);
         project.getDependencies().getExtensions().create(
                 "hytaleServer",
@@ -105,7 +236,15 @@ public abstract class HytaleDevPlugin implements Plugin<Project> {
         );
 
         this.extension.getRuns().all(this.runGenerator::generate);
-
+        this.extension.getClusters().all(
+                (cluster) -> this.runGenerator.generateCluster(cluster, this.extension.getRuns())
+        );
+        this.extension.getBenchmarks().all(
+                (benchmark) -> this.runGenerator.generateBenchmark(benchmark, this.extension.getRuns())
+        );
+        project.getTasks().withType(BenchmarkHytaleServerTask.class).configureEach(
+                (task) -> task.getJacksonClasspath().setFrom(jacksonConfiguration)
+        );
 
         project.afterEvaluate(this::afterEvaluate);
     }
@@ -129,6 +268,15 @@ public abstract class HytaleDevPlugin implements Plugin<Project> {
         task.getJacksonClasspath().setFrom(jacksonConfiguration);
     }
 
+    private void configureIndexHytaleAssetsTask(IndexHytaleAssetsTask task) {
+        task.setGroup(HYTALE_TASK_GROUP);
+        task.setDescription("Builds an index of the Hytale assets for tooling and the IDE");
+
+        task.getAssetsZip().convention(extension.getHytaleAssetsZip());
+        task.getIndexFile().convention(project.getLayout().getBuildDirectory().file("hytale-dev/assets/asset-index.bin"));
+        task.getCacheDirectory().convention(CacheUtil.directory(project, "asset-index"));
+    }
+
     private void configureHytaleInstallationAsFlatDirRepository(FlatDirectoryArtifactRepository repository) {
         repository.setName("LocalHytaleServerRepository");
         repository.dir(hytaleServerRepository.getRepositoryDir());
@@ -143,11 +291,42 @@ public abstract class HytaleDevPlugin implements Plugin<Project> {
         task.getDecompiledOutputJar().convention(hytaleServerRepository.getEntry("HytaleServer-sources.jar").getFile());
         task.getPrefixes().convention(Collections.singleton("com/hypixel"));
         task.getVineflowerClasspath().setFrom(vineflowerConfiguration);
-        task.setEnabled(extension.getEnableDecompileServerJar().get());
+
+        var enabled = extension.getEnableDecompileServerJar();
+        task.onlyIf("Decompiling the server jar is enabled", (t) -> enabled.get());
     }
 
     private void configureProcessResourcesTask(Copy task) {
         task.from(this.generateManifestTask);
+        task.from(this.transformAssetsTask);
+
+        // Transformed assets replace their source, the transform only writes files which shrunk
+        var transformAssets = extension.getTransformAssets();
+        var transformedDirectory = transformAssetsTask.flatMap(TransformHytaleAssetsTask::getOutputDirectory)
+                .map((directory) -> directory.getAsFile().toPath());
+        task.exclude((element) -> {
+            if (!transformAssets.get() || element.isDirectory()) {
+                return false;
+            }
+
+            var directory = transformedDirectory.get();
+            return !element.getFile().toPath().startsWith(directory) &&
+                    Files.isRegularFile(directory.resolve(element.getRelativePath().getPathString()));
+        });
+    }
+
+    private void configureJarTask(Jar task) {
+        var packageAssets = extension.getPackageAssets();
+
+        // With asset packaging the jar task only stages classes and resources for the packaging task
+        task.getDestinationDirectory().convention(packageAssets.flatMap((enabled) -> enabled
+                ? project.getLayout().getBuildDirectory().dir("hytale-dev/jar")
+                : libsDirectory()));
+        task.exclude((element) -> packageAssets.get() && ASSET_ROOTS.contains(element.getRelativePath().getSegments()[0]));
+    }
+
+    private Provider<Directory> libsDirectory() {
+        return project.getExtensions().getByType(BasePluginExtension.class).getLibsDirectory();
     }
 
     private void afterEvaluate(Project project) {
@@ -0,0 +1,23 @@
+package net.janrupf.gradle.hytale.dev.actions;
+
+import tools.jackson.core.json.JsonReadFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Reads asset definitions as leniently as the game does.
+ * <p>
+ * Some asset files contain comments or trailing commas, which the server loads fine and the
+ * asset transforms pass through unchanged. A strict parser would report them as invalid.
+ */
+final class AssetJson {
+    static final ObjectMapper MAPPER = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_YAML_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .build();
+
+    private AssetJson() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+}
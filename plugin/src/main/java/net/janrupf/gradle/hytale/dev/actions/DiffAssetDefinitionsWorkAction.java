@@ -0,0 +1,110 @@
+package net.janrupf.gradle.hytale.dev.actions;
+
+import org.gradle.workers.WorkAction;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.LinkedHashSet;
+import java.util.zip.ZipFile;
+
+/**
+ * Compares asset definitions between two versions of the assets archive.
+ * <p>
+ * The definitions are read straight from both archives. For every definition a line with its
+ * name is written, followed by one line per changed value:
+ * <pre>
+ *   + pointer value        added
+ *   - pointer value        removed
+ *   ~ pointer old -> new   changed
+ *   ! message              either version could not be parsed
+ * </pre>
+ * Objects are compared by key and arrays by index, values are written as compact JSON.
+ */
+public abstract class DiffAssetDefinitionsWorkAction implements WorkAction<DiffAssetDefinitionsWorkActionParams> {
+    @Override
+    public void execute() {
+        var params = getParameters();
+        var target = params.getTarget().get().getAsFile().toPath();
+
+        try (
+                var previous = new ZipFile(params.getPreviousAssetsZip().get().getAsFile());
+                var current = new ZipFile(params.getAssetsZip().get().getAsFile())
+        ) {
+            Files.createDirectories(target.getParent());
+            try (var writer = Files.newBufferedWriter(target)) {
+                for (var name : params.getNames().get()) {
+                    writer.write(name + "\n");
+                    diff(previous, current, name, writer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compare asset definitions into " + target, e);
+        }
+    }
+
+    private static void diff(ZipFile previous, ZipFile current, String name, BufferedWriter writer) throws IOException {
+        JsonNode before;
+        JsonNode after;
+        try {
+            before = read(previous, name);
+            after = read(current, name);
+        } catch (JacksonException e) {
+            writer.write("  ! invalid JSON: " + e.getOriginalMessage().replace('\n', ' ') + "\n");
+            return;
+        }
+
+        diff(before, after, "", writer);
+    }
+
+    private static JsonNode read(ZipFile zip, String name) throws IOException {
+        var entry = zip.getEntry(name);
+        if (entry == null) {
+            throw new IOException("Entry " + name + " is missing from " + zip.getName());
+        }
+
+        try (var in = zip.getInputStream(entry)) {
+            return AssetJson.MAPPER.readTree(in);
+        }
+    }
+
+    private static void diff(JsonNode before, JsonNode after, String pointer, BufferedWriter writer) throws IOException {
+        if (before.equals(after)) {
+            return;
+        }
+
+        if (before.isObject() && after.isObject()) {
+            var keys = new LinkedHashSet<String>();
+            keys.addAll(before.propertyNames());
+            keys.addAll(after.propertyNames());
+
+            for (var key : keys) {
+                var childPointer = pointer + "/" + key.replace("~", "~0").replace("/", "~1");
+                diffChild(before.get(key), after.get(key), childPointer, writer);
+            }
+        } else if (before.isArray() && after.isArray()) {
+            for (int i = 0; i < Math.max(before.size(), after.size()); i++) {
+                diffChild(before.get(i), after.get(i), pointer + "/" + i, writer);
+            }
+        } else {
+            writer.write("  ~ " + pointerOrRoot(pointer) + " " + before + " -> " + after + "\n");
+        }
+    }
+
+    private static void diffChild(JsonNode before, JsonNode after, String pointer, BufferedWriter writer) throws IOException {
+        if (before == null) {
+            writer.write("  + " + pointer + " " + after + "\n");
+        } else if (after == null) {
+            writer.write("  - " + pointer + " " + before + "\n");
+        } else {
+            diff(before, after, pointer, writer);
+        }
+    }
+
+    private static String pointerOrRoot(String pointer) {
+        return pointer.isEmpty() ? "/" : pointer;
+    }
+}
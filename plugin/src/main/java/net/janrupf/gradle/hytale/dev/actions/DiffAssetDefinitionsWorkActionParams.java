@@ -0,0 +1,16 @@
+package net.janrupf.gradle.hytale.dev.actions;
+
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.workers.WorkParameters;
+
+public interface DiffAssetDefinitionsWorkActionParams extends WorkParameters {
+    RegularFileProperty getPreviousAssetsZip();
+
+    RegularFileProperty getAssetsZip();
+
+    // Entry names of definitions present in both archives
+    ListProperty<String> getNames();
+
+    RegularFileProperty getTarget();
+}
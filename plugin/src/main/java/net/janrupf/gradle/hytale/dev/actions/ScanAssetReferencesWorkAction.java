@@ -0,0 +1,130 @@
+package net.janrupf.gradle.hytale.dev.actions;
+
+import org.gradle.workers.WorkAction;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses asset definitions and writes the references found in them.
+ * <p>
+ * Every result file contains one tab separated line per finding:
+ * <pre>
+ * E  message           the definition could not be parsed
+ * I  pointer  value    reference to the id of another definition
+ * P  pointer  value    reference to the path of an asset file
+ * </pre>
+ * The pointer is the JSON pointer of the referencing value, with tabs and line breaks in keys
+ * escaped so they cannot break up the line.
+ */
+public abstract class ScanAssetReferencesWorkAction implements WorkAction<ScanAssetReferencesWorkActionParams> {
+    @Override
+    public void execute() {
+        var params = getParameters();
+        var sources = params.getSources().get();
+        var targets = params.getTargets().get();
+        var idKeys = params.getIdReferenceKeys().get();
+        var pathExtensions = params.getPathReferenceExtensions().get();
+
+        for (int i = 0; i < sources.size(); i++) {
+            var target = targets.get(i).toPath();
+
+            try {
+                Files.createDirectories(target.getParent());
+                try (var writer = Files.newBufferedWriter(target)) {
+                    scan(sources.get(i), writer, idKeys, pathExtensions);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write " + target, e);
+            }
+        }
+    }
+
+    private static void scan(File source, BufferedWriter writer, List<String> idKeys, List<String> pathExtensions) throws IOException {
+        JsonNode root;
+        try {
+            root = AssetJson.MAPPER.readTree(source);
+        } catch (JacksonException e) {
+            writer.write("E\t" + escapeLine(e.getOriginalMessage()) + "\n");
+            return;
+        }
+
+        visit(root, "", false, writer, idKeys, pathExtensions);
+    }
+
+    private static void visit(
+            JsonNode node,
+            String pointer,
+            boolean idReference,
+            BufferedWriter writer,
+            List<String> idKeys,
+            List<String> pathExtensions
+    ) throws IOException {
+        if (node.isObject()) {
+            for (var property : node.properties()) {
+                visit(
+                        property.getValue(),
+                        pointer + "/" + escapePointer(property.getKey()),
+                        matchesKey(property.getKey(), idKeys),
+                        writer,
+                        idKeys,
+                        pathExtensions
+                );
+            }
+        } else if (node.isArray()) {
+            int index = 0;
+            for (var element : node.values()) {
+                // Elements inherit the key of the array, e.g. "ItemIds": ["A", "B"]
+                visit(element, pointer + "/" + index++, idReference, writer, idKeys, pathExtensions);
+            }
+        } else if (node.isString()) {
+            var value = node.stringValue();
+            // Neither an id nor a path, and it would break up the line
+            if (value.isEmpty() || value.indexOf('\t') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                return;
+            }
+
+            if (hasExtension(value, pathExtensions)) {
+                writer.write("P\t" + pointer + "\t" + value + "\n");
+            } else if (idReference) {
+                writer.write("I\t" + pointer + "\t" + value + "\n");
+            }
+        }
+    }
+
+    private static boolean matchesKey(String key, List<String> patterns) {
+        for (var pattern : patterns) {
+            if (pattern.startsWith("*") ? key.endsWith(pattern.substring(1)) : key.equals(pattern)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasExtension(String value, List<String> extensions) {
+        var lower = value.toLowerCase(Locale.ROOT);
+        for (var extension : extensions) {
+            if (lower.endsWith("." + extension)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String escapePointer(String key) {
+        return escapeLine(key.replace("~", "~0").replace("/", "~1"));
+    }
+
+    private static String escapeLine(String text) {
+        return text.replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+}
@@ -0,0 +1,17 @@
+package net.janrupf.gradle.hytale.dev.actions;
+
+import org.gradle.api.provider.ListProperty;
+import org.gradle.workers.WorkParameters;
+
+import java.io.File;
+
+public interface ScanAssetReferencesWorkActionParams extends WorkParameters {
+    ListProperty<File> getSources();
+
+    // One result file per source, in the same order
+    ListProperty<File> getTargets();
+
+    ListProperty<String> getIdReferenceKeys();
+
+    ListProperty<String> getPathReferenceExtensions();
+}
@@ -0,0 +1,98 @@
+package net.janrupf.gradle.hytale.dev.actions;
+
+import net.janrupf.gradle.hytale.dev.assets.JsonMinifier;
+import net.janrupf.gradle.hytale.dev.assets.PngOptimizer;
+import net.janrupf.gradle.hytale.dev.util.CacheUtil;
+import org.gradle.workers.WorkAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Optimizes PNG files and minifies JSON files.
+ * <p>
+ * Results are cached by the hash of the input content, so identical files are only transformed
+ * once across projects and clean builds. If a file can not be made smaller, no target is written
+ * and a marker in the cache remembers that.
+ */
+public abstract class TransformAssetsWorkAction implements WorkAction<TransformAssetsWorkActionParams> {
+    // Bump when the output of a transform changes, invalidating cached results
+    private static final String TRANSFORM_VERSION = "1";
+    private static final String UNCHANGED_SUFFIX = ".unchanged";
+
+    @Override
+    public void execute() {
+        var params = getParameters();
+        var sources = params.getSources().get();
+        var targets = params.getTargets().get();
+        var cacheDirectory = params.getCacheDirectory().get().getAsFile().toPath();
+
+        for (int i = 0; i < sources.size(); i++) {
+            try {
+                transform(sources.get(i), targets.get(i).toPath(), cacheDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to transform " + sources.get(i), e);
+            }
+        }
+    }
+
+    private static void transform(File source, Path target, Path cacheDirectory) throws IOException {
+        var content = Files.readAllBytes(source.toPath());
+        var extension = extension(source.getName());
+
+        var key = hash(extension, content);
+        var cached = cacheDirectory.resolve(key.substring(0, 2)).resolve(key);
+        var unchanged = cached.resolveSibling(key + UNCHANGED_SUFFIX);
+
+        if (Files.exists(unchanged)) {
+            return;
+        }
+
+        if (Files.exists(cached)) {
+            Files.createDirectories(target.getParent());
+            Files.copy(cached, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+
+        var transformed = switch (extension) {
+            case "png" -> PngOptimizer.optimize(content);
+            case "json" -> JsonMinifier.minify(content);
+            default -> null;
+        };
+
+        if (transformed == null) {
+            // The marker has no content
+            CacheUtil.publish(unchanged, (file) -> {});
+            return;
+        }
+
+        CacheUtil.publish(cached, (file) -> Files.write(file, transformed));
+
+        Files.createDirectories(target.getParent());
+        Files.write(target, transformed);
+    }
+
+    private static String hash(String extension, byte[] content) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update((TRANSFORM_VERSION + ":" + extension + ":").getBytes());
+            digest.update(content);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String extension(String name) {
+        var dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+}
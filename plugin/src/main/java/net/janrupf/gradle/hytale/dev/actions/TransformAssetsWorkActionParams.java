@@ -0,0 +1,16 @@
+package net.janrupf.gradle.hytale.dev.actions;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.workers.WorkParameters;
+
+import java.io.File;
+
+public interface TransformAssetsWorkActionParams extends WorkParameters {
+    ListProperty<File> getSources();
+
+    // One target per source, in the same order
+    ListProperty<File> getTargets();
+
+    DirectoryProperty getCacheDirectory();
+}
@@ -1,12 +1,12 @@
 package net.janrupf.gradle.hytale.dev.actions;
 
-import org.gradle.api.Project;
 import org.gradle.api.file.FileSystemLocationProperty;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
 import org.gradle.workers.WorkParameters;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 
@@ -35,12 +35,11 @@ public interface VineflowerDecompilerWorkActionParams extends WorkParameters {
 
     ListProperty<String> getPrefixes();
 
-    static Provider<Map<String, Object>> defaultPreferencesProvider(Project project) {
-        return project.provider(() -> {
+    static Provider<Map<String, Object>> defaultPreferencesProvider(ProviderFactory providers, Logger logger) {
+        return providers.provider(() -> {
             var mapCopy = new HashMap<>(DEFAULT_VINEFLOWER_PREFERENCES);
 
             if (!mapCopy.containsKey("log-level")) {
-                Logger logger = project.getLogger();
                 String logLevel;
 
                 if (logger.isTraceEnabled()) {
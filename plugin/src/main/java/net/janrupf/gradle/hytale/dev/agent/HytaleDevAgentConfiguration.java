@@ -14,15 +14,18 @@ public class HytaleDevAgentConfiguration {
     private final Provider<RegularFile> agentJar;
     private final Provider<RegularFile> serverJar;
     private final Provider<RegularFile> bridgeJar;
+    private final Provider<RegularFile> assetIndex;
 
     public HytaleDevAgentConfiguration(
             Provider<RegularFile> agentJar,
             Provider<RegularFile> serverJar,
-            Provider<RegularFile> bridgeJar
+            Provider<RegularFile> bridgeJar,
+            Provider<RegularFile> assetIndex
     ) {
         this.agentJar = agentJar;
         this.serverJar = serverJar;
         this.bridgeJar = bridgeJar;
+        this.assetIndex = assetIndex;
     }
 
     public Provider<RegularFile> getAgentJar() {
@@ -36,4 +39,8 @@ public class HytaleDevAgentConfiguration {
     public Provider<RegularFile> getBridgeJar() {
         return bridgeJar;
     }
+
+    public Provider<RegularFile> getAssetIndex() {
+        return assetIndex;
+    }
 }
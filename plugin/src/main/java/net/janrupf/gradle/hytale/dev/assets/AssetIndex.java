@@ -0,0 +1,242 @@
+package net.janrupf.gradle.hytale.dev.assets;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A catalog of the entries of an {@code Assets.zip}.
+ * <p>
+ * The index is stored in a compact binary file next to the build, so tasks and the bridge can
+ * look up assets without opening the archive:
+ * <pre>
+ * int    magic ("HDAI")
+ * int    version
+ * string zip hash
+ * int    entry count
+ * entry  entries[entry count]
+ *
+ * entry:
+ *   string name
+ *   string id
+ *   string type
+ *   long   local header offset
+ *   long   compressed size
+ *   long   size
+ *   int    crc
+ *   short  method
+ *   int    reference count
+ *   string references[reference count]
+ * </pre>
+ * All numbers are big endian, strings are an int byte length followed by UTF-8 bytes.
+ */
+public class AssetIndex {
+    public static final int MAGIC = 0x48444149;
+    public static final int VERSION = 1;
+
+    private final String zipHash;
+    private final List<Entry> entries;
+    private final Map<String, Entry> byName;
+
+    public AssetIndex(String zipHash, List<Entry> entries) {
+        this.zipHash = zipHash;
+        this.entries = Collections.unmodifiableList(entries);
+        this.byName = new HashMap<>(entries.size() * 2);
+
+        for (var entry : entries) {
+            byName.put(entry.name(), entry);
+        }
+    }
+
+    /**
+     * The hash of the archive this index was built from.
+     *
+     * @return the hash, see {@link ZipCentralDirectory#getHash()}
+     */
+    public String getZipHash() {
+        return zipHash;
+    }
+
+    /**
+     * All indexed entries in archive order.
+     *
+     * @return the entries
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Look up an entry by its name in the archive.
+     *
+     * @param name the entry name
+     * @return the entry, or null if the archive has no such entry
+     */
+    public Entry getEntry(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Read an index file.
+     *
+     * @param file the index file
+     * @return the index
+     * @throws IOException if the file can not be read or is not an index of this version
+     */
+    public static AssetIndex read(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to be an asset index");
+            }
+
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not an asset index");
+            }
+
+            var version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported asset index version " + version);
+            }
+
+            var zipHash = readString(buffer);
+            var count = buffer.getInt();
+            var entries = new ArrayList<Entry>(count);
+
+            for (int i = 0; i < count; i++) {
+                var name = readString(buffer);
+                var id = readString(buffer);
+                var type = readString(buffer);
+                var localHeaderOffset = buffer.getLong();
+                var compressedSize = buffer.getLong();
+                var size = buffer.getLong();
+                var crc = buffer.getInt();
+                var method = Short.toUnsignedInt(buffer.getShort());
+
+                var referenceCount = buffer.getInt();
+                var references = new ArrayList<String>(referenceCount);
+                for (int r = 0; r < referenceCount; r++) {
+                    references.add(readString(buffer));
+                }
+
+                entries.add(new Entry(name, id, type, localHeaderOffset, compressedSize, size, crc, method, references));
+            }
+
+            return new AssetIndex(zipHash, entries);
+        }
+    }
+
+    /**
+     * Write this index to a file, replacing it if it exists.
+     *
+     * @param file the file to write to
+     * @throws IOException if writing fails
+     */
+    public void write(Path file) throws IOException {
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, zipHash);
+            out.writeInt(entries.size());
+
+            for (var entry : entries) {
+                writeString(out, entry.name());
+                writeString(out, entry.id());
+                writeString(out, entry.type());
+                out.writeLong(entry.localHeaderOffset());
+                out.writeLong(entry.compressedSize());
+                out.writeLong(entry.size());
+                out.writeInt(entry.crc());
+                out.writeShort(entry.method());
+
+                out.writeInt(entry.references().size());
+                for (var reference : entry.references()) {
+                    writeString(out, reference);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether an asset is a JSON definition, as opposed to a resource such as a texture.
+     *
+     * @param name the asset path including its root
+     * @return true if the asset is a definition
+     */
+    public static boolean isDefinition(String name) {
+        return name.endsWith(".json");
+    }
+
+    /**
+     * The id of an asset, its file name without extension.
+     *
+     * @param name the asset path
+     * @return the id
+     */
+    public static String idOf(String name) {
+        var fileName = name.substring(name.lastIndexOf('/') + 1);
+        var extension = fileName.lastIndexOf('.');
+        return extension > 0 ? fileName.substring(0, extension) : fileName;
+    }
+
+    /**
+     * Strip the root directory, {@code Common} or {@code Server}, from an asset path.
+     * <p>
+     * Definitions refer to resources by this path, e.g. {@code Icons/ItemsGenerated/Foo.png}.
+     *
+     * @param name the asset path including its root
+     * @return the path below the root
+     */
+    public static String pathBelowRoot(String name) {
+        return name.substring(name.indexOf('/') + 1);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * An indexed asset.
+     *
+     * @param name              the entry name in the archive, e.g. {@code Server/Item/Items/Foo.json}
+     * @param id                the asset id, the file name without extension
+     * @param type              the asset type, see {@link AssetIndexBuilder}
+     * @param localHeaderOffset the offset of the local file header within the archive
+     * @param compressedSize    the compressed size in bytes
+     * @param size              the uncompressed size in bytes
+     * @param crc               the CRC-32 of the uncompressed data
+     * @param method            the compression method, 0 for stored and 8 for deflated
+     * @param references        the ids and paths of other assets this asset refers to
+     */
+    public record Entry(
+            String name,
+            String id,
+            String type,
+            long localHeaderOffset,
+            long compressedSize,
+            long size,
+            int crc,
+            int method,
+            List<String> references
+    ) {
+    }
+}
@@ -0,0 +1,189 @@
+package net.janrupf.gradle.hytale.dev.assets;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.zip.ZipFile;
+
+/**
+ * Builds an {@link AssetIndex} from an {@code Assets.zip}.
+ * <p>
+ * The archive is laid out as {@code <root>/<type directories>/<id>.<extension>}, with the roots
+ * {@code Common} for client resources and {@code Server} for asset definitions. The type of a
+ * JSON definition is its directory below the root, e.g. {@code Item/Items}, the type of any other
+ * file is its extension, e.g. {@code png}.
+ * <p>
+ * Only JSON definitions are decompressed to find references. Every string value which names the
+ * id of a definition or the path of a file below its root is recorded as a reference. Keys are
+ * ignored, as are values which do not name an asset, so no knowledge about the schema of the
+ * individual asset types is required.
+ */
+public class AssetIndexBuilder {
+    // Longer strings are never asset ids or paths, skip decoding them
+    private static final int MAX_REFERENCE_LENGTH = 512;
+
+    private AssetIndexBuilder() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Index an asset archive.
+     *
+     * @param zipFile the archive to index
+     * @return the index
+     * @throws IOException if the archive can not be read
+     */
+    public static AssetIndex build(Path zipFile) throws IOException {
+        var directory = ZipCentralDirectory.read(zipFile);
+        var zipEntries = directory.getEntries();
+
+        var known = new HashSet<String>(zipEntries.size() * 4);
+        for (var entry : zipEntries) {
+            if (AssetIndex.isDefinition(entry.name())) {
+                known.add(AssetIndex.idOf(entry.name()));
+            }
+            known.add(AssetIndex.pathBelowRoot(entry.name()));
+        }
+
+        var entries = new AssetIndex.Entry[zipEntries.size()];
+        try (var zip = new ZipFile(zipFile.toFile())) {
+            // Decompression dominates, the definitions are independent of each other
+            IntStream.range(0, entries.length).parallel().forEach((i) -> {
+                var entry = zipEntries.get(i);
+                var id = AssetIndex.idOf(entry.name());
+                var references = AssetIndex.isDefinition(entry.name())
+                        ? findReferences(zip, entry.name(), id, known)
+                        : List.<String>of();
+
+                entries[i] = new AssetIndex.Entry(
+                        entry.name(),
+                        id,
+                        typeOf(entry.name()),
+                        entry.localHeaderOffset(),
+                        entry.compressedSize(),
+                        entry.size(),
+                        entry.crc(),
+                        entry.method(),
+                        references
+                );
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return new AssetIndex(directory.getHash(), List.of(entries));
+    }
+
+    private static String typeOf(String name) {
+        if (AssetIndex.isDefinition(name)) {
+            var path = AssetIndex.pathBelowRoot(name);
+            var lastSlash = path.lastIndexOf('/');
+            return lastSlash > 0 ? path.substring(0, lastSlash) : "";
+        }
+
+        var fileName = name.substring(name.lastIndexOf('/') + 1);
+        var extension = fileName.lastIndexOf('.');
+        return extension >= 0 ? fileName.substring(extension + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static List<String> findReferences(ZipFile zip, String name, String id, Set<String> known) {
+        byte[] content;
+        try (var in = zip.getInputStream(zip.getEntry(name))) {
+            content = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + name, e);
+        }
+
+        var references = new TreeSet<String>();
+        forEachStringValue(content, (value) -> {
+            if (!value.equals(id) && known.contains(value)) {
+                references.add(value);
+            }
+        });
+
+        return new ArrayList<>(references);
+    }
+
+    /**
+     * Scan JSON for string values without building a tree.
+     * <p>
+     * All structural characters are ASCII, so the UTF-8 bytes can be scanned directly. Strings
+     * followed by a colon are object keys and skipped.
+     */
+    private static void forEachStringValue(byte[] json, Consumer<String> consumer) {
+        int position = 0;
+        while (position < json.length) {
+            if (json[position] != '"') {
+                position++;
+                continue;
+            }
+
+            int start = position + 1;
+            int end = start;
+            boolean escaped = false;
+            while (end < json.length && json[end] != '"') {
+                if (json[end] == '\\') {
+                    escaped = true;
+                    end++;
+                }
+                end++;
+            }
+
+            position = end + 1;
+
+            int next = position;
+            while (next < json.length && Character.isWhitespace(json[next])) {
+                next++;
+            }
+
+            if ((next < json.length && json[next] == ':') || end - start > MAX_REFERENCE_LENGTH || end > json.length) {
+                continue;
+            }
+
+            consumer.accept(escaped ? unescape(json, start, end) : new String(json, start, end - start, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String unescape(byte[] json, int start, int end) {
+        var raw = new String(json, start, end - start, StandardCharsets.UTF_8);
+        var builder = new StringBuilder(raw.length());
+
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c != '\\' || i + 1 >= raw.length()) {
+                builder.append(c);
+                continue;
+            }
+
+            char escape = raw.charAt(++i);
+            switch (escape) {
+                case 'n' -> builder.append('\n');
+                case 't' -> builder.append('\t');
+                case 'r' -> builder.append('\r');
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'u' -> {
+                    try {
+                        builder.append((char) Integer.parseInt(raw, i + 1, i + 5, 16));
+                        i += 4;
+                    } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                        // Malformed escape, such a string can not name an asset anyway
+                        return raw;
+                    }
+                }
+                default -> builder.append(escape);
+            }
+        }
+
+        return builder.toString();
+    }
+}
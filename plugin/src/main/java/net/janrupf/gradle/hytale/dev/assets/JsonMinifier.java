@@ -0,0 +1,60 @@
+package net.janrupf.gradle.hytale.dev.assets;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Removes insignificant whitespace from JSON.
+ * <p>
+ * Works on the UTF-8 bytes without parsing values, so numbers and strings are kept exactly as
+ * written. Files containing comments, which some asset files use, are left alone since the
+ * comment would swallow the following line once the line breaks are gone.
+ */
+public class JsonMinifier {
+    private JsonMinifier() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Minify a JSON file.
+     *
+     * @param json the JSON file content
+     * @return the minified content, or null if it could not be made smaller
+     */
+    public static byte[] minify(byte[] json) {
+        var out = new ByteArrayOutputStream(json.length);
+        boolean inString = false;
+
+        for (int i = 0; i < json.length; i++) {
+            byte b = json[i];
+
+            if (inString) {
+                out.write(b);
+                if (b == '\\' && i + 1 < json.length) {
+                    out.write(json[++i]);
+                } else if (b == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+
+            switch (b) {
+                case ' ', '\t', '\n', '\r' -> {
+                }
+                case '/', '#' -> {
+                    return null;
+                }
+                case '"' -> {
+                    inString = true;
+                    out.write(b);
+                }
+                default -> out.write(b);
+            }
+        }
+
+        if (inString || out.size() >= json.length) {
+            return null;
+        }
+
+        return out.toByteArray();
+    }
+}
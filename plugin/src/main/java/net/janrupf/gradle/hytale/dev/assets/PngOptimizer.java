@@ -0,0 +1,172 @@
+package net.janrupf.gradle.hytale.dev.assets;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Losslessly shrinks PNG files.
+ * <p>
+ * The image data is inflated and deflated again with the best compression level, trying the
+ * default and the filtered strategy, and written as a single {@code IDAT} chunk. Scanline filters
+ * are kept, so the pixels are unchanged. Metadata chunks which do not affect how the image is
+ * displayed, such as text, timestamps and the physical pixel size, are removed. Chunks which do,
+ * like the palette, transparency and color space information, are kept.
+ * <p>
+ * Animated PNGs and files with unknown critical chunks are left alone.
+ */
+public class PngOptimizer {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    // Ancillary chunks which change how the image looks
+    private static final Set<String> KEPT_ANCILLARY_CHUNKS = Set.of(
+            "tRNS", "gAMA", "cHRM", "sRGB", "iCCP", "sBIT", "bKGD"
+    );
+
+    private PngOptimizer() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Optimize a PNG file.
+     *
+     * @param png the PNG file content
+     * @return the optimized content, or null if it could not be made smaller
+     */
+    public static byte[] optimize(byte[] png) {
+        if (png.length < SIGNATURE.length || !ByteBuffer.wrap(png, 0, SIGNATURE.length).equals(ByteBuffer.wrap(SIGNATURE))) {
+            return null;
+        }
+
+        var buffer = ByteBuffer.wrap(png);
+        buffer.position(SIGNATURE.length);
+
+        var before = new ByteArrayOutputStream();
+        var after = new ByteArrayOutputStream();
+        var imageData = new ByteArrayOutputStream();
+        boolean seenImageData = false;
+
+        while (buffer.remaining() >= 12) {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining() - 8) {
+                return null;
+            }
+
+            var typeBytes = new byte[4];
+            buffer.get(typeBytes);
+            var type = new String(typeBytes, StandardCharsets.ISO_8859_1);
+            int dataOffset = buffer.position();
+            buffer.position(dataOffset + length + 4);
+
+            switch (type) {
+                case "IDAT" -> {
+                    imageData.write(png, dataOffset, length);
+                    seenImageData = true;
+                }
+                case "IHDR", "PLTE", "IEND" -> writeChunk(seenImageData ? after : before, typeBytes, png, dataOffset, length);
+                case "acTL", "fcTL", "fdAT" -> {
+                    // Animation chunks are interleaved with the image data, leave them alone
+                    return null;
+                }
+                default -> {
+                    if (Character.isUpperCase(type.charAt(0))) {
+                        // Unknown critical chunk, the image can not be understood without it
+                        return null;
+                    }
+
+                    if (KEPT_ANCILLARY_CHUNKS.contains(type)) {
+                        writeChunk(seenImageData ? after : before, typeBytes, png, dataOffset, length);
+                    }
+                }
+            }
+
+            if (type.equals("IEND")) {
+                break;
+            }
+        }
+
+        if (!seenImageData) {
+            return null;
+        }
+
+        byte[] raw;
+        try {
+            raw = inflate(imageData.toByteArray());
+        } catch (DataFormatException e) {
+            return null;
+        }
+
+        var deflated = smallestDeflate(raw);
+
+        var out = new ByteArrayOutputStream(png.length);
+        out.writeBytes(SIGNATURE);
+        out.writeBytes(before.toByteArray());
+        writeChunk(out, "IDAT".getBytes(StandardCharsets.ISO_8859_1), deflated, 0, deflated.length);
+        out.writeBytes(after.toByteArray());
+
+        return out.size() < png.length ? out.toByteArray() : null;
+    }
+
+    private static byte[] inflate(byte[] data) throws DataFormatException {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+
+            var out = new ByteArrayOutputStream(data.length * 4);
+            var chunk = new byte[64 * 1024];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(chunk);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated image data");
+                }
+                out.write(chunk, 0, count);
+            }
+
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] smallestDeflate(byte[] raw) {
+        byte[] smallest = null;
+        for (int strategy : new int[]{Deflater.DEFAULT_STRATEGY, Deflater.FILTERED}) {
+            var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                deflater.setStrategy(strategy);
+                deflater.setInput(raw);
+                deflater.finish();
+
+                var out = new ByteArrayOutputStream(raw.length / 2 + 64);
+                var chunk = new byte[64 * 1024];
+                while (!deflater.finished()) {
+                    out.write(chunk, 0, deflater.deflate(chunk));
+                }
+
+                if (smallest == null || out.size() < smallest.length) {
+                    smallest = out.toByteArray();
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+
+        return smallest;
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, byte[] type, byte[] data, int offset, int length) {
+        var crc = new CRC32();
+        crc.update(type);
+        crc.update(data, offset, length);
+
+        out.writeBytes(ByteBuffer.allocate(4).putInt(length).array());
+        out.writeBytes(type);
+        out.write(data, offset, length);
+        out.writeBytes(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+}
@@ -0,0 +1,194 @@
+package net.janrupf.gradle.hytale.dev.assets;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes zip archives from already compressed entry data.
+ * <p>
+ * Entries are written exactly as handed in, compression is up to the caller, which allows
+ * compressing in parallel and copying entries from other archives without inflating them. Every
+ * entry gets the same timestamp and no file attributes, so the same entries in the same order
+ * always produce the same bytes.
+ */
+public class ReproducibleZipWriter implements Closeable {
+    public static final int STORED = 0;
+    public static final int DEFLATED = 8;
+
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int UTF8_FLAG = 1 << 11;
+    private static final int VERSION = 20;
+    private static final long MAX_ZIP32_VALUE = 0xFFFFFFFFL;
+    private static final int MAX_ZIP32_ENTRIES = 0xFFFF;
+
+    // 1980-02-01 00:00, the same constant Gradle uses for archives without file timestamps
+    private static final int DOS_TIME = 0;
+    private static final int DOS_DATE = ((1980 - 1980) << 9) | (2 << 5) | 1;
+
+    private final FileChannel channel;
+    private final List<CentralEntry> centralEntries;
+    private final Set<String> names;
+    private final ByteBuffer header;
+
+    public ReproducibleZipWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+        );
+        this.centralEntries = new ArrayList<>();
+        this.names = new HashSet<>();
+        this.header = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Whether an entry with the given name has been written already.
+     *
+     * @param name the entry name
+     * @return true if the name is taken
+     */
+    public boolean contains(String name) {
+        return names.contains(name);
+    }
+
+    /**
+     * Write a directory entry.
+     *
+     * @param name the directory name, ending with a slash
+     * @throws IOException if writing fails
+     */
+    public void addDirectory(String name) throws IOException {
+        addEntry(name, STORED, 0, 0, 0, ByteBuffer.allocate(0));
+    }
+
+    /**
+     * Write an entry from its compressed data.
+     *
+     * @param name           the entry name
+     * @param method         {@link #STORED} or {@link #DEFLATED}
+     * @param crc            the CRC-32 of the uncompressed data
+     * @param size           the uncompressed size
+     * @param compressedSize the size of the data
+     * @param data           the entry data as stored in the archive, consumed entirely
+     * @throws IOException if writing fails
+     */
+    public void addEntry(String name, int method, int crc, long size, long compressedSize, ByteBuffer data) throws IOException {
+        if (!names.add(name)) {
+            throw new IOException("Duplicate zip entry " + name);
+        }
+
+        var offset = channel.position();
+        if (offset > MAX_ZIP32_VALUE || size > MAX_ZIP32_VALUE || compressedSize > MAX_ZIP32_VALUE) {
+            throw new IOException("Zip entry " + name + " exceeds 4 GiB, ZIP64 archives are not supported");
+        }
+
+        var nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        header.clear();
+        header.putInt(LOCAL_FILE_HEADER_SIGNATURE);
+        header.putShort((short) VERSION);
+        header.putShort((short) UTF8_FLAG);
+        header.putShort((short) method);
+        header.putShort((short) DOS_TIME);
+        header.putShort((short) DOS_DATE);
+        header.putInt(crc);
+        header.putInt((int) compressedSize);
+        header.putInt((int) size);
+        header.putShort((short) nameBytes.length);
+        header.putShort((short) 0);
+        header.put(nameBytes);
+        writeFully(header.flip());
+        writeFully(data);
+
+        centralEntries.add(new CentralEntry(nameBytes, method, crc, size, compressedSize, offset));
+    }
+
+    /**
+     * Copy the entry data of another archive into this one.
+     *
+     * @param source the channel of the source archive
+     * @param entry  the entry of the source archive
+     * @throws IOException if reading or writing fails
+     */
+    public void copyEntry(FileChannel source, ZipCentralDirectory.Entry entry) throws IOException {
+        // Name and extra field lengths of the local header may differ from the central directory
+        var localHeader = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+        source.read(localHeader, entry.localHeaderOffset());
+        var dataOffset = entry.localHeaderOffset() + 30 +
+                Short.toUnsignedInt(localHeader.getShort(26)) +
+                Short.toUnsignedInt(localHeader.getShort(28));
+
+        var data = source.map(FileChannel.MapMode.READ_ONLY, dataOffset, entry.compressedSize());
+        addEntry(entry.name(), entry.method(), entry.crc(), entry.size(), entry.compressedSize(), data);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            if (centralEntries.size() > MAX_ZIP32_ENTRIES) {
+                throw new IOException("Zip has more than " + MAX_ZIP32_ENTRIES + " entries, ZIP64 archives are not supported");
+            }
+
+            var directoryOffset = channel.position();
+            for (var entry : centralEntries) {
+                header.clear();
+                header.putInt(CENTRAL_FILE_HEADER_SIGNATURE);
+                header.putShort((short) VERSION);
+                header.putShort((short) VERSION);
+                header.putShort((short) UTF8_FLAG);
+                header.putShort((short) entry.method());
+                header.putShort((short) DOS_TIME);
+                header.putShort((short) DOS_DATE);
+                header.putInt(entry.crc());
+                header.putInt((int) entry.compressedSize());
+                header.putInt((int) entry.size());
+                header.putShort((short) entry.name().length);
+                header.putShort((short) 0); // Extra field length
+                header.putShort((short) 0); // Comment length
+                header.putShort((short) 0); // Disk number
+                header.putShort((short) 0); // Internal attributes
+                header.putInt(0);           // External attributes
+                header.putInt((int) entry.localHeaderOffset());
+                header.put(entry.name());
+                writeFully(header.flip());
+            }
+
+            var directorySize = channel.position() - directoryOffset;
+            if (directoryOffset > MAX_ZIP32_VALUE) {
+                throw new IOException("Zip exceeds 4 GiB, ZIP64 archives are not supported");
+            }
+
+            header.clear();
+            header.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+            header.putShort((short) 0);
+            header.putShort((short) 0);
+            header.putShort((short) centralEntries.size());
+            header.putShort((short) centralEntries.size());
+            header.putInt((int) directorySize);
+            header.putInt((int) directoryOffset);
+            header.putShort((short) 0);
+            writeFully(header.flip());
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private record CentralEntry(byte[] name, int method, int crc, long size, long compressedSize, long localHeaderOffset) {
+    }
+}
@@ -0,0 +1,211 @@
+package net.janrupf.gradle.hytale.dev.assets;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Reads the central directory of a zip file through a memory mapping.
+ * <p>
+ * Only the end of the file and the central directory are touched, so listing the entries of a
+ * multi gigabyte archive costs a few megabytes of page cache instead of a scan over the whole
+ * file. ZIP64 archives are supported.
+ */
+public class ZipCentralDirectory {
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int CENTRAL_FILE_HEADER_SIZE = 46;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final int ZIP64_EXTRA_FIELD_ID = 0x0001;
+
+    private final String hash;
+    private final List<Entry> entries;
+
+    private ZipCentralDirectory(String hash, List<Entry> entries) {
+        this.hash = hash;
+        this.entries = entries;
+    }
+
+    /**
+     * Read the central directory of a zip file.
+     *
+     * @param zipFile the zip file to read
+     * @return the central directory
+     * @throws IOException if the file can not be read or is not a zip file
+     */
+    public static ZipCentralDirectory read(Path zipFile) throws IOException {
+        try (var channel = FileChannel.open(zipFile, StandardOpenOption.READ)) {
+            var fileSize = channel.size();
+
+            var tailSize = (int) Math.min(fileSize, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_LENGTH);
+            var tailOffset = fileSize - tailSize;
+            var tail = map(channel, tailOffset, tailSize);
+
+            var endPosition = findEndOfCentralDirectory(tail);
+            if (endPosition < 0) {
+                throw new IOException(zipFile + " is not a zip file, no end of central directory found");
+            }
+
+            long entryCount = Short.toUnsignedLong(tail.getShort(endPosition + 10));
+            long directorySize = Integer.toUnsignedLong(tail.getInt(endPosition + 12));
+            long directoryOffset = Integer.toUnsignedLong(tail.getInt(endPosition + 16));
+
+            var locatorPosition = tailOffset + endPosition - ZIP64_LOCATOR_SIZE;
+            if (locatorPosition >= 0) {
+                var locator = map(channel, locatorPosition, ZIP64_LOCATOR_SIZE);
+                if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+                    var zip64End = map(channel, locator.getLong(8), 56);
+                    if (zip64End.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                        throw new IOException(zipFile + " has a broken ZIP64 end of central directory");
+                    }
+
+                    entryCount = zip64End.getLong(32);
+                    directorySize = zip64End.getLong(40);
+                    directoryOffset = zip64End.getLong(48);
+                }
+            }
+
+            if (directoryOffset + directorySize > fileSize || directorySize > Integer.MAX_VALUE) {
+                throw new IOException(zipFile + " has a central directory outside of the file");
+            }
+
+            var directory = map(channel, directoryOffset, (int) directorySize);
+            return new ZipCentralDirectory(hash(directory, fileSize), readEntries(zipFile, directory, entryCount));
+        }
+    }
+
+    /**
+     * A hash over the central directory.
+     * <p>
+     * The central directory contains the name, sizes and CRC of every entry, which makes this a
+     * fingerprint of the content that does not require reading the whole archive.
+     *
+     * @return the hex encoded SHA-256 of the central directory and the archive size
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * The file entries of the archive in central directory order, directories excluded.
+     *
+     * @return the entries
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long offset, int size) throws IOException {
+        var buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer tail) {
+        // The record is followed by a variable length comment, scan backwards for the signature
+        for (int position = tail.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; position >= 0; position--) {
+            if (tail.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE &&
+                    position + END_OF_CENTRAL_DIRECTORY_SIZE + Short.toUnsignedInt(tail.getShort(position + 20)) == tail.limit()) {
+                return position;
+            }
+        }
+
+        return -1;
+    }
+
+    private static List<Entry> readEntries(Path zipFile, ByteBuffer directory, long entryCount) throws IOException {
+        var entries = new ArrayList<Entry>((int) Math.min(entryCount, 1 << 20));
+
+        int position = 0;
+        while (position + CENTRAL_FILE_HEADER_SIZE <= directory.limit()) {
+            if (directory.getInt(position) != CENTRAL_FILE_HEADER_SIGNATURE) {
+                throw new IOException(zipFile + " has a broken central directory entry at offset " + position);
+            }
+
+            int method = Short.toUnsignedInt(directory.getShort(position + 10));
+            int crc = directory.getInt(position + 16);
+            long compressedSize = Integer.toUnsignedLong(directory.getInt(position + 20));
+            long size = Integer.toUnsignedLong(directory.getInt(position + 24));
+            int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+            int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(directory.getInt(position + 42));
+
+            var nameBytes = new byte[nameLength];
+            directory.get(position + CENTRAL_FILE_HEADER_SIZE, nameBytes);
+            var name = new String(nameBytes, StandardCharsets.UTF_8);
+
+            // Values which do not fit into 32 bits are moved into the ZIP64 extra field, in this order
+            int extra = position + CENTRAL_FILE_HEADER_SIZE + nameLength;
+            int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = Short.toUnsignedInt(directory.getShort(extra));
+                int length = Short.toUnsignedInt(directory.getShort(extra + 2));
+
+                if (id == ZIP64_EXTRA_FIELD_ID) {
+                    int value = extra + 4;
+                    if (size == 0xFFFFFFFFL) {
+                        size = directory.getLong(value);
+                        value += 8;
+                    }
+                    if (compressedSize == 0xFFFFFFFFL) {
+                        compressedSize = directory.getLong(value);
+                        value += 8;
+                    }
+                    if (localHeaderOffset == 0xFFFFFFFFL) {
+                        localHeaderOffset = directory.getLong(value);
+                    }
+                }
+
+                extra += 4 + length;
+            }
+
+            if (!name.endsWith("/")) {
+                entries.add(new Entry(name, localHeaderOffset, compressedSize, size, crc, method));
+            }
+
+            position = extraEnd + commentLength;
+        }
+
+        return entries;
+    }
+
+    private static String hash(ByteBuffer directory, long fileSize) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(directory.duplicate());
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, fileSize));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A file entry of the central directory.
+     *
+     * @param name              the entry name
+     * @param localHeaderOffset the offset of the local file header within the archive
+     * @param compressedSize    the compressed size in bytes
+     * @param size              the uncompressed size in bytes
+     * @param crc               the CRC-32 of the uncompressed data
+     * @param method            the compression method, 0 for stored and 8 for deflated
+     */
+    public record Entry(String name, long localHeaderOffset, long compressedSize, long size, int crc, int method) {
+    }
+}
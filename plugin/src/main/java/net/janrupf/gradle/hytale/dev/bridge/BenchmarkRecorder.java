@@ -0,0 +1,266 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.AgentMessage;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.JvmTelemetry;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.ServerState;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.StartupProfile;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.TickMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Collects the metrics a server sends over the bridge during a benchmark.
+ * <p>
+ * Startup profiles and server state changes are always recorded, tick metrics and JVM telemetry
+ * only while measuring, so ticks of the startup and shutdown do not skew the results. Tick metrics
+ * are only sent by servers running with the tick profiler enabled.
+ */
+public class BenchmarkRecorder implements Consumer<AgentMessage> {
+    private final CompletableFuture<Void> ready;
+    private final Map<String, LoopSamples> loops;
+    private final Map<String, long[]> systems;
+
+    private StartupProfile startupProfile;
+    private boolean measuring;
+    private long measureStartNanos;
+    private long measuredNanos;
+    private long droppedTicks;
+
+    private int telemetrySamples;
+    private long peakHeapUsed;
+    private long gcCollections;
+    private long gcTimeMillis;
+    private double cpuLoadSum;
+    private int cpuLoadSamples;
+
+    public BenchmarkRecorder() {
+        this.ready = new CompletableFuture<>();
+        this.loops = new LinkedHashMap<>();
+        this.systems = new HashMap<>();
+    }
+
+    /**
+     * Completes once the server reported that it is ready.
+     *
+     * @return the ready future
+     */
+    public CompletableFuture<Void> getReady() {
+        return ready;
+    }
+
+    /**
+     * Start recording tick metrics and JVM telemetry.
+     */
+    public synchronized void startMeasuring() {
+        measuring = true;
+        measureStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Stop recording tick metrics and JVM telemetry.
+     */
+    public synchronized void stopMeasuring() {
+        if (measuring) {
+            measuring = false;
+            measuredNanos += System.nanoTime() - measureStartNanos;
+        }
+    }
+
+    @Override
+    public synchronized void accept(AgentMessage message) {
+        switch (message.getPayloadCase()) {
+            case SERVER_STATE -> {
+                if (message.getServerState().getState() == ServerState.SERVER_STATE_READY) {
+                    ready.complete(null);
+                }
+            }
+            case STARTUP_PROFILE -> startupProfile = message.getStartupProfile();
+            case TICK_METRICS -> {
+                if (measuring) {
+                    record(message.getTickMetrics());
+                }
+            }
+            case JVM_TELEMETRY -> {
+                if (measuring) {
+                    record(message.getJvmTelemetry());
+                }
+            }
+            default -> {
+                // Not part of the report
+            }
+        }
+    }
+
+    private void record(TickMetrics metrics) {
+        var loopNames = metrics.getLoopsList();
+        for (var tick : metrics.getTicksList()) {
+            var name = tick.getLoop() < loopNames.size() ? loopNames.get(tick.getLoop()) : "loop-" + tick.getLoop();
+            loops.computeIfAbsent(name, (ignored) -> new LoopSamples()).add(tick.getDurationNanos(), tick.getAllocatedBytes());
+        }
+
+        for (var system : metrics.getSystemsList()) {
+            var totals = systems.computeIfAbsent(system.getName(), (ignored) -> new long[2]);
+            totals[0] += system.getNanos();
+            totals[1] += system.getCalls();
+        }
+
+        droppedTicks += metrics.getDroppedTicks();
+    }
+
+    private void record(JvmTelemetry telemetry) {
+        telemetrySamples++;
+
+        long heapUsed = 0;
+        for (var pool : telemetry.getMemoryPoolsList()) {
+            if (pool.getHeap()) {
+                heapUsed += pool.getUsed();
+            }
+        }
+        peakHeapUsed = Math.max(peakHeapUsed, heapUsed);
+
+        for (var collector : telemetry.getGarbageCollectorsList()) {
+            gcCollections += collector.getCollections();
+            gcTimeMillis += collector.getTimeMillis();
+        }
+
+        if (telemetry.getProcessCpuLoad() >= 0) {
+            cpuLoadSum += telemetry.getProcessCpuLoad();
+            cpuLoadSamples++;
+        }
+    }
+
+    /**
+     * The startup section of the report.
+     *
+     * @return the startup profile as report values, empty if the server sent none
+     */
+    public synchronized Map<String, Object> startupReport() {
+        var out = new LinkedHashMap<String, Object>();
+        if (startupProfile == null) {
+            return out;
+        }
+
+        out.put("classesLoaded", startupProfile.getClassesLoaded());
+        out.put("classLoadMillis", millis(startupProfile.getClassLoadNanos()));
+        out.put("classTransformMillis", millis(startupProfile.getClassTransformNanos()));
+
+        var phases = new ArrayList<Map<String, Object>>();
+        for (var phase : startupProfile.getPhasesList()) {
+            var entry = new LinkedHashMap<String, Object>();
+            entry.put("name", phase.getName());
+            entry.put("endMillis", millis(phase.getEndNanos()));
+            entry.put("millis", millis(phase.getDurationNanos()));
+            phases.add(entry);
+        }
+        out.put("phases", phases);
+
+        return out;
+    }
+
+    /**
+     * The tick section of the report.
+     *
+     * @return tick time percentiles per loop and the time spent per system
+     */
+    public synchronized Map<String, Object> ticksReport() {
+        var out = new LinkedHashMap<String, Object>();
+        out.put("measuredMillis", millis(measuredNanos));
+        out.put("droppedTicks", droppedTicks);
+
+        var loopReports = new ArrayList<Map<String, Object>>();
+        loops.forEach((name, samples) -> loopReports.add(samples.report(name)));
+        out.put("loops", loopReports);
+
+        var systemReports = new ArrayList<Map<String, Object>>();
+        systems.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .forEach((entry) -> {
+                    var totals = entry.getValue();
+                    var system = new LinkedHashMap<String, Object>();
+                    system.put("name", entry.getKey());
+                    system.put("totalMillis", millis(totals[0]));
+                    system.put("calls", totals[1]);
+                    system.put("meanMicros", totals[1] == 0 ? 0.0 : round(totals[0] / 1_000.0 / totals[1]));
+                    systemReports.add(system);
+                });
+        out.put("systems", systemReports);
+
+        return out;
+    }
+
+    /**
+     * The JVM section of the report.
+     *
+     * @return heap, garbage collection and CPU usage while measuring
+     */
+    public synchronized Map<String, Object> jvmReport() {
+        var out = new LinkedHashMap<String, Object>();
+        out.put("samples", telemetrySamples);
+        out.put("peakHeapUsedBytes", peakHeapUsed);
+        out.put("gcCollections", gcCollections);
+        out.put("gcTimeMillis", gcTimeMillis);
+        out.put("meanProcessCpuLoad", cpuLoadSamples == 0 ? -1.0 : round(cpuLoadSum / cpuLoadSamples));
+        return out;
+    }
+
+    /**
+     * Convert nanoseconds to milliseconds, rounded to microseconds.
+     *
+     * @param nanos the nanoseconds
+     * @return the milliseconds
+     */
+    public static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1_000.0) / 1_000.0;
+    }
+
+    private static final class LoopSamples {
+        private long[] durations = new long[1024];
+        private int count;
+        private long allocatedBytes;
+
+        void add(long durationNanos, long allocated) {
+            if (count == durations.length) {
+                durations = Arrays.copyOf(durations, count * 2);
+            }
+            durations[count++] = durationNanos;
+            allocatedBytes += allocated;
+        }
+
+        Map<String, Object> report(String name) {
+            var sorted = Arrays.copyOf(durations, count);
+            Arrays.sort(sorted);
+
+            long total = 0;
+            for (var duration : sorted) {
+                total += duration;
+            }
+
+            var out = new LinkedHashMap<String, Object>();
+            out.put("name", name);
+            out.put("ticks", count);
+            out.put("meanMillis", millis(total / count));
+            out.put("p50Millis", millis(percentile(sorted, 0.50)));
+            out.put("p95Millis", millis(percentile(sorted, 0.95)));
+            out.put("p99Millis", millis(percentile(sorted, 0.99)));
+            out.put("maxMillis", millis(sorted[count - 1]));
+            out.put("meanAllocatedBytes", allocatedBytes / count);
+            return out;
+        }
+
+        private static long percentile(long[] sorted, double fraction) {
+            // Nearest rank
+            var rank = (int) Math.ceil(fraction * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
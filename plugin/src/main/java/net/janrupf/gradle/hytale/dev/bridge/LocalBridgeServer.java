@@ -0,0 +1,274 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.AgentMessage;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.IdeHello;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.IdeMessage;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.handshake.ServerHandshakeBuilder;
+import org.java_websocket.server.WebSocketServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The IDE side of the bridge, hosted by Gradle.
+ * <p>
+ * Servers started with {@link #getEnvironment()} in their environment connect their bridge to
+ * this server instead of the IDE. The server only listens on the loopback interface, on a free
+ * port, and only accepts connections presenting the randomly generated token. Every message the
+ * bridge sends is passed to the listener on the socket thread, so listeners must not block.
+ * <p>
+ * Only one bridge is connected at a time, a reconnecting bridge replaces the previous connection.
+ */
+public class LocalBridgeServer extends WebSocketServer implements AutoCloseable {
+    public static final String PORT_ENV_VARIABLE = "HYTALE_DEV_BRIDGE_PORT";
+    public static final String TOKEN_ENV_VARIABLE = "HYTALE_DEV_BRIDGE_TOKEN";
+
+    private static final String PATH = "/hytale-dev-bridge";
+    private static final int PROTOCOL_VERSION = 1;
+    private static final String PLUGIN_VERSION = "gradle";
+    private static final long START_TIMEOUT_SECONDS = 10;
+    private static final int STOP_TIMEOUT_MILLIS = 1000;
+    private static final Logger LOGGER = Logging.getLogger(LocalBridgeServer.class);
+
+    private final String token;
+    private final Consumer<AgentMessage> listener;
+    private final CountDownLatch started;
+    private final Map<Long, CompletableFuture<AgentMessage>> pendingRequests;
+    private final AtomicLong nextRequestId;
+
+    private volatile WebSocket agent;
+    private volatile Exception startFailure;
+
+    /**
+     * Create a bridge server, call {@link #startAndWait()} to start listening.
+     *
+     * @param listener receives every message sent by the bridge
+     */
+    public LocalBridgeServer(Consumer<AgentMessage> listener) {
+        super(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        this.token = generateToken();
+        this.listener = listener;
+        this.started = new CountDownLatch(1);
+        this.pendingRequests = new ConcurrentHashMap<>();
+        this.nextRequestId = new AtomicLong(1);
+
+        setReuseAddr(true);
+        setTcpNoDelay(true);
+        setConnectionLostTimeout(30);
+    }
+
+    private static String generateToken() {
+        var bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Start listening and wait until the port is bound.
+     *
+     * @throws IOException if the server could not be started
+     */
+    public void startAndWait() throws IOException {
+        start();
+
+        try {
+            if (!started.await(START_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IOException("Bridge server did not start within " + START_TIMEOUT_SECONDS + " seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while starting the bridge server", e);
+        }
+
+        if (startFailure != null) {
+            throw new IOException("Failed to start the bridge server", startFailure);
+        }
+    }
+
+    /**
+     * The environment variables pointing the bridge of a server at this server.
+     *
+     * @return the port and token variables
+     */
+    public Map<String, String> getEnvironment() {
+        return Map.of(
+                PORT_ENV_VARIABLE, Integer.toString(getPort()),
+                TOKEN_ENV_VARIABLE, token
+        );
+    }
+
+    /**
+     * Whether a bridge is currently connected.
+     *
+     * @return true if connected
+     */
+    public boolean isConnected() {
+        var current = agent;
+        return current != null && current.isOpen();
+    }
+
+    /**
+     * Send a message to the connected bridge, without waiting for a response.
+     *
+     * @param message the message to send
+     * @return true if the message was sent, false if no bridge is connected
+     */
+    public boolean send(IdeMessage message) {
+        var current = agent;
+        if (current == null) {
+            return false;
+        }
+
+        try {
+            current.send(message.toByteArray());
+            return true;
+        } catch (WebsocketNotConnectedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Send a request to the connected bridge and wait for the response asynchronously.
+     * <p>
+     * A request id is assigned to the message. The returned future fails if no bridge is
+     * connected or the connection is lost before the response arrives.
+     *
+     * @param message the request, without request id
+     * @return the response
+     */
+    public CompletableFuture<AgentMessage> request(IdeMessage.Builder message) {
+        var requestId = nextRequestId.getAndIncrement();
+        var response = new CompletableFuture<AgentMessage>();
+        pendingRequests.put(requestId, response);
+
+        if (!send(message.setRequestId(requestId).build())) {
+            pendingRequests.remove(requestId);
+            response.completeExceptionally(new IOException("The bridge is not connected"));
+        }
+
+        return response;
+    }
+
+    @Override
+    public ServerHandshakeBuilder onWebsocketHandshakeReceivedAsServer(
+            WebSocket connection,
+            Draft draft,
+            ClientHandshake request
+    ) throws InvalidDataException {
+        if (!request.getResourceDescriptor().equals(PATH)) {
+            throw new InvalidDataException(CloseFrame.POLICY_VALIDATION, "Unknown path " + request.getResourceDescriptor());
+        }
+
+        // Constant time comparison, the port is reachable by every local process
+        var expected = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+        var actual = request.getFieldValue("Authorization").getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new InvalidDataException(CloseFrame.POLICY_VALIDATION, "Invalid token");
+        }
+
+        return super.onWebsocketHandshakeReceivedAsServer(connection, draft, request);
+    }
+
+    @Override
+    public void onStart() {
+        started.countDown();
+    }
+
+    @Override
+    public void onOpen(WebSocket connection, ClientHandshake handshake) {
+        var previous = agent;
+        agent = connection;
+        if (previous != null && previous != connection) {
+            previous.close(CloseFrame.NORMAL, "Replaced by a new connection");
+        }
+
+        connection.send(IdeMessage.newBuilder()
+                .setHello(IdeHello.newBuilder()
+                        .setProtocolVersion(PROTOCOL_VERSION)
+                        .setPluginVersion(PLUGIN_VERSION))
+                .build()
+                .toByteArray());
+    }
+
+    @Override
+    public void onMessage(WebSocket connection, ByteBuffer bytes) {
+        AgentMessage message;
+        try {
+            message = AgentMessage.parseFrom(bytes);
+        } catch (IOException e) {
+            LOGGER.warn("Received invalid message from the bridge", e);
+            return;
+        }
+
+        if (message.getRequestId() != 0) {
+            var response = pendingRequests.remove(message.getRequestId());
+            if (response != null) {
+                response.complete(message);
+            }
+        }
+
+        listener.accept(message);
+    }
+
+    @Override
+    public void onMessage(WebSocket connection, String message) {
+        // The bridge only sends binary messages
+    }
+
+    @Override
+    public void onClose(WebSocket connection, int code, String reason, boolean remote) {
+        if (connection != agent) {
+            return;
+        }
+
+        agent = null;
+
+        // Requests are not answered over a new connection
+        var failure = new IOException(reason.isEmpty() ? "The bridge disconnected" : "The bridge disconnected: " + reason);
+        pendingRequests.values().forEach((response) -> response.completeExceptionally(failure));
+        pendingRequests.clear();
+    }
+
+    @Override
+    public void onError(WebSocket connection, Exception error) {
+        if (connection == null) {
+            // Errors without a connection come from the server socket, e.g. failing to bind
+            startFailure = error;
+            started.countDown();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            stop(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        var failure = new IOException("The bridge server was closed");
+        pendingRequests.values().forEach((response) -> response.completeExceptionally(failure));
+        pendingRequests.clear();
+    }
+}
@@ -0,0 +1,105 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.LogEvent;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.LogLevel;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats log events sent over the bridge for the terminal.
+ * <p>
+ * Every event is rendered as one line with time, level, logger and message, followed by the stack
+ * trace if there is one. With colors enabled the line is colored by level using ANSI escapes.
+ */
+public class LogRenderer {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private static final String RESET = "\u001B[0m";
+    private static final String RED = "\u001B[31m";
+    private static final String BOLD_RED = "\u001B[1;31m";
+    private static final String YELLOW = "\u001B[33m";
+    private static final String GRAY = "\u001B[90m";
+
+    private final boolean colors;
+
+    public LogRenderer(boolean colors) {
+        this.colors = colors;
+    }
+
+    /**
+     * Render a log event.
+     *
+     * @param event the event
+     * @return the rendered event, terminated by a line separator
+     */
+    public String render(LogEvent event) {
+        var out = new StringBuilder();
+        var color = colors ? color(event.getLevel()) : null;
+        if (color != null) {
+            out.append(color);
+        }
+
+        out.append(TIME_FORMAT.format(Instant.ofEpochMilli(event.getTimestamp())))
+                .append(' ')
+                .append(String.format("%-7s", levelName(event.getLevel())))
+                .append(' ');
+        if (!event.getInstance().isEmpty()) {
+            out.append('[').append(event.getInstance()).append("] ");
+        }
+        if (!event.getLoggerName().isEmpty()) {
+            out.append('[').append(event.getLoggerName()).append("] ");
+        }
+        out.append(event.getMessage());
+
+        if (!event.getThrowable().isEmpty()) {
+            out.append(System.lineSeparator()).append(event.getThrowable().stripTrailing());
+        }
+
+        if (color != null) {
+            out.append(RESET);
+        }
+
+        return out.append(System.lineSeparator()).toString();
+    }
+
+    /**
+     * Render a message of the Gradle side of the bridge, such as a failed command.
+     *
+     * @param message the message
+     * @param error   whether the message reports an error
+     * @return the rendered message, terminated by a line separator
+     */
+    public String renderNotice(String message, boolean error) {
+        var line = "[HytaleDev] " + message;
+        if (colors) {
+            line = (error ? RED : GRAY) + line + RESET;
+        }
+
+        return line + System.lineSeparator();
+    }
+
+    private static String color(LogLevel level) {
+        return switch (level) {
+            case LOG_LEVEL_FATAL -> BOLD_RED;
+            case LOG_LEVEL_ERROR -> RED;
+            case LOG_LEVEL_WARNING -> YELLOW;
+            case LOG_LEVEL_DEBUG, LOG_LEVEL_TRACE -> GRAY;
+            default -> null;
+        };
+    }
+
+    private static String levelName(LogLevel level) {
+        return switch (level) {
+            case LOG_LEVEL_TRACE -> "TRACE";
+            case LOG_LEVEL_DEBUG -> "DEBUG";
+            case LOG_LEVEL_INFO -> "INFO";
+            case LOG_LEVEL_WARNING -> "WARN";
+            case LOG_LEVEL_ERROR -> "ERROR";
+            case LOG_LEVEL_FATAL -> "FATAL";
+            default -> "?";
+        };
+    }
+}
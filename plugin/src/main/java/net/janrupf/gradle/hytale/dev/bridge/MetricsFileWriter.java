@@ -0,0 +1,193 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.JvmTelemetry;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.StartupProfile;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.TickMetrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the metrics a server sends over the bridge to CSV files.
+ * <p>
+ * The files of a previous run are deleted when the writer is created, every file is written once
+ * the first matching message arrives and flushed after every message, so the files can be followed
+ * while the server is running:
+ * <ul>
+ *     <li>{@code startup.csv}, the startup phases</li>
+ *     <li>{@code ticks.csv}, every tick of the instrumented tick loops</li>
+ *     <li>{@code systems.csv}, the time spent per system in every metrics interval</li>
+ *     <li>{@code telemetry.csv}, heap, GC, thread and CPU usage</li>
+ *     <li>{@code commands.csv}, the console commands executed over the bridge</li>
+ * </ul>
+ * Not thread safe.
+ */
+public class MetricsFileWriter implements AutoCloseable {
+    private static final List<String> FILE_NAMES = List.of(
+            "startup.csv", "ticks.csv", "systems.csv", "telemetry.csv", "commands.csv"
+    );
+
+    private final Path directory;
+    private final Map<String, BufferedWriter> writers;
+
+    public MetricsFileWriter(Path directory) throws IOException {
+        this.directory = directory;
+        this.writers = new HashMap<>();
+
+        Files.createDirectories(directory);
+        for (var fileName : FILE_NAMES) {
+            Files.deleteIfExists(directory.resolve(fileName));
+        }
+    }
+
+    /**
+     * Record the startup profile.
+     *
+     * @param profile the profile
+     * @throws IOException if the file can not be written
+     */
+    public void record(StartupProfile profile) throws IOException {
+        var writer = writer("startup.csv", "phase,end_ms,duration_ms");
+        for (var phase : profile.getPhasesList()) {
+            writer.write(quote(phase.getName()) + ',' +
+                    BenchmarkRecorder.millis(phase.getEndNanos()) + ',' +
+                    BenchmarkRecorder.millis(phase.getDurationNanos()) + '\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Record the ticks and system times of a metrics interval.
+     *
+     * @param metrics  the metrics
+     * @param received when the metrics were received, in epoch milliseconds
+     * @throws IOException if the files can not be written
+     */
+    public void record(TickMetrics metrics, long received) throws IOException {
+        var loopNames = metrics.getLoopsList();
+
+        var ticks = writer("ticks.csv", "loop,end_nanos,duration_nanos,allocated_bytes");
+        for (var tick : metrics.getTicksList()) {
+            var loop = tick.getLoop() < loopNames.size() ? loopNames.get(tick.getLoop()) : "loop-" + tick.getLoop();
+            ticks.write(quote(loop) + ',' +
+                    tick.getEndNanos() + ',' +
+                    tick.getDurationNanos() + ',' +
+                    tick.getAllocatedBytes() + '\n');
+        }
+        ticks.flush();
+
+        var systems = writer("systems.csv", "received,system,nanos,calls");
+        for (var system : metrics.getSystemsList()) {
+            systems.write(Instant.ofEpochMilli(received) + "," +
+                    quote(system.getName()) + ',' +
+                    system.getNanos() + ',' +
+                    system.getCalls() + '\n');
+        }
+        systems.flush();
+    }
+
+    /**
+     * Record a JVM telemetry sample.
+     *
+     * @param telemetry the sample
+     * @throws IOException if the file can not be written
+     */
+    public void record(JvmTelemetry telemetry) throws IOException {
+        long heapUsed = 0;
+        long heapCommitted = 0;
+        long nonHeapUsed = 0;
+        for (var pool : telemetry.getMemoryPoolsList()) {
+            if (pool.getHeap()) {
+                heapUsed += pool.getUsed();
+                heapCommitted += pool.getCommitted();
+            } else {
+                nonHeapUsed += pool.getUsed();
+            }
+        }
+
+        long gcCollections = 0;
+        long gcTimeMillis = 0;
+        for (var collector : telemetry.getGarbageCollectorsList()) {
+            gcCollections += collector.getCollections();
+            gcTimeMillis += collector.getTimeMillis();
+        }
+
+        var writer = writer("telemetry.csv", "timestamp,heap_used,heap_committed,non_heap_used," +
+                "gc_collections,gc_time_ms,threads_live,process_cpu_load,system_cpu_load,allocation_rate");
+        writer.write(Instant.ofEpochMilli(telemetry.getTimestamp()) + "," +
+                heapUsed + ',' +
+                heapCommitted + ',' +
+                nonHeapUsed + ',' +
+                gcCollections + ',' +
+                gcTimeMillis + ',' +
+                telemetry.getThreads().getLive() + ',' +
+                telemetry.getProcessCpuLoad() + ',' +
+                telemetry.getSystemCpuLoad() + ',' +
+                telemetry.getAllocationRate() + '\n');
+        writer.flush();
+    }
+
+    /**
+     * Record a console command executed over the bridge.
+     *
+     * @param completed     when the command completed, in epoch milliseconds
+     * @param command       the command
+     * @param durationNanos how long the server took to execute it
+     * @param error         the error, empty if the command succeeded
+     * @throws IOException if the file can not be written
+     */
+    public void recordCommand(long completed, String command, long durationNanos, String error) throws IOException {
+        var writer = writer("commands.csv", "completed,command,duration_ms,error");
+        writer.write(Instant.ofEpochMilli(completed) + "," +
+                quote(command) + ',' +
+                BenchmarkRecorder.millis(durationNanos) + ',' +
+                quote(error) + '\n');
+        writer.flush();
+    }
+
+    private BufferedWriter writer(String fileName, String header) throws IOException {
+        var writer = writers.get(fileName);
+        if (writer == null) {
+            writer = Files.newBufferedWriter(directory.resolve(fileName));
+            writer.write(header + '\n');
+            writers.put(fileName, writer);
+        }
+
+        return writer;
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') == -1 && value.indexOf('"') == -1 && value.indexOf('\n') == -1) {
+            return value;
+        }
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (var writer : writers.values()) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        writers.clear();
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
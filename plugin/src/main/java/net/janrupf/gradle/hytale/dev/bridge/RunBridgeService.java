@@ -0,0 +1,64 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Owns the bridge sessions of the {@code run<Name>} tasks.
+ * <p>
+ * Sessions are opened when a run task starts and finished when it completes. A run task which
+ * fails or is cancelled does not finish its session, it is closed together with this service at
+ * the end of the build instead, so no bridge server outlives the build in the daemon.
+ */
+public abstract class RunBridgeService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+    public static final String NAME = "hytaleDevRunBridge";
+
+    private final Map<String, RunBridgeSession> sessions = new HashMap<>();
+
+    /**
+     * Open the session of a task, replacing a previous one.
+     *
+     * @param taskPath         the path of the run task
+     * @param metricsDirectory the directory the metrics are written to
+     * @param consoleLogFile   the file the raw output of the server is written to
+     * @param colors           whether log events are colored
+     * @return the session
+     */
+    public synchronized RunBridgeSession open(String taskPath, File metricsDirectory, File consoleLogFile, boolean colors) {
+        finish(taskPath);
+
+        RunBridgeSession session;
+        try {
+            session = new RunBridgeSession(metricsDirectory.toPath(), consoleLogFile.toPath(), colors);
+        } catch (IOException e) {
+            throw new GradleException("Failed to start the bridge server for " + taskPath, e);
+        }
+
+        sessions.put(taskPath, session);
+        return session;
+    }
+
+    /**
+     * Close the session of a task, if any.
+     *
+     * @param taskPath the path of the run task
+     */
+    public synchronized void finish(String taskPath) {
+        var session = sessions.remove(taskPath);
+        if (session != null) {
+            session.close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        sessions.values().forEach(RunBridgeSession::close);
+        sessions.clear();
+    }
+}
@@ -0,0 +1,304 @@
+package net.janrupf.gradle.hytale.dev.bridge;
+
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.AgentMessage;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.ExecuteCommandRequest;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.IdeMessage;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.ServerState;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The bridge of a single {@code run<Name>} execution, hosted by Gradle.
+ * <p>
+ * Until the bridge of the server connects the output of the server is shown as is. Once it is
+ * connected the log events sent over the bridge are rendered instead, colored by level, and the
+ * raw output is only written to the console log file. Lines typed into the console are executed as
+ * commands over the bridge, which reports failed commands, and are written to the standard input of
+ * the server while no bridge is connected. Metrics sent by the server are written to CSV files by a
+ * {@link MetricsFileWriter}.
+ */
+public class RunBridgeSession implements Consumer<AgentMessage>, AutoCloseable {
+    private static final Logger LOGGER = Logging.getLogger(RunBridgeSession.class);
+    private static final int INPUT_PIPE_SIZE = 64 * 1024;
+
+    private final PrintStream terminal;
+    private final InputStream console;
+    private final LogRenderer renderer;
+    private final Path consoleLogFile;
+    private final OutputStream consoleLog;
+    private final MetricsFileWriter metrics;
+    private final PipedInputStream serverInput;
+    private final PipedOutputStream serverInputWriter;
+    private final LocalBridgeServer server;
+    private final Thread inputThread;
+
+    // Epoch milliseconds of the first connect, 0 while the bridge never connected
+    private volatile long connectedAt;
+    private volatile boolean closed;
+    private boolean metricsFailed;
+
+    /**
+     * Start a session, including its bridge server.
+     *
+     * @param metricsDirectory the directory the metrics are written to
+     * @param consoleLogFile   the file the raw output of the server is written to
+     * @param colors           whether log events are colored
+     * @throws IOException if the bridge server or the files could not be set up
+     */
+    public RunBridgeSession(Path metricsDirectory, Path consoleLogFile, boolean colors) throws IOException {
+        this.terminal = System.out;
+        this.console = System.in;
+        this.renderer = new LogRenderer(colors);
+        this.consoleLogFile = consoleLogFile;
+
+        Files.createDirectories(consoleLogFile.toAbsolutePath().getParent());
+        this.consoleLog = Files.newOutputStream(consoleLogFile);
+        this.metrics = new MetricsFileWriter(metricsDirectory);
+
+        this.serverInput = new PipedInputStream(INPUT_PIPE_SIZE);
+        this.serverInputWriter = new PipedOutputStream(serverInput);
+
+        this.server = new LocalBridgeServer(this);
+        try {
+            server.startAndWait();
+        } catch (IOException e) {
+            closeFiles();
+            throw e;
+        }
+
+        this.inputThread = new Thread(this::forwardInput, "HytaleDev-BridgeConsole");
+        inputThread.setDaemon(true);
+        inputThread.start();
+    }
+
+    /**
+     * The environment variables pointing the bridge of the server at this session.
+     *
+     * @return the port and token variables
+     */
+    public Map<String, String> getEnvironment() {
+        return server.getEnvironment();
+    }
+
+    /**
+     * The stream to use as standard input of the server.
+     *
+     * @return the input stream
+     */
+    public InputStream getServerInput() {
+        return serverInput;
+    }
+
+    /**
+     * The stream to use as standard output of the server.
+     *
+     * @return the output stream
+     */
+    public OutputStream getServerOutput() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                consoleLog.write(b);
+                if (connectedAt == 0) {
+                    terminal.write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                consoleLog.write(bytes, offset, length);
+                if (connectedAt == 0) {
+                    terminal.write(bytes, offset, length);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                consoleLog.flush();
+                terminal.flush();
+            }
+        };
+    }
+
+    @Override
+    public void accept(AgentMessage message) {
+        switch (message.getPayloadCase()) {
+            case HELLO -> {
+                if (connectedAt == 0) {
+                    terminal.print(renderer.renderNotice("Bridge connected, the raw server output is written to " +
+                            consoleLogFile.toAbsolutePath(), false));
+                    terminal.flush();
+                    connectedAt = System.currentTimeMillis();
+                } else {
+                    terminal.print(renderer.renderNotice("Bridge reconnected", false));
+                }
+            }
+            case LOG_EVENT -> {
+                // Earlier events are replayed from the buffer of the bridge, but were already shown as output
+                if (message.getLogEvent().getTimestamp() >= connectedAt) {
+                    terminal.print(renderer.render(message.getLogEvent()));
+                }
+            }
+            case SERVER_STATE -> {
+                if (message.getServerState().getState() == ServerState.SERVER_STATE_READY) {
+                    terminal.print(renderer.renderNotice("Server ready", false));
+                }
+            }
+            case STARTUP_PROFILE -> recordMetrics(() -> metrics.record(message.getStartupProfile()));
+            case TICK_METRICS -> recordMetrics(() -> metrics.record(message.getTickMetrics(), System.currentTimeMillis()));
+            case JVM_TELEMETRY -> recordMetrics(() -> metrics.record(message.getJvmTelemetry()));
+            default -> {
+                // Only relevant to the IDE
+            }
+        }
+    }
+
+    private void forwardInput() {
+        var line = new ByteArrayOutputStream();
+        var buffer = new byte[1024];
+
+        // The thread is interrupted when the session closes, which ends a blocking read of the
+        // console Gradle forwards to the daemon, so it never consumes input of a later build
+        try {
+            int read;
+            while ((read = console.read(buffer)) != -1) {
+                if (closed) {
+                    return;
+                }
+
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        handleLine(line.toString(StandardCharsets.UTF_8).stripTrailing());
+                        line.reset();
+                    } else {
+                        line.write(buffer[i]);
+                    }
+                }
+            }
+
+            if (line.size() > 0) {
+                // The last line of piped input may lack a line break
+                handleLine(line.toString(StandardCharsets.UTF_8).stripTrailing());
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                LOGGER.warn("Failed to forward console input to the server", e);
+            }
+        } finally {
+            // Passes the end of the console on to the server, a pipe which is not closed breaks
+            // once this thread is gone
+            closeServerInput();
+        }
+    }
+
+    private void handleLine(String line) {
+        if (!server.isConnected()) {
+            try {
+                serverInputWriter.write((line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                serverInputWriter.flush();
+            } catch (IOException e) {
+                terminal.print(renderer.renderNotice("Input dropped, the bridge is not connected and the server input is closed", true));
+            }
+            return;
+        }
+
+        var command = line.startsWith("/") ? line.substring(1) : line;
+        if (command.isBlank()) {
+            return;
+        }
+
+        server.request(IdeMessage.newBuilder().setExecuteCommand(ExecuteCommandRequest.newBuilder().setCommand(command)))
+                .whenComplete((response, failure) -> {
+                    long durationNanos = 0;
+                    String error;
+                    boolean report = true;
+                    if (failure != null) {
+                        // The connection was lost, which is expected for commands stopping the server
+                        error = failure.getMessage();
+                        report = false;
+                    } else if (response.getPayloadCase() == AgentMessage.PayloadCase.EXECUTE_COMMAND_RESPONSE) {
+                        durationNanos = response.getExecuteCommandResponse().getDurationNanos();
+                        error = response.getExecuteCommandResponse().getError();
+                    } else if (response.getPayloadCase() == AgentMessage.PayloadCase.REQUEST_REJECTED) {
+                        error = "Rejected by the server: " + response.getRequestRejected().getReason();
+                    } else {
+                        error = "Unexpected response " + response.getPayloadCase();
+                    }
+
+                    if (report && !error.isEmpty()) {
+                        terminal.print(renderer.renderNotice("Command '" + command + "' failed: " + error, true));
+                    }
+
+                    var completed = System.currentTimeMillis();
+                    var finalDurationNanos = durationNanos;
+                    recordMetrics(() -> metrics.recordCommand(completed, command, finalDurationNanos, error));
+                });
+    }
+
+    private synchronized void recordMetrics(MetricsAction action) {
+        if (metricsFailed || closed) {
+            return;
+        }
+
+        try {
+            action.record();
+        } catch (IOException e) {
+            // Warn once instead of on every message
+            metricsFailed = true;
+            LOGGER.warn("Failed to write the bridge metrics, no further metrics are recorded", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        inputThread.interrupt();
+        server.close();
+        closeServerInput();
+
+        synchronized (this) {
+            closeFiles();
+        }
+    }
+
+    private void closeServerInput() {
+        try {
+            // Ends the standard input of the server
+            serverInputWriter.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close the server input", e);
+        }
+    }
+
+    private void closeFiles() {
+        try {
+            metrics.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close the bridge metrics", e);
+        }
+
+        try {
+            consoleLog.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close the console log", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface MetricsAction {
+        void record() throws IOException;
+    }
+}
@@ -0,0 +1,118 @@
+package net.janrupf.gradle.hytale.dev.extension;
+
+import org.gradle.api.Named;
+import org.gradle.api.Project;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.jspecify.annotations.NonNull;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * A headless server run measuring startup time and tick cost.
+ * <p>
+ * The server of the run configuration is started without the IDE, with the bridge connected to
+ * Gradle instead. Once the server reports that it is ready the commands are executed one after
+ * another, tick metrics are collected for the measure duration, the server is stopped and a JSON
+ * report is written. Tick metrics require the tick profiler to be enabled on the run.
+ */
+public abstract class HytaleBenchmarkModel implements Named {
+    private final String name;
+
+    /**
+     * The name of the run configuration the server is started from.
+     *
+     * @return the run property
+     */
+    public abstract Property<String> getRun();
+
+    /**
+     * The console commands executed once the server is ready, in order.
+     *
+     * @return the commands property
+     */
+    public abstract ListProperty<String> getCommands();
+
+    /**
+     * How long to keep collecting tick metrics after the commands ran.
+     *
+     * @return the measure duration property
+     */
+    public abstract Property<Duration> getMeasureDuration();
+
+    /**
+     * How long the server may take to become ready.
+     *
+     * @return the ready timeout property
+     */
+    public abstract Property<Duration> getReadyTimeout();
+
+    /**
+     * How long a single command may take to complete.
+     *
+     * @return the command timeout property
+     */
+    public abstract Property<Duration> getCommandTimeout();
+
+    /**
+     * The console command stopping the server.
+     *
+     * @return the stop command property
+     */
+    public abstract Property<String> getStopCommand();
+
+    /**
+     * How long the server may take to stop after the stop command before it is killed.
+     *
+     * @return the shutdown timeout property
+     */
+    public abstract Property<Duration> getShutdownTimeout();
+
+    /**
+     * The JSON report to write.
+     *
+     * @return the report file property
+     */
+    public abstract RegularFileProperty getReportFile();
+
+    /**
+     * The file the output of the server is written to.
+     *
+     * @return the log file property
+     */
+    public abstract RegularFileProperty getLogFile();
+
+    @Inject
+    public HytaleBenchmarkModel(String name, Project project) {
+        this.name = name;
+
+        var benchmarksDirectory = project.getLayout().getBuildDirectory().dir("hytale-dev/benchmarks");
+
+        getRun().convention("hytaleServer");
+        getCommands().convention(Collections.emptyList());
+        getMeasureDuration().convention(Duration.ofSeconds(10));
+        getReadyTimeout().convention(Duration.ofMinutes(5));
+        getCommandTimeout().convention(Duration.ofMinutes(1));
+        getStopCommand().convention("stop");
+        getShutdownTimeout().convention(Duration.ofSeconds(30));
+        getReportFile().convention(benchmarksDirectory.map((directory) -> directory.file(name + ".json")));
+        getLogFile().convention(benchmarksDirectory.map((directory) -> directory.file(name + ".log")));
+    }
+
+    /**
+     * Add a console command to execute once the server is ready.
+     *
+     * @param command the command, without leading slash
+     */
+    public void command(String command) {
+        getCommands().add(command);
+    }
+
+    @Override
+    public @NonNull String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,82 @@
+package net.janrupf.gradle.hytale.dev.extension;
+
+import org.gradle.api.Named;
+import org.gradle.api.Project;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.jspecify.annotations.NonNull;
+
+import javax.inject.Inject;
+import java.time.Duration;
+
+/**
+ * Several servers started together from one run configuration.
+ * <p>
+ * Every instance uses the classpath, arguments and agent configuration of the run, but gets its
+ * own working directory and port. Instances are named {@code <cluster>-<number>}, starting at 1,
+ * and instance {@code n} listens on {@code basePort + n - 1}.
+ */
+public abstract class HytaleClusterModel implements Named {
+    private static final int DEFAULT_BASE_PORT = 5520;
+
+    private final String name;
+
+    /**
+     * The name of the run configuration the instances are started from.
+     *
+     * @return the run property
+     */
+    public abstract Property<String> getRun();
+
+    /**
+     * The number of server instances to start.
+     *
+     * @return the instances property
+     */
+    public abstract Property<Integer> getInstances();
+
+    /**
+     * The port of the first instance, the following instances use the next ports.
+     *
+     * @return the base port property
+     */
+    public abstract Property<Integer> getBasePort();
+
+    /**
+     * The directory containing the working directories of the instances.
+     *
+     * @return the working directory property
+     */
+    public abstract DirectoryProperty getWorkingDirectory();
+
+    /**
+     * The console command sent to every instance to stop it.
+     *
+     * @return the stop command property
+     */
+    public abstract Property<String> getStopCommand();
+
+    /**
+     * How long instances may take to stop after the stop command before they are killed.
+     *
+     * @return the shutdown timeout property
+     */
+    public abstract Property<Duration> getShutdownTimeout();
+
+    @Inject
+    public HytaleClusterModel(String name, Project project) {
+        this.name = name;
+
+        getRun().convention("hytaleServer");
+        getInstances().convention(2);
+        getBasePort().convention(DEFAULT_BASE_PORT);
+        getWorkingDirectory().convention(project.getLayout().getProjectDirectory().dir("run").dir(name));
+        getStopCommand().convention("stop");
+        getShutdownTimeout().convention(Duration.ofSeconds(30));
+    }
+
+    @Override
+    public @NonNull String getName() {
+        return name;
+    }
+}
@@ -45,6 +45,26 @@ public abstract class HytaleExtension {
      */
     public abstract Property<Boolean> getEnableDecompileServerJar();
 
+    /**
+     * Whether the plugin jar is written by the asset packaging task instead of the jar task.
+     * <p>
+     * The jar task then only packs classes and other resources, assets are compressed in
+     * parallel and formats which are compressed already are stored as is.
+     *
+     * @return the package assets property
+     */
+    public abstract Property<Boolean> getPackageAssets();
+
+    /**
+     * Whether PNG and JSON assets are shrunk before they are added to the plugin jar.
+     * <p>
+     * PNG files are recompressed losslessly and stripped of metadata, JSON files are minified.
+     * The source files are left untouched.
+     *
+     * @return the transform assets property
+     */
+    public abstract Property<Boolean> getTransformAssets();
+
     /**
      * The Hytale manifest model.
      *
@@ -61,6 +81,8 @@ public abstract class HytaleExtension {
 
     private final Project project;
     private final NamedDomainObjectContainer<HytaleRunModel> runs;
+    private final NamedDomainObjectContainer<HytaleClusterModel> clusters;
+    private final NamedDomainObjectContainer<HytaleBenchmarkModel> benchmarks;
 
     @Inject
     public HytaleExtension(Project project) {
@@ -77,6 +99,22 @@ public abstract class HytaleExtension {
 
         this.runs.create("hytaleServer");
 
+        this.clusters = project.getObjects().domainObjectContainer(
+                HytaleClusterModel.class, (name) -> project.getObjects().newInstance(
+                        HytaleClusterModel.class,
+                        name,
+                        project
+                )
+        );
+
+        this.benchmarks = project.getObjects().domainObjectContainer(
+                HytaleBenchmarkModel.class, (name) -> project.getObjects().newInstance(
+                        HytaleBenchmarkModel.class,
+                        name,
+                        project
+                )
+        );
+
         configureDefaults();
     }
 
@@ -88,6 +126,8 @@ public abstract class HytaleExtension {
         getHytaleAssetsZip().convention(defaultLatestGamePackageProvider.map(
                 (packageDir) -> packageDir.file("Assets.zip")));
         getEnableDecompileServerJar().convention(true);
+        getPackageAssets().convention(false);
+        getTransformAssets().convention(false);
         getManifestModifiers().convention(Collections.emptyList());
         getManifest().convention(project.getObjects().newInstance(HytaleManifestModel.class, project));
     }
@@ -101,6 +141,24 @@ public abstract class HytaleExtension {
         action.execute(runs);
     }
 
+    /**
+     * Configure the available server clusters.
+     *
+     * @param action the action to configure the clusters
+     */
+    public void clusters(Action<NamedDomainObjectContainer<HytaleClusterModel>> action) {
+        action.execute(clusters);
+    }
+
+    /**
+     * Configure the available benchmarks.
+     *
+     * @param action the action to configure the benchmarks
+     */
+    public void benchmarks(Action<NamedDomainObjectContainer<HytaleBenchmarkModel>> action) {
+        action.execute(benchmarks);
+    }
+
     /**
      * Configure the plugin manifest.
      *
@@ -120,11 +178,13 @@ public abstract class HytaleExtension {
     }
 
     private Provider<Directory> findDefaultLatestGamePackageDir() {
+        var gamePackageDirProperty = project.getProviders().gradleProperty("hytale.gamePackageDir");
+
         return project.provider(() -> {
             // Check for Gradle project property override first
-            var gamePackageDir = project.getProperties().get("hytale.gamePackageDir");
+            var gamePackageDir = gamePackageDirProperty.getOrNull();
             if (gamePackageDir != null) {
-                Path overridePath = Paths.get(gamePackageDir.toString());
+                Path overridePath = Paths.get(gamePackageDir);
                 if (Files.isDirectory(overridePath)) {
                     return project.getLayout().getProjectDirectory().dir(overridePath.toAbsolutePath().toString());
                 }
@@ -143,4 +203,12 @@ public abstract class HytaleExtension {
     public NamedDomainObjectContainer<HytaleRunModel> getRuns() {
         return runs;
     }
+
+    public NamedDomainObjectContainer<HytaleClusterModel> getClusters() {
+        return clusters;
+    }
+
+    public NamedDomainObjectContainer<HytaleBenchmarkModel> getBenchmarks() {
+        return benchmarks;
+    }
 }
@@ -7,6 +7,7 @@ import org.gradle.api.artifacts.dsl.Dependencies;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileSystemLocation;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.configuration.ConsoleOutput;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
@@ -16,12 +17,17 @@ import org.gradle.api.tasks.SourceSetContainer;
 import org.jspecify.annotations.NonNull;
 
 import javax.inject.Inject;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 public abstract class HytaleRunModel implements Named, Dependencies {
     private static final String ALLOWED_NAME_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-_";
     private static final String DEFAULT_MAIN_CLASS_NAME = "com.hypixel.hytale.Main";
+    private static final String DEFAULT_TICK_LOOP_METHOD = "com.hypixel.hytale.server.core.util.thread.TickingThread#tick";
+    private static final String DEFAULT_PROFILE_SETTINGS = "profile";
+    private static final String PROFILE_RECORDING_NAME = "hytale-dev";
+    private static final String DEFAULT_TICK_SYSTEM_METHOD = "com.hypixel.hytale.component.system.tick.TickingSystem#tick";
 
     private final String name;
 
@@ -109,6 +115,125 @@ public abstract class HytaleRunModel implements Named, Dependencies {
      */
     public abstract Property<FileSystemLocation> getAssetsLocation();
 
+    /**
+     * Whether the plugin is deployed as a jar into the mods directory instead of
+     * being placed on the classpath.
+     * <p>
+     * This allows a running server to reload the plugin in place using the
+     * {@code redeploy<Name>} task instead of restarting the server.
+     *
+     * @return the hot reload property
+     */
+    public abstract Property<Boolean> getHotReload();
+
+    /**
+     * The mods directory the plugin jar is deployed to when hot reload is enabled.
+     *
+     * @return the mods directory property
+     */
+    public abstract DirectoryProperty getModsDirectory();
+
+    /**
+     * The server command used to reload the plugin after it has been redeployed.
+     *
+     * @return the reload command property
+     */
+    public abstract Property<String> getReloadCommand();
+
+    /**
+     * Whether the agent instruments the server tick loops and systems and streams
+     * their timings to the IDE.
+     *
+     * @return the tick profiler property
+     */
+    public abstract Property<Boolean> getTickProfiler();
+
+    /**
+     * The interval tick metrics are sent to the IDE at.
+     *
+     * @return the tick metrics interval property
+     */
+    public abstract Property<Duration> getTickMetricsInterval();
+
+    /**
+     * The tick loop methods instrumented by the tick profiler, as {@code owner#method}.
+     * <p>
+     * Overrides of the method in subclasses of the owner are instrumented as well.
+     *
+     * @return the tick loop methods
+     */
+    public abstract ListProperty<String> getTickLoopMethods();
+
+    /**
+     * The system tick methods instrumented by the tick profiler, as {@code owner#method}.
+     * <p>
+     * Overrides of the method in subclasses of the owner are instrumented as well, which
+     * includes systems registered by plugins.
+     *
+     * @return the tick system methods
+     */
+    public abstract ListProperty<String> getTickSystemMethods();
+
+    /**
+     * The interval JVM telemetry (memory, GC, threads and CPU) is sent to the IDE at.
+     * <p>
+     * A zero interval disables telemetry.
+     *
+     * @return the telemetry interval property
+     */
+    public abstract Property<Duration> getTelemetryInterval();
+
+    /**
+     * Whether the server is started with a Java Flight Recorder recording.
+     * <p>
+     * The recording is written to the recordings directory when the server exits and can
+     * be dumped at any time from the IDE.
+     *
+     * @return the profile property
+     */
+    public abstract Property<Boolean> getProfile();
+
+    /**
+     * The JFR settings used when profiling, either {@code default}, {@code profile} or the
+     * path to a {@code .jfc} file.
+     *
+     * @return the profile settings property
+     */
+    public abstract Property<String> getProfileSettings();
+
+    /**
+     * The directory JFR recordings are written to.
+     *
+     * @return the recordings directory property
+     */
+    public abstract DirectoryProperty getRecordingsDirectory();
+
+    /**
+     * Whether {@code run<Name>} hosts the IDE side of the bridge itself.
+     * <p>
+     * The logs sent over the bridge are then rendered in the terminal, console input is executed
+     * as commands over the bridge and metrics are written to the metrics directory. Off by default,
+     * as output not sent through the logger then only ends up in the console log file. Ignored if
+     * the bridge variables are already set, e.g. because the IDE started Gradle.
+     *
+     * @return the host bridge property
+     */
+    public abstract Property<Boolean> getHostBridge();
+
+    /**
+     * Whether logs rendered from the bridge are colored by level.
+     *
+     * @return the colored logs property
+     */
+    public abstract Property<Boolean> getColoredLogs();
+
+    /**
+     * The directory the hosted bridge writes startup, tick, telemetry and command metrics to.
+     *
+     * @return the metrics directory property
+     */
+    public abstract DirectoryProperty getMetricsDirectory();
+
     @Inject
     public HytaleRunModel(
             String name,
@@ -124,11 +249,26 @@ public abstract class HytaleRunModel implements Named, Dependencies {
         getAllowOp().convention(true);
         getServerJar().convention(serverJar);
         getAssetsZip().convention(assetsZip);
-        getSourceSet().convention(project.provider(this::findDefaultSourceSet));
+        getSourceSet().convention(findDefaultSourceSet(project));
         getMainClassName().convention(DEFAULT_MAIN_CLASS_NAME);
         getEnabled().convention(true);
         getIdeName().convention(NamingUtil.capitalizeFirstLetter(name));
         getAssetsLocation().convention(findAssetsLocation());
+        getHotReload().convention(false);
+        getModsDirectory().convention(getWorkingDirectory().dir("mods"));
+        getTelemetryInterval().convention(Duration.ofSeconds(5));
+        getProfile().convention(false);
+        getProfileSettings().convention(DEFAULT_PROFILE_SETTINGS);
+        getRecordingsDirectory().convention(getWorkingDirectory().dir("recordings"));
+        getTickProfiler().convention(false);
+        getTickMetricsInterval().convention(Duration.ofSeconds(1));
+        getTickLoopMethods().convention(List.of(DEFAULT_TICK_LOOP_METHOD));
+        getTickSystemMethods().convention(List.of(DEFAULT_TICK_SYSTEM_METHOD));
+        getHostBridge().convention(false);
+        getColoredLogs().convention(project.getProviders().environmentVariable("NO_COLOR")
+                .map((noColor) -> false)
+                .orElse(project.getGradle().getStartParameter().getConsoleOutput() != ConsoleOutput.Plain));
+        getMetricsDirectory().convention(project.getLayout().getBuildDirectory().dir("hytale-dev/runs/" + name + "/metrics"));
     }
 
     /**
@@ -159,6 +299,31 @@ public abstract class HytaleRunModel implements Named, Dependencies {
         getEnvironment().put(key, value);
     }
 
+    /**
+     * The JVM arguments the server is launched with, which are the configured JVM arguments
+     * plus the arguments required by enabled features such as profiling.
+     *
+     * @return the effective JVM arguments
+     */
+    public Provider<List<String>> getEffectiveJvmArguments() {
+        // Capture the properties instead of the model, which can not be serialized
+        var profileSettings = getProfileSettings();
+        var recordingsDirectory = getRecordingsDirectory();
+
+        return getJvmArguments().zip(getProfile(), (jvmArguments, profile) -> {
+            if (!profile) {
+                return jvmArguments;
+            }
+
+            var out = new ArrayList<>(jvmArguments);
+            out.add("-XX:StartFlightRecording=name=" + PROFILE_RECORDING_NAME +
+                    ",settings=" + profileSettings.get() +
+                    ",dumponexit=true" +
+                    ",filename=" + recordingsDirectory.get().getAsFile().getAbsolutePath());
+            return out;
+        });
+    }
+
     @Override
     public @NonNull String getName() {
         return name;
@@ -177,14 +342,17 @@ public abstract class HytaleRunModel implements Named, Dependencies {
         return out;
     }
 
-    private SourceSet findDefaultSourceSet() {
-        var sourceSetContainer = getProject().getExtensions().findByType(SourceSetContainer.class);
+    private static Provider<SourceSet> findDefaultSourceSet(Project project) {
+        // Resolve the container eagerly so that the provider does not capture the project
+        var sourceSetContainer = project.getExtensions().findByType(SourceSetContainer.class);
 
-        if (sourceSetContainer == null) {
-            return null;
-        }
+        return project.getProviders().provider(() -> {
+            if (sourceSetContainer == null) {
+                return null;
+            }
 
-        return sourceSetContainer.findByName(SourceSet.MAIN_SOURCE_SET_NAME);
+            return sourceSetContainer.findByName(SourceSet.MAIN_SOURCE_SET_NAME);
+        });
     }
 
     private Provider<FileSystemLocation> findAssetsLocation() {
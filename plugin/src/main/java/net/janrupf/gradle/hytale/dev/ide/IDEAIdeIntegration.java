@@ -71,7 +71,7 @@ public class IDEAIdeIntegration implements IdeIntegration {
             // the various Minecraft development plugins
             for (var task : syncTasks) {
                 project.getGradle().getStartParameter().getTaskRequests().add(
-                        new HytaleDevIdeaSyncTaskExecutionRequest(project, task)
+                        new HytaleDevIdeaSyncTaskExecutionRequest(project.getPath(), project.getRootDir(), task.getName())
                 );
             }
         }
@@ -105,12 +105,12 @@ public class IDEAIdeIntegration implements IdeIntegration {
             RunConfigurationContainer ideaRunConfigurations,
             IdeaHytaleRunConfiguration runConfig
     ) {
-        var task = runConfig.prepareTask.get();
-        if (!task.isEnabled()) {
+        var model = runConfig.model;
+        if (!model.getEnabled().get()) {
             return;
         }
 
-        var model = runConfig.model;
+        var task = runConfig.prepareTask.get();
 
         task.dependsOn(runConfig.agentConfiguration.getAgentJar(), runConfig.agentConfiguration.getServerJar());
 
@@ -121,7 +121,7 @@ public class IDEAIdeIntegration implements IdeIntegration {
             ideaRunConfiguration.setWorkingDirectory(model.getWorkingDirectory().get().getAsFile().getAbsolutePath());
             ideaRunConfiguration.setEnvs(environment);
             ideaRunConfiguration.setModuleName(intelliJModuleName(model.getSourceSet().get()));
-            ideaRunConfiguration.setJvmArgs(StringEscapeUtil.escapeArgListForIntelliJ(model.getJvmArguments().get()));
+            ideaRunConfiguration.setJvmArgs(StringEscapeUtil.escapeArgListForIntelliJ(model.getEffectiveJvmArguments().get()));
             ideaRunConfiguration.setProgramParameters(StringEscapeUtil.escapeArgListForIntelliJ(model.getArguments().get()));
             ideaRunConfiguration.getBeforeRun().create(
                     "Prepare run",
@@ -145,22 +145,23 @@ public class IDEAIdeIntegration implements IdeIntegration {
     }
 
     record HytaleDevIdeaSyncTaskExecutionRequest(
-            Project project,
-            TaskProvider<? extends Task> task
+            String projectPath,
+            File rootDir,
+            String taskName
     ) implements TaskExecutionRequest {
         @Override
         public @NonNull List<String> getArgs() {
-            return Collections.singletonList(task.getName());
+            return Collections.singletonList(taskName);
         }
 
         @Override
         public String getProjectPath() {
-            return project.getPath();
+            return projectPath;
         }
 
         @Override
         public File getRootDir() {
-            return project.getRootDir();
+            return rootDir;
         }
     }
 
@@ -2,16 +2,33 @@ package net.janrupf.gradle.hytale.dev.run;
 
 import net.janrupf.gradle.hytale.dev.HytaleDevPlugin;
 import net.janrupf.gradle.hytale.dev.agent.HytaleDevAgentConfiguration;
+import net.janrupf.gradle.hytale.dev.bridge.LocalBridgeServer;
+import net.janrupf.gradle.hytale.dev.bridge.RunBridgeService;
+import net.janrupf.gradle.hytale.dev.extension.HytaleBenchmarkModel;
+import net.janrupf.gradle.hytale.dev.extension.HytaleClusterModel;
 import net.janrupf.gradle.hytale.dev.extension.HytaleRunModel;
 import net.janrupf.gradle.hytale.dev.ide.IdeIntegration;
+import net.janrupf.gradle.hytale.dev.tasks.BenchmarkHytaleServerTask;
 import net.janrupf.gradle.hytale.dev.tasks.PrepareHytaleServerRunTask;
+import net.janrupf.gradle.hytale.dev.tasks.RedeployHytalePluginTask;
+import net.janrupf.gradle.hytale.dev.tasks.RunHytaleClusterTask;
 import net.janrupf.gradle.hytale.dev.util.NamingUtil;
+import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.RegularFile;
+import org.gradle.api.plugins.JavaPluginExtension;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.JavaExec;
 import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.jvm.toolchain.JavaToolchainService;
+
+import java.util.Collections;
+import java.util.List;
 
 public class RunGenerator {
     public static final String AGENT_MAIN_CLASS = "net.janrupf.gradle.hytale.dev.agent.HytaleDevAgent";
@@ -21,21 +38,61 @@ public class RunGenerator {
     private final IdeIntegration ideIntegration;
     private final Provider<Directory> manifestDirectory;
     private final HytaleDevAgentConfiguration agentConfiguration;
+    private final Provider<RegularFile> pluginJar;
+    private final TaskProvider<? extends Task> compatibilityCheckTask;
+    private final Provider<String> pluginIdentifier;
+    private final Provider<RunBridgeService> bridgeService;
 
     public RunGenerator(
             Project project,
             IdeIntegration ideIntegration,
             Provider<Directory> manifestDirectory,
-            HytaleDevAgentConfiguration agentConfiguration
+            HytaleDevAgentConfiguration agentConfiguration,
+            Provider<RegularFile> pluginJar,
+            TaskProvider<? extends Task> compatibilityCheckTask,
+            Provider<String> pluginIdentifier
     ) {
         this.project = project;
         this.ideIntegration = ideIntegration;
         this.manifestDirectory = manifestDirectory;
         this.agentConfiguration = agentConfiguration;
+        this.pluginJar = pluginJar;
+        this.compatibilityCheckTask = compatibilityCheckTask;
+        this.pluginIdentifier = pluginIdentifier;
+        this.bridgeService = project.getGradle().getSharedServices().registerIfAbsent(
+                RunBridgeService.NAME,
+                RunBridgeService.class,
+                (spec) -> {}
+        );
     }
 
     public void generate(HytaleRunModel model) {
         var capitalizedName = NamingUtil.capitalizeFirstLetter(model.getName());
+        var agentConfigurationFile = getRunFile(model, "agent-configuration.properties");
+        var enabled = model.getEnabled();
+        var hotReload = model.getHotReload();
+        var reloadRequestFile = getRunFile(model, "reload-request.properties");
+
+        model.getReloadCommand().convention(pluginIdentifier.map((identifier) -> "plugin reload " + identifier));
+
+        var redeployTask = project.getTasks().register(
+                "redeploy" + capitalizedName,
+                RedeployHytalePluginTask.class,
+                (task) -> {
+                    task.setGroup(HytaleDevPlugin.HYTALE_TASK_GROUP);
+                    task.setDescription("Deploys the plugin into the Hytale " + model.getName() + " configuration and reloads it in the running server.");
+                    task.getPluginJar().convention(pluginJar);
+                    task.getDeployedJar().convention(model.getModsDirectory().file(project.getName() + ".jar"));
+                    task.getReloadRequestFile().convention(reloadRequestFile);
+                    task.getReloadCommand().convention(model.getReloadCommand());
+                    task.getSources().from(model.getSourceSet().map(SourceSet::getAllSource));
+                    task.getReloadResultFile().convention(getRunFile(model, "reload-result.properties"));
+                    task.getReloadWatcherFile().convention(getRunFile(model, "reload-watcher.pid"));
+                    task.getReloadTimingsFile().convention(getRunFile(model, "reload-timings.csv"));
+                    task.dependsOn(compatibilityCheckTask);
+                    task.onlyIf("Hot reload is enabled", (t) -> hotReload.get());
+                }
+        );
 
         var prepareRunTask = project.getTasks().register(
                 "prepareRun" + capitalizedName,
@@ -44,34 +101,78 @@ public class RunGenerator {
                     task.setGroup(HytaleDevPlugin.HYTALE_TASK_GROUP);
                     task.setDescription("Prepares the execution of the Hytale " + model.getName() + " configuration.");
                     task.getWorkingDirectory().convention(model.getWorkingDirectory());
-                    task.getAgentConfigurationFile().set(getAgentConfigurationFile(model));
+                    task.getAgentConfigurationFile().set(agentConfigurationFile);
                     task.getClasspath().from(
-                            model.getSourceSet().map(SourceSet::getRuntimeClasspath),
+                            model.getSourceSet().zip(hotReload, RunGenerator::runtimeClasspath),
                             agentConfiguration.getServerJar()
                     );
                     task.getMainClassName().set(model.getMainClassName());
                     task.getAssetsRedirectSource().set(manifestDirectory);
                     task.getAssetsRedirectTarget().set(model.getAssetsLocation());
                     task.getBridgeJar().set(agentConfiguration.getBridgeJar());
-                    task.setEnabled(model.getEnabled().get());
+                    task.getAssetIndex().set(agentConfiguration.getAssetIndex());
+                    // Only the path is an input, the index is built on demand for the run
+                    task.dependsOn(agentConfiguration.getAssetIndex());
+                    task.getTelemetryInterval().set(model.getTelemetryInterval());
+                    task.getProfile().set(model.getProfile());
+                    task.getRecordingsDirectory().set(model.getRecordingsDirectory());
+                    task.getTickProfiler().set(model.getTickProfiler());
+                    task.getTickMetricsInterval().set(model.getTickMetricsInterval());
+                    task.getTickLoopMethods().set(model.getTickLoopMethods());
+                    task.getTickSystemMethods().set(model.getTickSystemMethods());
+                    task.getReloadRequestFile().set(hotReload.flatMap(
+                            (hotReloadEnabled) -> hotReloadEnabled ? reloadRequestFile : project.getProviders().provider(() -> null)
+                    ));
+                    task.dependsOn(hotReload.map(
+                            (hotReloadEnabled) -> hotReloadEnabled ? List.of(redeployTask) : Collections.<TaskProvider<? extends Task>>emptyList()
+                    ));
+                    task.onlyIf("Run configuration is enabled", (t) -> enabled.get());
                 }
         );
 
         project.getTasks().register("run" + capitalizedName, JavaExec.class, (task) -> {
-            task.dependsOn(prepareRunTask);
+            var jvmArguments = model.getEffectiveJvmArguments();
+            var arguments = model.getArguments();
+            var environment = model.getEnvironment();
+            var hostBridge = model.getHostBridge();
+            var coloredLogs = model.getColoredLogs();
+            var metricsDirectory = model.getMetricsDirectory();
+            var consoleLogFile = getRunFile(model, "console.log");
+            var bridgeService = this.bridgeService;
+
+            task.dependsOn(prepareRunTask, compatibilityCheckTask);
             task.setGroup(HytaleDevPlugin.HYTALE_TASK_GROUP);
             task.setDescription("Runs the Hytale " + model.getName() + " configuration.");
 
             task.getMainClass().set(AGENT_MAIN_CLASS);
             task.classpath(agentConfiguration.getAgentJar());
             task.setWorkingDir(model.getWorkingDirectory());
-            task.setJvmArgs(model.getJvmArguments().get());
-            task.setArgs(model.getArguments().get());
-            task.setEnabled(model.getEnabled().get());
-            task.environment(
-                    AGENT_CONFIGURATION_ENV_VARIABLE,
-                    prepareRunTask.get().getAgentConfigurationFile().get().getAsFile().getAbsolutePath()
-            );
+            task.getJvmArgumentProviders().add(jvmArguments::get);
+            task.getArgumentProviders().add(arguments::get);
+            task.onlyIf("Run configuration is enabled", (t) -> enabled.get());
+            task.doFirst((t) -> {
+                // The environment has no lazy API, resolve it only once the task actually executes
+                var execTask = (JavaExec) t;
+                execTask.environment(environment.get());
+                execTask.environment(
+                        AGENT_CONFIGURATION_ENV_VARIABLE,
+                        agentConfigurationFile.get().getAsFile().getAbsolutePath()
+                );
+
+                if (hostBridge.get() && !execTask.getEnvironment().containsKey(LocalBridgeServer.PORT_ENV_VARIABLE)) {
+                    var session = bridgeService.get().open(
+                            execTask.getPath(),
+                            metricsDirectory.get().getAsFile(),
+                            consoleLogFile.get().getAsFile(),
+                            coloredLogs.get()
+                    );
+                    execTask.environment(session.getEnvironment());
+                    execTask.setStandardInput(session.getServerInput());
+                    execTask.setStandardOutput(session.getServerOutput());
+                }
+            });
+            task.doLast((t) -> bridgeService.get().finish(t.getPath()));
+            task.usesService(bridgeService);
             task.setStandardInput(System.in);
         });
 
@@ -79,9 +180,99 @@ public class RunGenerator {
         ideIntegration.addRunConfiguration(prepareRunTask, model, agentConfiguration);
     }
 
-    private Provider<RegularFile> getAgentConfigurationFile(HytaleRunModel model) {
+    public void generateCluster(HytaleClusterModel cluster, NamedDomainObjectContainer<HytaleRunModel> runs) {
+        var capitalizedName = NamingUtil.capitalizeFirstLetter(cluster.getName());
+
+        // The run may be declared after the cluster, so it is only looked up once the task is configured
+        var run = cluster.getRun().map(runs::getByName);
+        var javaLauncher = javaLauncher();
+
+        project.getTasks().register("runCluster" + capitalizedName, RunHytaleClusterTask.class, (task) -> {
+            task.dependsOn(
+                    cluster.getRun().map((name) -> "prepareRun" + NamingUtil.capitalizeFirstLetter(name)),
+                    compatibilityCheckTask
+            );
+            task.setGroup(HytaleDevPlugin.HYTALE_TASK_GROUP);
+            task.setDescription("Runs the Hytale " + cluster.getName() + " cluster.");
+
+            task.getJavaLauncher().convention(javaLauncher);
+            task.getClasspath().from(agentConfiguration.getAgentJar());
+            task.getMainClass().set(AGENT_MAIN_CLASS);
+            task.getJvmArguments().set(run.flatMap(HytaleRunModel::getEffectiveJvmArguments));
+            task.getArguments().set(run.flatMap(HytaleRunModel::getArguments));
+            task.getEnvironment().set(run.flatMap(HytaleRunModel::getEnvironment));
+            task.getModsDirectory().set(run.flatMap(HytaleRunModel::getModsDirectory));
+            task.getAgentConfigurationEnvironmentVariable().set(AGENT_CONFIGURATION_ENV_VARIABLE);
+            task.getAgentConfigurationFile().set(cluster.getRun().flatMap(
+                    (name) -> getRunFile(name, "agent-configuration.properties")
+            ));
+            task.getClusterName().set(cluster.getName());
+            task.getInstances().set(cluster.getInstances());
+            task.getBasePort().set(cluster.getBasePort());
+            task.getWorkingDirectory().set(cluster.getWorkingDirectory());
+            task.getStopCommand().set(cluster.getStopCommand());
+            task.getShutdownTimeout().set(cluster.getShutdownTimeout());
+        });
+    }
+
+    public void generateBenchmark(HytaleBenchmarkModel benchmark, NamedDomainObjectContainer<HytaleRunModel> runs) {
+        var capitalizedName = NamingUtil.capitalizeFirstLetter(benchmark.getName());
+
+        var run = benchmark.getRun().map(runs::getByName);
+        var javaLauncher = javaLauncher();
+
+        project.getTasks().register("benchmark" + capitalizedName, BenchmarkHytaleServerTask.class, (task) -> {
+            task.dependsOn(
+                    benchmark.getRun().map((name) -> "prepareRun" + NamingUtil.capitalizeFirstLetter(name)),
+                    compatibilityCheckTask
+            );
+            task.setGroup(HytaleDevPlugin.HYTALE_TASK_GROUP);
+            task.setDescription("Benchmarks the startup and tick times of the Hytale server in the " + benchmark.getName() + " benchmark.");
+
+            task.getJavaLauncher().convention(javaLauncher);
+            task.getClasspath().from(agentConfiguration.getAgentJar());
+            task.getMainClass().set(AGENT_MAIN_CLASS);
+            task.getJvmArguments().set(run.flatMap(HytaleRunModel::getEffectiveJvmArguments));
+            task.getArguments().set(run.flatMap(HytaleRunModel::getArguments));
+            task.getEnvironment().set(run.flatMap(HytaleRunModel::getEnvironment));
+            task.getWorkingDirectory().set(run.flatMap(HytaleRunModel::getWorkingDirectory));
+            task.getAgentConfigurationEnvironmentVariable().set(AGENT_CONFIGURATION_ENV_VARIABLE);
+            task.getAgentConfigurationFile().set(benchmark.getRun().flatMap(
+                    (name) -> getRunFile(name, "agent-configuration.properties")
+            ));
+            task.getBenchmarkName().set(benchmark.getName());
+            task.getCommands().set(benchmark.getCommands());
+            task.getMeasureDuration().set(benchmark.getMeasureDuration());
+            task.getReadyTimeout().set(benchmark.getReadyTimeout());
+            task.getCommandTimeout().set(benchmark.getCommandTimeout());
+            task.getStopCommand().set(benchmark.getStopCommand());
+            task.getShutdownTimeout().set(benchmark.getShutdownTimeout());
+            task.getReportFile().set(benchmark.getReportFile());
+            task.getLogFile().set(benchmark.getLogFile());
+        });
+    }
+
+    private Provider<JavaLauncher> javaLauncher() {
+        var toolchain = project.getExtensions().getByType(JavaPluginExtension.class).getToolchain();
+        return project.getExtensions().getByType(JavaToolchainService.class).launcherFor(toolchain);
+    }
+
+    private static FileCollection runtimeClasspath(SourceSet sourceSet, boolean hotReload) {
+        if (hotReload) {
+            // The plugin itself is loaded from the mods directory so it can be reloaded
+            return sourceSet.getRuntimeClasspath().minus(sourceSet.getOutput());
+        }
+
+        return sourceSet.getRuntimeClasspath();
+    }
+
+    private Provider<RegularFile> getRunFile(HytaleRunModel model, String fileName) {
+        return getRunFile(model.getName(), fileName);
+    }
+
+    private Provider<RegularFile> getRunFile(String runName, String fileName) {
         return project.getLayout().getBuildDirectory().file(
-                "hytale-dev/runs/" + model.getName() + "/agent-configuration.properties"
+                "hytale-dev/runs/" + runName + "/" + fileName
         );
     }
 }
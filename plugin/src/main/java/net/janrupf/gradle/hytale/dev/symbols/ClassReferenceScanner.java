@@ -0,0 +1,179 @@
+package net.janrupf.gradle.hytale.dev.symbols;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.constantpool.ClassEntry;
+import java.lang.classfile.constantpool.FieldRefEntry;
+import java.lang.classfile.constantpool.MemberRefEntry;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Finds the classes, fields and methods plugin classes link against.
+ * <p>
+ * The references are taken from the constant pool, which holds every class, field and method
+ * constant the bytecode uses, so the code itself does not have to be parsed.
+ * <p>
+ * Compilers name the class of the receiver as the owner of a member reference, not the class
+ * declaring the member. A call to an inherited server method from a plugin class, or through a
+ * plugin subclass, is therefore owned by a plugin class. {@link #collect(Collection, List)} walks
+ * such references up the plugin class hierarchy to the first server class, which is where the JVM
+ * will continue resolving them.
+ */
+public class ClassReferenceScanner {
+    private ClassReferenceScanner() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Scan a class file.
+     *
+     * @param classFile the class file content
+     * @return the class with its references
+     * @throws IllegalArgumentException if the class file can not be parsed
+     */
+    public static ScannedClass scan(byte[] classFile) {
+        var model = ClassFile.of().parse(classFile);
+        var references = new TreeSet<SymbolReference>();
+
+        for (var entry : model.constantPool()) {
+            if (entry instanceof ClassEntry classEntry) {
+                var owner = elementType(classEntry.asInternalName());
+                if (owner != null) {
+                    references.add(new SymbolReference(SymbolReference.CLASS, owner, "", ""));
+                }
+            } else if (entry instanceof MemberRefEntry member) {
+                var owner = member.owner().asInternalName();
+                if (owner.startsWith("[")) {
+                    // Members of arrays, like clone(), are members of java/lang/Object
+                    continue;
+                }
+
+                var kind = member instanceof FieldRefEntry
+                        ? SymbolIndex.MemberSymbol.FIELD
+                        : SymbolIndex.MemberSymbol.METHOD;
+                references.add(new SymbolReference(kind, owner, member.name().stringValue(), member.type().stringValue()));
+            }
+        }
+
+        var declared = new HashSet<String>();
+        for (var field : model.fields()) {
+            declared.add(SymbolIndex.MemberSymbol.FIELD + field.fieldName().stringValue() + field.fieldType().stringValue());
+        }
+        for (var method : model.methods()) {
+            declared.add(SymbolIndex.MemberSymbol.METHOD + method.methodName().stringValue() + method.methodType().stringValue());
+        }
+
+        return new ScannedClass(
+                model.thisClass().asInternalName(),
+                model.superclass().map(ClassEntry::asInternalName).orElse(""),
+                model.interfaces().stream().map(ClassEntry::asInternalName).toList(),
+                declared,
+                references
+        );
+    }
+
+    /**
+     * Collect the references of plugin classes into classes below the given prefixes.
+     *
+     * @param classes  all classes of the plugin
+     * @param prefixes the package prefixes of the referenced classes, e.g. {@code com/hypixel}
+     * @return the references, sorted, with the internal names of the plugin classes using them
+     */
+    public static Map<SymbolReference, Set<String>> collect(Collection<ScannedClass> classes, List<String> prefixes) {
+        var byName = new HashMap<String, ScannedClass>();
+        for (var scanned : classes) {
+            byName.put(scanned.name(), scanned);
+        }
+
+        var references = new TreeMap<SymbolReference, Set<String>>();
+        for (var scanned : classes) {
+            for (var reference : scanned.references()) {
+                var resolved = reference.kind() == SymbolReference.CLASS
+                        ? reference
+                        : throughPluginClasses(reference, byName);
+
+                if (resolved != null && matches(resolved.owner(), prefixes)) {
+                    references.computeIfAbsent(resolved, (r) -> new TreeSet<>()).add(scanned.name());
+                }
+            }
+        }
+
+        return references;
+    }
+
+    private static SymbolReference throughPluginClasses(SymbolReference reference, Map<String, ScannedClass> byName) {
+        var key = reference.kind() + reference.name() + reference.descriptor();
+        var pending = new ArrayDeque<String>();
+        var visited = new HashSet<String>();
+        pending.add(reference.owner());
+
+        while (!pending.isEmpty()) {
+            var current = pending.poll();
+            if (!visited.add(current)) {
+                continue;
+            }
+
+            var scanned = byName.get(current);
+            if (scanned == null) {
+                // Left the plugin, the JVM continues resolving from here
+                return new SymbolReference(reference.kind(), current, reference.name(), reference.descriptor());
+            }
+
+            if (scanned.declared().contains(key) || reference.name().equals("<init>")) {
+                // Declared by the plugin itself, constructors are never inherited
+                return null;
+            }
+
+            if (!scanned.superName().isEmpty()) {
+                pending.add(scanned.superName());
+            }
+            pending.addAll(scanned.interfaces());
+        }
+
+        return null;
+    }
+
+    private static String elementType(String name) {
+        if (!name.startsWith("[")) {
+            return name;
+        }
+
+        var element = name.substring(name.lastIndexOf('[') + 1);
+        return element.startsWith("L") ? element.substring(1, element.length() - 1) : null;
+    }
+
+    private static boolean matches(String name, List<String> prefixes) {
+        for (var prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * A scanned class file.
+     *
+     * @param name       the internal name
+     * @param superName  the internal name of the super class, empty for {@code java/lang/Object}
+     * @param interfaces the internal names of the directly implemented interfaces
+     * @param declared   the declared members, as kind, name and descriptor concatenated
+     * @param references every class and member reference of the constant pool
+     */
+    public record ScannedClass(
+            String name,
+            String superName,
+            List<String> interfaces,
+            Set<String> declared,
+            Set<SymbolReference> references
+    ) {
+    }
+}
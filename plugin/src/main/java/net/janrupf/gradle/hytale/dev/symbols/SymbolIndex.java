@@ -0,0 +1,310 @@
+package net.janrupf.gradle.hytale.dev.symbols;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The classes of a jar and the members they make accessible to other packages.
+ * <p>
+ * Every class below the indexed prefixes is recorded, regardless of its access, since members
+ * are resolved through the class hierarchy. Only public and protected members are recorded, code
+ * outside the server can not link against any other member. The index is stored in a compact
+ * binary file:
+ * <pre>
+ * int    magic ("HDSI")
+ * int    version
+ * string jar hash
+ * int    class count
+ * class  classes[class count]
+ *
+ * class:
+ *   string name
+ *   int    access flags
+ *   string super class name, empty if there is none
+ *   int    interface count
+ *   string interfaces[interface count]
+ *   int    member count
+ *   member members[member count]
+ *
+ * member:
+ *   byte   kind, 'F' for fields and 'M' for methods
+ *   string name
+ *   string descriptor
+ *   int    access flags
+ * </pre>
+ * All numbers are big endian, strings are an int byte length followed by UTF-8 bytes. Class names
+ * are internal names, e.g. {@code com/hypixel/hytale/server/core/HytaleServer}.
+ */
+public class SymbolIndex {
+    public static final int MAGIC = 0x48445349;
+    public static final int VERSION = 1;
+
+    // Public and protected methods every class inherits
+    private static final Set<String> OBJECT_METHODS = Set.of(
+            "getClass()Ljava/lang/Class;",
+            "hashCode()I",
+            "equals(Ljava/lang/Object;)Z",
+            "clone()Ljava/lang/Object;",
+            "toString()Ljava/lang/String;",
+            "notify()V",
+            "notifyAll()V",
+            "wait()V",
+            "wait(J)V",
+            "wait(JI)V",
+            "finalize()V"
+    );
+
+    private final String jarHash;
+    private final List<ClassSymbol> classes;
+    private final Map<String, ClassSymbol> byName;
+
+    public SymbolIndex(String jarHash, List<ClassSymbol> classes) {
+        this.jarHash = jarHash;
+        this.classes = Collections.unmodifiableList(classes);
+        this.byName = new HashMap<>(classes.size() * 2);
+
+        for (var symbol : classes) {
+            byName.put(symbol.name(), symbol);
+        }
+    }
+
+    /**
+     * The hash identifying the jar and the prefixes this index was built from.
+     *
+     * @return the hash, see {@link SymbolIndexBuilder#hash(Path, List)}
+     */
+    public String getJarHash() {
+        return jarHash;
+    }
+
+    /**
+     * All indexed classes, sorted by name.
+     *
+     * @return the classes
+     */
+    public List<ClassSymbol> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Look up a class by its internal name.
+     *
+     * @param name the internal name
+     * @return the class, or null if it is not indexed
+     */
+    public ClassSymbol getClass(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Resolve a member reference the way the JVM links it.
+     * <p>
+     * The owner, its super classes and its super interfaces are searched. Types outside the index,
+     * such as JDK classes, can not be searched, so a reference is considered resolved as soon as
+     * the search reaches one, except for {@code java/lang/Object}, whose methods are known.
+     *
+     * @param owner      the internal name of the class the reference names
+     * @param kind       {@link MemberSymbol#FIELD} or {@link MemberSymbol#METHOD}
+     * @param name       the member name
+     * @param descriptor the member descriptor
+     * @return true if the member exists, or may exist outside the index
+     */
+    public boolean resolves(String owner, char kind, String name, String descriptor) {
+        var pending = new ArrayDeque<String>();
+        var visited = new HashSet<String>();
+        pending.add(owner);
+
+        while (!pending.isEmpty()) {
+            var current = pending.poll();
+            if (!visited.add(current)) {
+                continue;
+            }
+
+            var symbol = byName.get(current);
+            if (symbol == null) {
+                if (current.equals(owner)) {
+                    return false;
+                } else if (current.equals("java/lang/Object")) {
+                    if (kind == MemberSymbol.METHOD && OBJECT_METHODS.contains(name + descriptor)) {
+                        return true;
+                    }
+                    continue;
+                }
+
+                // Other types above the indexed classes live in the JDK or a library and can not be searched
+                return true;
+            }
+
+            for (var member : symbol.members()) {
+                if (member.kind() == kind && member.name().equals(name) && member.descriptor().equals(descriptor)) {
+                    return true;
+                }
+            }
+
+            if (name.equals("<init>")) {
+                // Constructors are never inherited
+                return false;
+            }
+
+            if (!symbol.superName().isEmpty()) {
+                pending.add(symbol.superName());
+            }
+            pending.addAll(symbol.interfaces());
+        }
+
+        return false;
+    }
+
+    /**
+     * Read an index file.
+     *
+     * @param file the index file
+     * @return the index
+     * @throws IOException if the file can not be read or is not an index of this version
+     */
+    public static SymbolIndex read(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to be a symbol index");
+            }
+
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a symbol index");
+            }
+
+            var version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported symbol index version " + version);
+            }
+
+            var jarHash = readString(buffer);
+            var classCount = buffer.getInt();
+            var classes = new ArrayList<ClassSymbol>(classCount);
+
+            for (int i = 0; i < classCount; i++) {
+                var name = readString(buffer);
+                var access = buffer.getInt();
+                var superName = readString(buffer);
+
+                var interfaceCount = buffer.getInt();
+                var interfaces = new ArrayList<String>(interfaceCount);
+                for (int j = 0; j < interfaceCount; j++) {
+                    interfaces.add(readString(buffer));
+                }
+
+                var memberCount = buffer.getInt();
+                var members = new ArrayList<MemberSymbol>(memberCount);
+                for (int j = 0; j < memberCount; j++) {
+                    var kind = (char) buffer.get();
+                    members.add(new MemberSymbol(kind, readString(buffer), readString(buffer), buffer.getInt()));
+                }
+
+                classes.add(new ClassSymbol(name, access, superName, interfaces, members));
+            }
+
+            return new SymbolIndex(jarHash, classes);
+        }
+    }
+
+    /**
+     * Write this index to a file, replacing it if it exists.
+     *
+     * @param file the file to write to
+     * @throws IOException if writing fails
+     */
+    public void write(Path file) throws IOException {
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, jarHash);
+            out.writeInt(classes.size());
+
+            for (var symbol : classes) {
+                writeString(out, symbol.name());
+                out.writeInt(symbol.access());
+                writeString(out, symbol.superName());
+
+                out.writeInt(symbol.interfaces().size());
+                for (var name : symbol.interfaces()) {
+                    writeString(out, name);
+                }
+
+                out.writeInt(symbol.members().size());
+                for (var member : symbol.members()) {
+                    out.writeByte(member.kind());
+                    writeString(out, member.name());
+                    writeString(out, member.descriptor());
+                    out.writeInt(member.access());
+                }
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * An indexed class.
+     *
+     * @param name       the internal name
+     * @param access     the access flags of the class file
+     * @param superName  the internal name of the super class, empty for {@code java/lang/Object}
+     * @param interfaces the internal names of the directly implemented interfaces
+     * @param members    the public and protected fields and methods declared by the class
+     */
+    public record ClassSymbol(
+            String name,
+            int access,
+            String superName,
+            List<String> interfaces,
+            List<MemberSymbol> members
+    ) {
+        /**
+         * Whether code in other packages can refer to this class.
+         *
+         * @return true if the class is public, which includes protected nested classes
+         */
+        public boolean isApi() {
+            return Modifier.isPublic(access);
+        }
+    }
+
+    /**
+     * An indexed field or method.
+     *
+     * @param kind       {@link #FIELD} or {@link #METHOD}
+     * @param name       the member name
+     * @param descriptor the field or method descriptor
+     * @param access     the access flags
+     */
+    public record MemberSymbol(char kind, String name, String descriptor, int access) {
+        public static final char FIELD = 'F';
+        public static final char METHOD = 'M';
+    }
+}
@@ -0,0 +1,148 @@
+package net.janrupf.gradle.hytale.dev.symbols;
+
+import net.janrupf.gradle.hytale.dev.assets.ZipCentralDirectory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassModel;
+import java.lang.classfile.constantpool.ClassEntry;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.ZipFile;
+
+/**
+ * Builds a {@link SymbolIndex} from a jar using the class file API.
+ * <p>
+ * Only the class file structure is parsed, method bodies are never looked at, and the classes are
+ * parsed in parallel.
+ */
+public class SymbolIndexBuilder {
+    private static final int API_ACCESS = ClassFile.ACC_PUBLIC | ClassFile.ACC_PROTECTED;
+
+    private SymbolIndexBuilder() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Compute the hash identifying an index of a jar.
+     * <p>
+     * Only the central directory of the jar is read, see {@link ZipCentralDirectory#getHash()}.
+     *
+     * @param jar      the jar
+     * @param prefixes the package prefixes to index
+     * @return the hex encoded hash
+     * @throws IOException if the jar can not be read
+     */
+    public static String hash(Path jar, List<String> prefixes) throws IOException {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ZipCentralDirectory.read(jar).getHash().getBytes(StandardCharsets.UTF_8));
+            for (var prefix : prefixes) {
+                digest.update((":" + prefix).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Index the classes of a jar.
+     *
+     * @param jar      the jar to index
+     * @param prefixes the package prefixes of the classes to index, e.g. {@code com/hypixel}
+     * @return the index
+     * @throws IOException if the jar can not be read
+     */
+    public static SymbolIndex build(Path jar, List<String> prefixes) throws IOException {
+        var hash = hash(jar, prefixes);
+        var names = ZipCentralDirectory.read(jar).getEntries().stream()
+                .map(ZipCentralDirectory.Entry::name)
+                .filter((name) -> isIndexed(name, prefixes))
+                .toList();
+
+        List<SymbolIndex.ClassSymbol> classes;
+        try (var zip = new ZipFile(jar.toFile())) {
+            classes = names.parallelStream()
+                    .map((name) -> parse(zip, name))
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(SymbolIndex.ClassSymbol::name))
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return new SymbolIndex(hash, new ArrayList<>(classes));
+    }
+
+    private static boolean isIndexed(String name, List<String> prefixes) {
+        // Multi release variants and module descriptors are not part of the API of the classes
+        if (!name.endsWith(".class") || name.startsWith("META-INF/") || name.endsWith("module-info.class")) {
+            return false;
+        }
+
+        for (var prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return prefixes.isEmpty();
+    }
+
+    private static SymbolIndex.ClassSymbol parse(ZipFile zip, String name) {
+        byte[] data;
+        try (var in = zip.getInputStream(zip.getEntry(name))) {
+            data = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + name, e);
+        }
+
+        ClassModel model;
+        try {
+            model = ClassFile.of().parse(data);
+        } catch (IllegalArgumentException e) {
+            // Obfuscated or otherwise broken class files can not be linked against either
+            return null;
+        }
+
+        var members = new ArrayList<SymbolIndex.MemberSymbol>();
+        for (var field : model.fields()) {
+            if ((field.flags().flagsMask() & API_ACCESS) != 0) {
+                members.add(new SymbolIndex.MemberSymbol(
+                        SymbolIndex.MemberSymbol.FIELD,
+                        field.fieldName().stringValue(),
+                        field.fieldType().stringValue(),
+                        field.flags().flagsMask()
+                ));
+            }
+        }
+
+        for (var method : model.methods()) {
+            if ((method.flags().flagsMask() & API_ACCESS) != 0) {
+                members.add(new SymbolIndex.MemberSymbol(
+                        SymbolIndex.MemberSymbol.METHOD,
+                        method.methodName().stringValue(),
+                        method.methodType().stringValue(),
+                        method.flags().flagsMask()
+                ));
+            }
+        }
+
+        return new SymbolIndex.ClassSymbol(
+                model.thisClass().asInternalName(),
+                model.flags().flagsMask(),
+                model.superclass().map(ClassEntry::asInternalName).orElse(""),
+                model.interfaces().stream().map(ClassEntry::asInternalName).toList(),
+                members
+        );
+    }
+}
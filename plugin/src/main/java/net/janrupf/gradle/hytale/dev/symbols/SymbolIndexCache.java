@@ -0,0 +1,51 @@
+package net.janrupf.gradle.hytale.dev.symbols;
+
+import net.janrupf.gradle.hytale.dev.util.CacheUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A directory of symbol indexes shared between projects, keyed by the hash of the indexed jar.
+ * <p>
+ * The hash only requires reading the central directory of the jar, so switching between server
+ * versions or cleaning the build does not parse the classes again.
+ */
+public class SymbolIndexCache {
+    private final Path directory;
+
+    public SymbolIndexCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Read the index of a jar from the cache, building and caching it if it is missing.
+     *
+     * @param jar      the jar to index
+     * @param prefixes the package prefixes to index
+     * @return the index
+     * @throws IOException if the jar can not be read or the cache can not be written
+     */
+    public SymbolIndex load(Path jar, List<String> prefixes) throws IOException {
+        var hash = SymbolIndexBuilder.hash(jar, prefixes);
+        var cached = directory.resolve(hash + ".idx");
+
+        if (Files.isRegularFile(cached)) {
+            try {
+                var index = SymbolIndex.read(cached);
+                if (index.getJarHash().equals(hash)) {
+                    return index;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Unreadable or outdated, replaced below
+            }
+        }
+
+        var index = SymbolIndexBuilder.build(jar, prefixes);
+
+        CacheUtil.publish(cached, index::write);
+        return index;
+    }
+}
@@ -0,0 +1,37 @@
+package net.janrupf.gradle.hytale.dev.symbols;
+
+/**
+ * A reference from a class file to a class, field or method of another class.
+ *
+ * @param kind       {@link #CLASS}, {@link SymbolIndex.MemberSymbol#FIELD} or {@link SymbolIndex.MemberSymbol#METHOD}
+ * @param owner      the internal name of the referenced class, or of the class the member is looked up in
+ * @param name       the member name, empty for class references
+ * @param descriptor the member descriptor, empty for class references
+ */
+public record SymbolReference(char kind, String owner, String name, String descriptor) implements Comparable<SymbolReference> {
+    public static final char CLASS = 'C';
+
+    /**
+     * Whether an index resolves this reference.
+     *
+     * @param index the index of the referenced jar
+     * @return true if the referenced class or member exists
+     */
+    public boolean resolvesIn(SymbolIndex index) {
+        return kind == CLASS ? index.getClass(owner) != null : index.resolves(owner, kind, name, descriptor);
+    }
+
+    @Override
+    public int compareTo(SymbolReference other) {
+        return toString().compareTo(other.toString());
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case CLASS -> "class " + owner;
+            case SymbolIndex.MemberSymbol.FIELD -> "field " + owner + "." + name + ":" + descriptor;
+            default -> "method " + owner + "." + name + descriptor;
+        };
+    }
+}
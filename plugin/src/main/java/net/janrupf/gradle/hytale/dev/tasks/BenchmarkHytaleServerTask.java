@@ -0,0 +1,349 @@
+package net.janrupf.gradle.hytale.dev.tasks;
+
+import net.janrupf.gradle.hytale.dev.actions.WriteJsonWorkAction;
+import net.janrupf.gradle.hytale.dev.bridge.BenchmarkRecorder;
+import net.janrupf.gradle.hytale.dev.bridge.LocalBridgeServer;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.AgentMessage;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.ExecuteCommandRequest;
+import net.janrupf.gradle.hytale.dev.protocol.HytaleBridgeProto.IdeMessage;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.work.DisableCachingByDefault;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Starts a server without the IDE and measures its startup time and tick cost.
+ * <p>
+ * The bridge of the server connects to a {@link LocalBridgeServer} hosted by this task, which
+ * detects when the server is ready, executes the commands and receives the metrics. The output
+ * of the server is written to the log file, the results to a JSON report. The task fails if the
+ * server does not become ready, exits on its own or a command fails, the report is written in
+ * any case once the server was ready.
+ */
+@DisableCachingByDefault(because = "Benchmarks measure the current machine")
+public abstract class BenchmarkHytaleServerTask extends DefaultTask {
+    // Kill processes which ignore the termination signal after this long
+    private static final Duration KILL_TIMEOUT = Duration.ofSeconds(5);
+
+    @Nested
+    public abstract Property<JavaLauncher> getJavaLauncher();
+
+    @Classpath
+    public abstract ConfigurableFileCollection getClasspath();
+
+    @Input
+    public abstract Property<String> getMainClass();
+
+    @Input
+    public abstract ListProperty<String> getJvmArguments();
+
+    @Input
+    public abstract ListProperty<String> getArguments();
+
+    @Input
+    public abstract MapProperty<String, String> getEnvironment();
+
+    @Input
+    public abstract Property<String> getAgentConfigurationEnvironmentVariable();
+
+    @Internal
+    public abstract RegularFileProperty getAgentConfigurationFile();
+
+    @Internal
+    public abstract DirectoryProperty getWorkingDirectory();
+
+    @Input
+    public abstract Property<String> getBenchmarkName();
+
+    @Input
+    public abstract ListProperty<String> getCommands();
+
+    @Input
+    public abstract Property<Duration> getMeasureDuration();
+
+    @Input
+    public abstract Property<Duration> getReadyTimeout();
+
+    @Input
+    public abstract Property<Duration> getCommandTimeout();
+
+    @Input
+    public abstract Property<String> getStopCommand();
+
+    @Input
+    public abstract Property<Duration> getShutdownTimeout();
+
+    // Internal, every execution measures anew
+    @Internal
+    public abstract RegularFileProperty getReportFile();
+
+    @Internal
+    public abstract RegularFileProperty getLogFile();
+
+    @InputFiles
+    @Classpath
+    public abstract ConfigurableFileCollection getJacksonClasspath();
+
+    @Inject
+    public abstract WorkerExecutor getWorkerExecutor();
+
+    @TaskAction
+    public void benchmark() throws IOException {
+        var recorder = new BenchmarkRecorder();
+        var report = new LinkedHashMap<String, Object>();
+        var failures = new ArrayList<String>();
+        report.put("benchmark", getBenchmarkName().get());
+
+        try {
+            run(recorder, report, failures);
+        } finally {
+            // Also written when the benchmark failed or was interrupted midway, so the results
+            // so far are kept
+            report.put("startup", recorder.startupReport());
+            report.put("ticks", recorder.ticksReport());
+            report.put("jvm", recorder.jvmReport());
+            writeReport(report);
+        }
+
+        if (!failures.isEmpty()) {
+            throw new GradleException("Benchmark " + getBenchmarkName().get() + " failed, see " +
+                    getLogFile().get().getAsFile() + System.lineSeparator() + String.join(System.lineSeparator(), failures));
+        }
+    }
+
+    private void run(BenchmarkRecorder recorder, Map<String, Object> report, List<String> failures) throws IOException {
+        Process process = null;
+        Thread shutdownHook = null;
+
+        try (var bridge = new LocalBridgeServer(recorder)) {
+            bridge.startAndWait();
+
+            long start = System.nanoTime();
+            process = start(bridge.getEnvironment());
+
+            shutdownHook = new Thread(process::destroyForcibly, "HytaleDev-BenchmarkShutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+            awaitReady(recorder, process);
+            long readyNanos = System.nanoTime() - start;
+            recorder.startMeasuring();
+
+            getLogger().lifecycle("Server ready after {} ms", BenchmarkRecorder.millis(readyNanos));
+            report.put("readyMillis", BenchmarkRecorder.millis(readyNanos));
+
+            var commands = new ArrayList<Map<String, Object>>();
+            report.put("commands", commands);
+            executeCommands(bridge, process, commands, failures);
+            if (failures.isEmpty()) {
+                awaitQuietly(process.onExit(), getMeasureDuration().get());
+            }
+            recorder.stopMeasuring();
+
+            if (!process.isAlive()) {
+                failures.add("Server exited with code " + process.exitValue() + " during the benchmark");
+            }
+
+            long stopNanos = System.nanoTime();
+            stop(bridge, process);
+            report.put("shutdownMillis", BenchmarkRecorder.millis(System.nanoTime() - stopNanos));
+            // Still alive if it survived being killed as well
+            report.put("exitCode", process.isAlive() ? "still running" : process.exitValue());
+        } finally {
+            if (process != null) {
+                process.destroyForcibly();
+            }
+            if (shutdownHook != null) {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            }
+        }
+    }
+
+    private Process start(Map<String, String> bridgeEnvironment) throws IOException {
+        var workingDirectory = getWorkingDirectory().get().getAsFile();
+        Files.createDirectories(workingDirectory.toPath());
+
+        var logFile = getLogFile().get().getAsFile();
+        Files.createDirectories(logFile.toPath().getParent());
+
+        var command = new ArrayList<String>();
+        command.add(getJavaLauncher().get().getExecutablePath().getAsFile().getAbsolutePath());
+        command.addAll(getJvmArguments().get());
+        command.add("-cp");
+        command.add(getClasspath().getAsPath());
+        command.add(getMainClass().get());
+        command.addAll(getArguments().get());
+
+        var builder = new ProcessBuilder(command)
+                .directory(workingDirectory)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile);
+        builder.environment().putAll(getEnvironment().get());
+        builder.environment().putAll(bridgeEnvironment);
+        builder.environment().put(
+                getAgentConfigurationEnvironmentVariable().get(),
+                getAgentConfigurationFile().get().getAsFile().getAbsolutePath()
+        );
+
+        return builder.start();
+    }
+
+    private void awaitReady(BenchmarkRecorder recorder, Process process) {
+        var timeout = getReadyTimeout().get();
+        awaitQuietly(CompletableFuture.anyOf(recorder.getReady(), process.onExit()), timeout);
+
+        if (recorder.getReady().isDone()) {
+            return;
+        } else if (!process.isAlive()) {
+            throw new GradleException("Server exited with code " + process.exitValue() +
+                    " before it became ready, see " + getLogFile().get().getAsFile());
+        }
+
+        throw new GradleException("Server did not become ready within " + timeout.toSeconds() +
+                " seconds, see " + getLogFile().get().getAsFile());
+    }
+
+    private void executeCommands(
+            LocalBridgeServer bridge,
+            Process process,
+            List<Map<String, Object>> results,
+            List<String> failures
+    ) {
+        var timeout = getCommandTimeout().get();
+
+        for (var command : getCommands().get()) {
+            var result = new LinkedHashMap<String, Object>();
+            result.put("command", command);
+            results.add(result);
+
+            long start = System.nanoTime();
+            var response = bridge.request(IdeMessage.newBuilder()
+                    .setExecuteCommand(ExecuteCommandRequest.newBuilder().setCommand(command)));
+
+            String error;
+            try {
+                var message = response.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                result.put("roundTripMillis", BenchmarkRecorder.millis(System.nanoTime() - start));
+
+                if (message.getPayloadCase() == AgentMessage.PayloadCase.EXECUTE_COMMAND_RESPONSE) {
+                    result.put("millis", BenchmarkRecorder.millis(message.getExecuteCommandResponse().getDurationNanos()));
+                    error = message.getExecuteCommandResponse().getError();
+                } else if (message.getPayloadCase() == AgentMessage.PayloadCase.REQUEST_REJECTED) {
+                    error = "Rejected by the server: " + message.getRequestRejected().getReason();
+                } else {
+                    error = "Unexpected response " + message.getPayloadCase();
+                }
+            } catch (TimeoutException e) {
+                error = "Did not complete within " + timeout.toSeconds() + " seconds";
+            } catch (ExecutionException e) {
+                error = String.valueOf(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GradleException("Interrupted while running benchmark commands", e);
+            }
+
+            if (!error.isEmpty()) {
+                result.put("error", error);
+                failures.add("Command '" + command + "' failed: " + error);
+            }
+
+            getLogger().lifecycle("Command '{}': {}", command, error.isEmpty() ? result.get("millis") + " ms" : error);
+
+            if (!error.isEmpty() || !process.isAlive()) {
+                // Later commands most likely depend on the failed one
+                break;
+            }
+        }
+    }
+
+    private void stop(LocalBridgeServer bridge, Process process) {
+        if (!process.isAlive()) {
+            return;
+        }
+
+        var stopCommand = getStopCommand().get();
+        var sent = bridge.send(IdeMessage.newBuilder()
+                .setExecuteCommand(ExecuteCommandRequest.newBuilder().setCommand(stopCommand))
+                .build());
+        if (!sent) {
+            try {
+                var writer = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+                writer.write(stopCommand + System.lineSeparator());
+                writer.flush();
+            } catch (IOException e) {
+                process.destroy();
+            }
+        }
+
+        if (awaitQuietly(process.onExit(), getShutdownTimeout().get())) {
+            return;
+        }
+
+        getLogger().warn("Server did not stop in time, terminating it");
+        process.destroy();
+        if (!awaitQuietly(process.onExit(), KILL_TIMEOUT)) {
+            process.destroyForcibly();
+            awaitQuietly(process.onExit(), KILL_TIMEOUT);
+        }
+    }
+
+    private void writeReport(Map<String, Object> report) {
+        // Waiting for the worker fails on an interrupted thread, restore the flag afterwards
+        boolean interrupted = Thread.interrupted();
+        try {
+            submitReport(report);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void submitReport(Map<String, Object> report) {
+        getWorkerExecutor().classLoaderIsolation(
+                (classLoader) -> classLoader.getClasspath().setFrom(getJacksonClasspath())
+        ).submit(WriteJsonWorkAction.class, (params) -> {
+            params.getValue().set(report);
+            params.getTarget().set(getReportFile());
+            params.getPrettyPrint().set(true);
+        });
+
+        // The report has to exist before the task possibly fails
+        getWorkerExecutor().await();
+        getLogger().lifecycle("Benchmark report written to {}", getReportFile().get().getAsFile());
+    }
+
+    private static boolean awaitQuietly(CompletableFuture<?> future, Duration timeout) {
+        try {
+            future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while running the benchmark", e);
+        }
+    }
+}
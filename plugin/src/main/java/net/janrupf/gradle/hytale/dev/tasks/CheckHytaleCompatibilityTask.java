@@ -0,0 +1,222 @@
+package net.janrupf.gradle.hytale.dev.tasks;
+
+import net.janrupf.gradle.hytale.dev.symbols.ClassReferenceScanner;
+import net.janrupf.gradle.hytale.dev.symbols.SymbolIndexCache;
+import net.janrupf.gradle.hytale.dev.symbols.SymbolReference;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.gradle.work.ChangeType;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Checks that every reference of the plugin classes into the server exists in the server jar.
+ * <p>
+ * References are taken from the constant pools of the class files, see
+ * {@link ClassReferenceScanner}, and resolved against a {@link net.janrupf.gradle.hytale.dev.symbols.SymbolIndex}
+ * of the server jar, which is cached by jar hash in a directory shared between projects. A missing
+ * class, field or method would otherwise only show up as a linkage error once the code runs.
+ * <p>
+ * Changed class files are scanned in parallel and their references are kept in the state
+ * directory, so unchanged classes are not parsed again.
+ */
+@CacheableTask
+public abstract class CheckHytaleCompatibilityTask extends DefaultTask {
+    @Incremental
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getPluginClasses();
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getServerJar();
+
+    /**
+     * Package prefixes of the server classes to check references to, as internal names.
+     *
+     * @return the prefixes, {@code com/hypixel} by default
+     */
+    @Input
+    public abstract ListProperty<String> getPrefixes();
+
+    @Input
+    public abstract Property<Boolean> getIgnoreFailures();
+
+    @Internal
+    public abstract DirectoryProperty getCacheDirectory();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getStateDirectory();
+
+    @OutputFile
+    public abstract RegularFileProperty getReport();
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    @Inject
+    public CheckHytaleCompatibilityTask() {
+        getPrefixes().convention(List.of("com/hypixel"));
+        getIgnoreFailures().convention(false);
+    }
+
+    @TaskAction
+    public void check(InputChanges inputChanges) throws IOException {
+        long start = System.nanoTime();
+
+        var stateDirectory = getStateDirectory().get().getAsFile().toPath();
+        if (!inputChanges.isIncremental()) {
+            getFileSystemOperations().delete((spec) -> spec.delete(stateDirectory.toFile()));
+        }
+        Files.createDirectories(stateDirectory);
+
+        var changed = new ArrayList<ChangedClass>();
+        for (var change : inputChanges.getFileChanges(getPluginClasses())) {
+            if (change.getFileType() == FileType.DIRECTORY || !change.getNormalizedPath().endsWith(".class")) {
+                continue;
+            }
+
+            var state = stateDirectory.resolve(change.getNormalizedPath() + ".refs");
+            if (change.getChangeType() == ChangeType.REMOVED) {
+                Files.deleteIfExists(state);
+            } else {
+                changed.add(new ChangedClass(change.getFile(), state));
+            }
+        }
+
+        try {
+            changed.parallelStream().forEach(CheckHytaleCompatibilityTask::scan);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        var prefixes = getPrefixes().get();
+        var index = new SymbolIndexCache(getCacheDirectory().get().getAsFile().toPath())
+                .load(getServerJar().get().getAsFile().toPath(), prefixes);
+        var references = ClassReferenceScanner.collect(readStates(stateDirectory), prefixes);
+
+        var problems = new ArrayList<String>();
+        for (var entry : references.entrySet()) {
+            if (!entry.getKey().resolvesIn(index)) {
+                for (var user : entry.getValue()) {
+                    problems.add(user + " refers to missing " + entry.getKey());
+                }
+            }
+        }
+        problems.sort(null);
+
+        var report = getReport().get().getAsFile().toPath();
+        Files.createDirectories(report.getParent());
+        Files.write(report, problems, StandardCharsets.UTF_8);
+
+        getLogger().info(
+                "Checked {} server references, {} classes scanned, in {} ms",
+                references.size(),
+                changed.size(),
+                (System.nanoTime() - start) / 1_000_000
+        );
+
+        if (problems.isEmpty()) {
+            return;
+        }
+
+        var message = problems.size() + " reference(s) to missing server symbols, see " + report +
+                System.lineSeparator() + String.join(System.lineSeparator(), problems.subList(0, Math.min(problems.size(), 20)));
+        if (getIgnoreFailures().get()) {
+            getLogger().warn(message);
+        } else {
+            throw new GradleException(message);
+        }
+    }
+
+    private static void scan(ChangedClass changed) {
+        try {
+            var scanned = ClassReferenceScanner.scan(Files.readAllBytes(changed.classFile().toPath()));
+
+            // One tab separated line per record, the first field is the record type
+            var lines = new ArrayList<String>();
+            lines.add("N\t" + scanned.name());
+            lines.add("S\t" + scanned.superName());
+            for (var name : scanned.interfaces()) {
+                lines.add("I\t" + name);
+            }
+            for (var key : scanned.declared()) {
+                lines.add("D\t" + key);
+            }
+            for (var reference : scanned.references()) {
+                lines.add("R\t" + reference.kind() + "\t" + reference.owner() + "\t" + reference.name() + "\t" + reference.descriptor());
+            }
+
+            Files.createDirectories(changed.state().getParent());
+            Files.write(changed.state(), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan " + changed.classFile(), e);
+        }
+    }
+
+    private static List<ClassReferenceScanner.ScannedClass> readStates(Path stateDirectory) throws IOException {
+        List<Path> states;
+        try (Stream<Path> files = Files.walk(stateDirectory)) {
+            states = files.filter(Files::isRegularFile).toList();
+        }
+
+        try {
+            return states.parallelStream().map(CheckHytaleCompatibilityTask::readState).toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static ClassReferenceScanner.ScannedClass readState(Path state) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(state, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + state, e);
+        }
+
+        var name = "";
+        var superName = "";
+        var interfaces = new ArrayList<String>();
+        var declared = new HashSet<String>();
+        var references = new TreeSet<SymbolReference>();
+
+        for (var line : lines) {
+            var fields = line.split("\t", -1);
+            switch (fields[0]) {
+                case "N" -> name = fields[1];
+                case "S" -> superName = fields[1];
+                case "I" -> interfaces.add(fields[1]);
+                case "D" -> declared.add(fields[1]);
+                case "R" -> references.add(new SymbolReference(fields[1].charAt(0), fields[2], fields[3], fields[4]));
+                default -> throw new UncheckedIOException(new IOException("Corrupt compatibility state " + state));
+            }
+        }
+
+        return new ClassReferenceScanner.ScannedClass(name, superName, interfaces, declared, references);
+    }
+
+    private record ChangedClass(File classFile, Path state) {
+    }
+}
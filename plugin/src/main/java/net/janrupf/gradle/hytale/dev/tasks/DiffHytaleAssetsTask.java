@@ -0,0 +1,174 @@
+package net.janrupf.gradle.hytale.dev.tasks;
+
+import net.janrupf.gradle.hytale.dev.actions.DiffAssetDefinitionsWorkAction;
+import net.janrupf.gradle.hytale.dev.assets.AssetIndex;
+import net.janrupf.gradle.hytale.dev.assets.ZipCentralDirectory;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.*;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Compares the assets archive of a previous Hytale version with the current one.
+ * <p>
+ * Both central directories are read concurrently and entries are compared by CRC-32 and size,
+ * nothing is extracted. The report directory receives the sorted lists {@code added.txt},
+ * {@code removed.txt} and {@code modified.txt}. Modified definitions are additionally compared
+ * value by value by workers, which read them straight from both archives, the result is written
+ * to {@code definitions.txt}.
+ */
+@CacheableTask
+public abstract class DiffHytaleAssetsTask extends DefaultTask {
+    private static final int BATCH_SIZE = 64;
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getPreviousAssetsZip();
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getAssetsZip();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getReportDirectory();
+
+    @InputFiles
+    @Classpath
+    public abstract ConfigurableFileCollection getJacksonClasspath();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    @TaskAction
+    public void diff() throws IOException {
+        var reportDirectory = getReportDirectory().get().getAsFile().toPath();
+        getFileSystemOperations().delete((spec) -> spec.delete(reportDirectory.toFile()));
+        Files.createDirectories(reportDirectory);
+
+        var previousFuture = readAsync(getPreviousAssetsZip().get().getAsFile().toPath());
+        var currentFuture = readAsync(getAssetsZip().get().getAsFile().toPath());
+
+        ZipCentralDirectory previous;
+        ZipCentralDirectory current;
+        try {
+            previous = previousFuture.join();
+            current = currentFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+
+        var added = new ArrayList<String>();
+        var removed = new ArrayList<String>();
+        var modified = new ArrayList<String>();
+
+        // The central directory covers every CRC and size, equal hashes mean equal contents
+        if (!previous.getHash().equals(current.getHash())) {
+            var previousEntries = byName(previous);
+            var currentEntries = byName(current);
+
+            for (var entry : currentEntries.values()) {
+                var old = previousEntries.get(entry.name());
+                if (old == null) {
+                    added.add(entry.name());
+                } else if (old.crc() != entry.crc() || old.size() != entry.size()) {
+                    modified.add(entry.name());
+                }
+            }
+
+            for (var name : previousEntries.keySet()) {
+                if (!currentEntries.containsKey(name)) {
+                    removed.add(name);
+                }
+            }
+        }
+
+        Files.write(reportDirectory.resolve("added.txt"), added, StandardCharsets.UTF_8);
+        Files.write(reportDirectory.resolve("removed.txt"), removed, StandardCharsets.UTF_8);
+        Files.write(reportDirectory.resolve("modified.txt"), modified, StandardCharsets.UTF_8);
+
+        var definitions = modified.stream().filter(AssetIndex::isDefinition).toList();
+        diffDefinitions(definitions, reportDirectory.resolve("definitions.txt"));
+
+        getLogger().lifecycle(
+                "{} assets added, {} removed, {} modified ({} definitions), see {}",
+                added.size(),
+                removed.size(),
+                modified.size(),
+                definitions.size(),
+                reportDirectory
+        );
+    }
+
+    private void diffDefinitions(List<String> definitions, Path report) throws IOException {
+        var temporaryDirectory = getTemporaryDir().toPath();
+        var queue = getWorkerExecutor().classLoaderIsolation(
+                (classLoader) -> classLoader.getClasspath().from(getJacksonClasspath())
+        );
+
+        var batches = new ArrayList<File>();
+        for (int start = 0; start < definitions.size(); start += BATCH_SIZE) {
+            var batchNames = definitions.subList(start, Math.min(start + BATCH_SIZE, definitions.size()));
+            var batchTarget = temporaryDirectory.resolve("definitions-" + batches.size() + ".txt").toFile();
+            batches.add(batchTarget);
+
+            queue.submit(DiffAssetDefinitionsWorkAction.class, (params) -> {
+                params.getPreviousAssetsZip().set(getPreviousAssetsZip());
+                params.getAssetsZip().set(getAssetsZip());
+                params.getNames().set(batchNames);
+                params.getTarget().set(batchTarget);
+            });
+        }
+
+        queue.await();
+
+        // Batches are in name order, concatenating them keeps the report sorted
+        Files.write(report, new byte[0]);
+        for (var batch : batches) {
+            Files.write(report, Files.readAllBytes(batch.toPath()), StandardOpenOption.APPEND);
+            Files.delete(batch.toPath());
+        }
+    }
+
+    private static CompletableFuture<ZipCentralDirectory> readAsync(Path zip) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ZipCentralDirectory.read(zip);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + zip, e);
+            }
+        });
+    }
+
+    private static Map<String, ZipCentralDirectory.Entry> byName(ZipCentralDirectory directory) {
+        var entries = new TreeMap<String, ZipCentralDirectory.Entry>();
+        for (var entry : directory.getEntries()) {
+            entries.put(entry.name(), entry);
+        }
+
+        return entries;
+    }
+}
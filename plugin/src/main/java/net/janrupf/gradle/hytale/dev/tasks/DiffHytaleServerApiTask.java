@@ -0,0 +1,252 @@
+package net.janrupf.gradle.hytale.dev.tasks;
+
+import net.janrupf.gradle.hytale.dev.symbols.ClassReferenceScanner;
+import net.janrupf.gradle.hytale.dev.symbols.SymbolIndex;
+import net.janrupf.gradle.hytale.dev.symbols.SymbolIndexCache;
+import net.janrupf.gradle.hytale.dev.symbols.SymbolReference;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Compares the API of a previous server jar with the current one.
+ * <p>
+ * Both jars are indexed concurrently, see {@link SymbolIndex}, and indexes are cached by jar hash
+ * in a directory shared between projects. Public classes and their public and protected members
+ * are then compared in parallel. The report lists removed ({@code -}), added ({@code +}) and
+ * changed ({@code ~}) symbols, where changed means different modifiers or different super
+ * types.
+ * <p>
+ * The plugin classes are scanned for references into the server as well. Every reference which
+ * resolved against the previous jar but not against the current one will fail to link at runtime
+ * and is listed first, together with the plugin classes using it.
+ */
+@CacheableTask
+public abstract class DiffHytaleServerApiTask extends DefaultTask {
+    private static final int COMPARED_MODIFIERS = Modifier.PUBLIC | Modifier.PROTECTED | Modifier.STATIC |
+            Modifier.FINAL | Modifier.ABSTRACT | Modifier.INTERFACE;
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getPreviousServerJar();
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getServerJar();
+
+    /**
+     * Package prefixes of the classes to compare, as internal names.
+     *
+     * @return the prefixes, {@code com/hypixel} by default
+     */
+    @Input
+    public abstract ListProperty<String> getPrefixes();
+
+    @InputFiles
+    @Classpath
+    public abstract ConfigurableFileCollection getPluginClasses();
+
+    @Internal
+    public abstract DirectoryProperty getCacheDirectory();
+
+    @OutputFile
+    public abstract RegularFileProperty getReport();
+
+    public DiffHytaleServerApiTask() {
+        getPrefixes().convention(List.of("com/hypixel"));
+    }
+
+    @TaskAction
+    public void diff() throws IOException {
+        var cache = new SymbolIndexCache(getCacheDirectory().get().getAsFile().toPath());
+        var prefixes = getPrefixes().get();
+        var previousJar = getPreviousServerJar().get().getAsFile().toPath();
+        var currentJar = getServerJar().get().getAsFile().toPath();
+
+        long start = System.nanoTime();
+        var previousFuture = CompletableFuture.supplyAsync(unchecked(() -> cache.load(previousJar, prefixes)));
+        var currentFuture = CompletableFuture.supplyAsync(unchecked(() -> cache.load(currentJar, prefixes)));
+        var referencesFuture = CompletableFuture.supplyAsync(unchecked(() -> scanPluginClasses(prefixes)));
+
+        SymbolIndex previous;
+        SymbolIndex current;
+        Map<SymbolReference, Set<String>> references;
+        try {
+            previous = previousFuture.join();
+            current = currentFuture.join();
+            references = referencesFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+
+        var changes = compare(previous, current);
+
+        var broken = new TreeMap<SymbolReference, Set<String>>();
+        references.forEach((reference, users) -> {
+            if (reference.resolvesIn(previous) && !reference.resolvesIn(current)) {
+                broken.put(reference, users);
+            }
+        });
+
+        writeReport(changes, broken);
+
+        getLogger().lifecycle(
+                "{} server API changes, {} removed symbols used by the plugin, compared in {} ms, see {}",
+                changes.size(),
+                broken.size(),
+                (System.nanoTime() - start) / 1_000_000,
+                getReport().get().getAsFile()
+        );
+
+        broken.forEach((reference, users) -> getLogger().warn(
+                "Removed {} is used by {}",
+                reference,
+                String.join(", ", users)
+        ));
+    }
+
+    private static List<String> compare(SymbolIndex previous, SymbolIndex current) {
+        var names = new TreeSet<String>();
+        for (var symbol : previous.getClasses()) {
+            names.add(symbol.name());
+        }
+        for (var symbol : current.getClasses()) {
+            names.add(symbol.name());
+        }
+
+        // Every class is compared on its own, the results are concatenated in name order
+        return names.parallelStream()
+                .map((name) -> compare(previous.getClass(name), current.getClass(name)))
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    private static List<String> compare(SymbolIndex.ClassSymbol before, SymbolIndex.ClassSymbol after) {
+        var isApiBefore = before != null && before.isApi();
+        var isApiAfter = after != null && after.isApi();
+
+        if (!isApiBefore && !isApiAfter) {
+            return List.of();
+        } else if (!isApiAfter) {
+            return List.of("- class " + before.name());
+        } else if (!isApiBefore) {
+            return List.of("+ class " + after.name());
+        }
+
+        var changes = new ArrayList<String>();
+        var name = after.name();
+
+        if ((before.access() & COMPARED_MODIFIERS) != (after.access() & COMPARED_MODIFIERS)) {
+            changes.add("~ class " + name + " " + modifiers(before.access()) + " -> " + modifiers(after.access()));
+        }
+        if (!before.superName().equals(after.superName())) {
+            changes.add("~ class " + name + " extends " + before.superName() + " -> " + after.superName());
+        }
+        if (!new TreeSet<>(before.interfaces()).equals(new TreeSet<>(after.interfaces()))) {
+            changes.add("~ class " + name + " implements " + before.interfaces() + " -> " + after.interfaces());
+        }
+
+        var membersAfter = new HashMap<String, SymbolIndex.MemberSymbol>();
+        for (var member : after.members()) {
+            membersAfter.put(memberKey(member), member);
+        }
+
+        var memberChanges = new TreeSet<String>();
+        for (var member : before.members()) {
+            var match = membersAfter.remove(memberKey(member));
+            if (match == null) {
+                memberChanges.add("- " + describe(name, member));
+            } else if ((member.access() & COMPARED_MODIFIERS) != (match.access() & COMPARED_MODIFIERS)) {
+                memberChanges.add("~ " + describe(name, member) + " " + modifiers(member.access()) + " -> " + modifiers(match.access()));
+            }
+        }
+        for (var member : membersAfter.values()) {
+            memberChanges.add("+ " + describe(name, member));
+        }
+
+        changes.addAll(memberChanges);
+        return changes;
+    }
+
+    private Map<SymbolReference, Set<String>> scanPluginClasses(List<String> prefixes) {
+        var classFiles = new ArrayList<File>();
+        getPluginClasses().getAsFileTree().visit((details) -> {
+            if (!details.isDirectory() && details.getName().endsWith(".class")) {
+                classFiles.add(details.getFile());
+            }
+        });
+
+        var classes = classFiles.parallelStream().map((classFile) -> {
+            try {
+                return ClassReferenceScanner.scan(Files.readAllBytes(classFile.toPath()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + classFile, e);
+            }
+        }).toList();
+
+        return ClassReferenceScanner.collect(classes, prefixes);
+    }
+
+    private void writeReport(List<String> changes, Map<SymbolReference, Set<String>> broken) throws IOException {
+        var lines = new ArrayList<String>();
+        for (var entry : broken.entrySet()) {
+            lines.add("! " + entry.getKey() + " used by " + String.join(", ", entry.getValue()));
+        }
+        lines.addAll(changes);
+
+        var report = getReport().get().getAsFile().toPath();
+        Files.createDirectories(report.getParent());
+        Files.write(report, lines, StandardCharsets.UTF_8);
+    }
+
+    private static String memberKey(SymbolIndex.MemberSymbol member) {
+        return member.kind() + member.name() + member.descriptor();
+    }
+
+    private static String describe(String owner, SymbolIndex.MemberSymbol member) {
+        return new SymbolReference(member.kind(), owner, member.name(), member.descriptor()).toString();
+    }
+
+    private static String modifiers(int access) {
+        var modifiers = Modifier.toString(access & COMPARED_MODIFIERS);
+        return modifiers.isEmpty() ? "package-private" : modifiers;
+    }
+
+    private static <T> Supplier<T> unchecked(IOSupplier<T> supplier) {
+        return () -> {
+            try {
+                return supplier.get();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+}
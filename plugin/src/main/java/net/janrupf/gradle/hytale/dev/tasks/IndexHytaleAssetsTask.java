@@ -0,0 +1,77 @@
+package net.janrupf.gradle.hytale.dev.tasks;
+
+import net.janrupf.gradle.hytale.dev.assets.AssetIndex;
+import net.janrupf.gradle.hytale.dev.assets.AssetIndexBuilder;
+import net.janrupf.gradle.hytale.dev.assets.ZipCentralDirectory;
+import net.janrupf.gradle.hytale.dev.util.CacheUtil;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Builds an {@link AssetIndex} of the Hytale assets archive.
+ * <p>
+ * Indexes are additionally kept in a cache directory shared between projects, keyed by the
+ * hash of the archive's central directory. Switching between Hytale versions or cleaning the
+ * build therefore only costs reading the central directory, not decompressing the definitions
+ * again.
+ */
+@CacheableTask
+public abstract class IndexHytaleAssetsTask extends DefaultTask {
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getAssetsZip();
+
+    @Internal
+    public abstract DirectoryProperty getCacheDirectory();
+
+    @OutputFile
+    public abstract RegularFileProperty getIndexFile();
+
+    @TaskAction
+    public void index() throws IOException {
+        var assetsZip = getAssetsZip().get().getAsFile().toPath();
+        var indexFile = getIndexFile().get().getAsFile().toPath();
+        Files.createDirectories(indexFile.getParent());
+
+        var hash = ZipCentralDirectory.read(assetsZip).getHash();
+        var cacheDirectory = getCacheDirectory().get().getAsFile().toPath();
+        var cachedIndex = cacheDirectory.resolve(hash + ".idx");
+
+        if (isUsable(cachedIndex, hash)) {
+            getLogger().info("Using cached asset index {}", cachedIndex);
+            Files.copy(cachedIndex, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+
+        long start = System.nanoTime();
+        var index = AssetIndexBuilder.build(assetsZip);
+        getLogger().lifecycle(
+                "Indexed {} assets in {} ms",
+                index.getEntries().size(),
+                (System.nanoTime() - start) / 1_000_000
+        );
+
+        index.write(indexFile);
+        CacheUtil.publish(cachedIndex, (file) -> Files.copy(indexFile, file, StandardCopyOption.REPLACE_EXISTING));
+    }
+
+    private boolean isUsable(Path cachedIndex, String hash) {
+        if (!Files.isRegularFile(cachedIndex)) {
+            return false;
+        }
+
+        try {
+            return AssetIndex.read(cachedIndex).getZipHash().equals(hash);
+        } catch (IOException | RuntimeException e) {
+            getLogger().warn("Ignoring unreadable cached asset index {}: {}", cachedIndex, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package net.janrupf.gradle.hytale.dev.tasks;
+
+import net.janrupf.gradle.hytale.dev.assets.ReproducibleZipWriter;
+import net.janrupf.gradle.hytale.dev.assets.ZipCentralDirectory;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the plugin jar from a jar without assets and the asset files.
+ * <p>
+ * The entries of the base jar are copied without recompressing them. Assets are deflated in
+ * parallel, files in formats which are compressed already, like PNG and OGG, are stored as is,
+ * and so is any file deflate does not shrink. Files with identical content are compressed only
+ * once. Entries are written in a fixed order with fixed timestamps, so the same inputs always
+ * produce the same jar.
+ */
+@CacheableTask
+public abstract class PackageHytalePluginTask extends DefaultTask {
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getBaseJar();
+
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getAssets();
+
+    /**
+     * Extensions of files which are stored without compression, without the dot.
+     *
+     * @return the extensions
+     */
+    @Input
+    public abstract ListProperty<String> getStoredExtensions();
+
+    @Input
+    public abstract Property<Integer> getCompressionLevel();
+
+    @Internal
+    public abstract Property<Integer> getThreads();
+
+    @OutputFile
+    public abstract RegularFileProperty getOutputJar();
+
+    public PackageHytalePluginTask() {
+        getStoredExtensions().convention(List.of("png", "ogg", "jpg", "jpeg"));
+        getCompressionLevel().convention(Deflater.BEST_COMPRESSION);
+        getThreads().convention(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TaskAction
+    public void pack() throws IOException {
+        var assets = collectAssets();
+        var contents = hashContents(assets);
+
+        // Count the uses of each content, compressed data is kept until its last use
+        var remainingUses = new HashMap<String, Integer>();
+        for (var hash : contents.values()) {
+            remainingUses.merge(hash, 1, Integer::sum);
+        }
+
+        var storedExtensions = new TreeSet<>(getStoredExtensions().get());
+        var level = getCompressionLevel().get();
+        int threads = Math.max(1, getThreads().get());
+        var executor = Executors.newFixedThreadPool(threads);
+
+        var outputJar = getOutputJar().get().getAsFile().toPath();
+        Files.createDirectories(outputJar.getParent());
+
+        long start = System.nanoTime();
+        int compressed = 0;
+        int deduplicated = 0;
+
+        try (
+                var writer = new ReproducibleZipWriter(outputJar);
+                var baseJar = FileChannel.open(getBaseJar().get().getAsFile().toPath(), StandardOpenOption.READ)
+        ) {
+            for (var entry : ZipCentralDirectory.read(getBaseJar().get().getAsFile().toPath()).getEntries()) {
+                writer.copyEntry(baseJar, entry);
+            }
+
+            for (var directory : directories(assets.keySet())) {
+                if (!writer.contains(directory)) {
+                    writer.addDirectory(directory);
+                }
+            }
+
+            // Only a few entries are in flight, so memory use does not scale with the asset count
+            var pending = new ArrayDeque<PendingEntry>();
+            var shared = new HashMap<String, Future<CompressedData>>();
+
+            for (var asset : assets.entrySet()) {
+                var name = asset.getKey();
+                if (writer.contains(name)) {
+                    getLogger().warn("Asset {} is also contained in the base jar, keeping the base jar entry", name);
+                    continue;
+                }
+
+                var hash = contents.get(name);
+                var future = shared.get(hash);
+                if (future != null) {
+                    deduplicated++;
+                } else {
+                    var store = storedExtensions.contains(extension(name));
+                    future = executor.submit(() -> compress(asset.getValue(), store, level));
+                    compressed++;
+
+                    if (remainingUses.get(hash) > 1) {
+                        shared.put(hash, future);
+                    }
+                }
+
+                pending.add(new PendingEntry(name, hash, future));
+                if (pending.size() >= threads * 4) {
+                    write(writer, pending.poll(), shared, remainingUses);
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                write(writer, pending.poll(), shared, remainingUses);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        getLogger().info(
+                "Packaged {} assets ({} compressed, {} duplicates) in {} ms",
+                assets.size(),
+                compressed,
+                deduplicated,
+                (System.nanoTime() - start) / 1_000_000
+        );
+    }
+
+    private TreeMap<String, File> collectAssets() {
+        // Sorted by name, the order of the file tree depends on the file system
+        var assets = new TreeMap<String, File>();
+        getAssets().getAsFileTree().visit((details) -> {
+            if (!details.isDirectory()) {
+                assets.put(details.getRelativePath().getPathString(), details.getFile());
+            }
+        });
+
+        return assets;
+    }
+
+    private static TreeSet<String> directories(Iterable<String> names) {
+        var directories = new TreeSet<String>();
+        for (var name : names) {
+            for (int slash = name.indexOf('/'); slash >= 0; slash = name.indexOf('/', slash + 1)) {
+                directories.add(name.substring(0, slash + 1));
+            }
+        }
+
+        return directories;
+    }
+
+    private static Map<String, String> hashContents(Map<String, File> assets) {
+        var contents = new HashMap<String, String>();
+        assets.entrySet().parallelStream()
+                .map((asset) -> Map.entry(asset.getKey(), hash(asset.getValue())))
+                .forEachOrdered((entry) -> contents.put(entry.getKey(), entry.getValue()));
+        return contents;
+    }
+
+    private static String hash(File file) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Files.readAllBytes(file.toPath()));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static CompressedData compress(File file, boolean store, int level) throws IOException {
+        var data = Files.readAllBytes(file.toPath());
+
+        var crc = new CRC32();
+        crc.update(data);
+
+        if (!store && data.length > 0) {
+            var deflater = new Deflater(level, true);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+
+                // Anything larger than the input is stored instead
+                var buffer = new byte[data.length];
+                int length = 0;
+                while (!deflater.finished() && length < buffer.length) {
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                }
+
+                if (deflater.finished() && length < data.length) {
+                    return new CompressedData(ReproducibleZipWriter.DEFLATED, (int) crc.getValue(), data.length, ByteBuffer.wrap(buffer, 0, length));
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+
+        return new CompressedData(ReproducibleZipWriter.STORED, (int) crc.getValue(), data.length, ByteBuffer.wrap(data));
+    }
+
+    private static void write(
+            ReproducibleZipWriter writer,
+            PendingEntry entry,
+            Map<String, Future<CompressedData>> shared,
+            Map<String, Integer> remainingUses
+    ) throws IOException {
+        CompressedData data;
+        try {
+            data = entry.data().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing " + entry.name(), e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress " + entry.name(), e.getCause());
+        }
+
+        writer.addEntry(entry.name(), data.method(), data.crc(), data.size(), data.data().remaining(), data.data().duplicate());
+
+        if (remainingUses.merge(entry.hash(), -1, Integer::sum) == 0) {
+            shared.remove(entry.hash());
+        }
+    }
+
+    private static String extension(String name) {
+        var dot = name.lastIndexOf('.');
+        return dot > name.lastIndexOf('/') ? name.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private record PendingEntry(String name, String hash, Future<CompressedData> data) {
+    }
+
+    private record CompressedData(int method, int crc, long size, ByteBuffer data) {
+    }
+}
@@ -2,14 +2,19 @@ package net.janrupf.gradle.hytale.dev.tasks;
 
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.*;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.*;
 import org.gradle.work.DisableCachingByDefault;
 
+import javax.inject.Inject;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Properties;
 
@@ -31,6 +36,27 @@ public abstract class PrepareHytaleServerRunTask extends DefaultTask {
     @OutputFile
     public abstract RegularFileProperty getAgentConfigurationFile();
 
+    @Input
+    public abstract Property<Duration> getTelemetryInterval();
+
+    @Input
+    public abstract Property<Boolean> getProfile();
+
+    @Internal
+    public abstract DirectoryProperty getRecordingsDirectory();
+
+    @Input
+    public abstract Property<Boolean> getTickProfiler();
+
+    @Input
+    public abstract Property<Duration> getTickMetricsInterval();
+
+    @Input
+    public abstract ListProperty<String> getTickLoopMethods();
+
+    @Input
+    public abstract ListProperty<String> getTickSystemMethods();
+
     private final Property<FileSystemLocation> assetsRedirectSource;
 
     @Internal
@@ -52,6 +78,20 @@ public abstract class PrepareHytaleServerRunTask extends DefaultTask {
         return bridgeJar;
     }
 
+    private final Property<FileSystemLocation> assetIndex;
+
+    @Internal
+    public Property<FileSystemLocation> getAssetIndex() {
+        return assetIndex;
+    }
+
+    private final Property<FileSystemLocation> reloadRequestFile;
+
+    @Internal
+    public Property<FileSystemLocation> getReloadRequestFile() {
+        return reloadRequestFile;
+    }
+
     @Input
     public Provider<String> getAssetsRedirectSourcePath() {
         return getAssetsRedirectSource().map((location) -> location.getAsFile().toPath().toAbsolutePath().toString());
@@ -68,10 +108,30 @@ public abstract class PrepareHytaleServerRunTask extends DefaultTask {
         return getBridgeJar().map((location) -> location.getAsFile().toPath().toAbsolutePath().toString());
     }
 
-    public PrepareHytaleServerRunTask() {
-        this.assetsRedirectSource = getProject().getObjects().property(FileSystemLocation.class);
-        this.assetsRedirectTarget = getProject().getObjects().property(FileSystemLocation.class);
-        this.bridgeJar = getProject().getObjects().property(FileSystemLocation.class);
+    @Input
+    @Optional
+    public Provider<String> getAssetIndexPath() {
+        return getAssetIndex().map((location) -> location.getAsFile().toPath().toAbsolutePath().toString());
+    }
+
+    @Input
+    public Provider<String> getRecordingsDirectoryPath() {
+        return getRecordingsDirectory().map((directory) -> directory.getAsFile().toPath().toAbsolutePath().toString());
+    }
+
+    @Input
+    @Optional
+    public Provider<String> getReloadRequestFilePath() {
+        return getReloadRequestFile().map((location) -> location.getAsFile().toPath().toAbsolutePath().toString());
+    }
+
+    @Inject
+    public PrepareHytaleServerRunTask(ObjectFactory objects) {
+        this.assetsRedirectSource = objects.property(FileSystemLocation.class);
+        this.assetsRedirectTarget = objects.property(FileSystemLocation.class);
+        this.bridgeJar = objects.property(FileSystemLocation.class);
+        this.assetIndex = objects.property(FileSystemLocation.class);
+        this.reloadRequestFile = objects.property(FileSystemLocation.class);
     }
 
     @TaskAction
@@ -95,6 +155,32 @@ public abstract class PrepareHytaleServerRunTask extends DefaultTask {
             properties.setProperty("bridge", bridgeJarPath.get());
         }
 
+        var assetIndexPath = getAssetIndexPath();
+        if (assetIndexPath.isPresent()) {
+            properties.setProperty("asset.index", assetIndexPath.get());
+        }
+
+        var reloadRequestFilePath = getReloadRequestFilePath();
+        if (reloadRequestFilePath.isPresent()) {
+            properties.setProperty("reload.request", reloadRequestFilePath.get());
+        }
+
+        if (getProfile().get()) {
+            // JFR does not create the directory of recordings started from the command line
+            var recordingsDirectory = getRecordingsDirectoryPath().get();
+            Files.createDirectories(Paths.get(recordingsDirectory));
+            properties.setProperty("jfr.recordings", recordingsDirectory);
+        }
+
+        properties.setProperty("telemetry.interval", Long.toString(getTelemetryInterval().get().toMillis()));
+
+        if (getTickProfiler().get()) {
+            properties.setProperty("profile.ticks", "true");
+            properties.setProperty("profile.ticks.interval", Long.toString(getTickMetricsInterval().get().toMillis()));
+            properties.setProperty("profile.ticks.loops", String.join(",", getTickLoopMethods().get()));
+            properties.setProperty("profile.ticks.systems", String.join(",", getTickSystemMethods().get()));
+        }
+
         try (var writer = Files.newBufferedWriter(
                 getAgentConfigurationFile().get().getAsFile().toPath()
         )) {
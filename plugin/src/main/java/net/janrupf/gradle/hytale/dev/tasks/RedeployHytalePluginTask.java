@@ -0,0 +1,204 @@
+package net.janrupf.gradle.hytale.dev.tasks;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.gradle.work.DisableCachingByDefault;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * Task that deploys the plugin jar into the mods directory of a run and asks
+ * a running server to reload it.
+ * <p>
+ * The running server picks up the reload request file through the bridge, which
+ * then executes the configured reload command. If no server is running, the request
+ * is discarded by the next server start.
+ * <p>
+ * When a server is watching for requests, the task waits for it to acknowledge the
+ * reload and reports the time from the last source edit until the plugin was reloaded,
+ * or fails if the server could not reload the plugin. Combined with {@code --continuous} this gives an edit, rebuild and reload loop.
+ */
+@DisableCachingByDefault(because = "Deploys into a live server directory")
+public abstract class RedeployHytalePluginTask extends DefaultTask {
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getPluginJar();
+
+    @OutputFile
+    public abstract RegularFileProperty getDeployedJar();
+
+    @Internal
+    public abstract RegularFileProperty getReloadRequestFile();
+
+    @Input
+    public abstract Property<String> getReloadCommand();
+
+    /**
+     * The plugin sources, only used to determine when the last edit happened.
+     *
+     * @return the source files
+     */
+    @Internal
+    public abstract ConfigurableFileCollection getSources();
+
+    @Internal
+    public abstract RegularFileProperty getReloadResultFile();
+
+    @Internal
+    public abstract RegularFileProperty getReloadWatcherFile();
+
+    @Internal
+    public abstract RegularFileProperty getReloadTimingsFile();
+
+    @Internal
+    public abstract Property<Duration> getReloadTimeout();
+
+    public RedeployHytalePluginTask() {
+        getReloadTimeout().convention(Duration.ofSeconds(30));
+    }
+
+    @TaskAction
+    public void redeploy() throws IOException, InterruptedException {
+        var edited = latestModification();
+        var pluginJar = getPluginJar().get().getAsFile().toPath();
+        var deployedJar = getDeployedJar().get().getAsFile().toPath();
+
+        // The server may still have the old jar open, replace it atomically so the
+        // old plugin class loader keeps seeing a consistent file until it is closed
+        atomicReplace(deployedJar, (temporary) -> Files.copy(pluginJar, temporary, StandardCopyOption.REPLACE_EXISTING));
+
+        var resultFile = getReloadResultFile().get().getAsFile().toPath();
+        Files.deleteIfExists(resultFile);
+
+        var requested = System.currentTimeMillis();
+
+        var properties = new Properties();
+        properties.setProperty("command", getReloadCommand().get());
+        properties.setProperty("requested", Long.toString(requested));
+        properties.setProperty("edited", Long.toString(edited));
+
+        var requestFile = getReloadRequestFile().get().getAsFile().toPath();
+        atomicReplace(requestFile, (temporary) -> {
+            try (var writer = Files.newBufferedWriter(temporary)) {
+                properties.store(writer, "Hytale Dev Reload Request");
+            }
+        });
+
+        if (!isServerWatching()) {
+            getLogger().lifecycle("Deployed {}, no running server is watching for reloads", deployedJar.getFileName());
+            return;
+        }
+
+        var result = awaitResult(resultFile);
+        if (result == null) {
+            getLogger().warn("Deployed {}, but the server did not acknowledge the reload within {}",
+                    deployedJar.getFileName(), getReloadTimeout().get());
+            return;
+        }
+
+        var completed = Long.parseLong(result.getProperty("completed"));
+        var buildMillis = requested - edited;
+        var reloadMillis = completed - requested;
+
+        var error = result.getProperty("error");
+        if (error != null) {
+            // Not recorded, a failed reload says nothing about the edit to reload latency
+            throw new GradleException("Deployed " + deployedJar.getFileName() + ", but the server failed to reload it after " +
+                    reloadMillis + " ms: " + error);
+        }
+
+        getLogger().lifecycle(
+                "Plugin reloaded {} ms after the last edit (build and deploy {} ms, reload {} ms)",
+                buildMillis + reloadMillis,
+                buildMillis,
+                reloadMillis
+        );
+        recordTimings(completed, buildMillis, reloadMillis);
+    }
+
+    private long latestModification() {
+        long latest = 0;
+
+        for (var file : getSources()) {
+            latest = Math.max(latest, file.lastModified());
+        }
+
+        // No sources, measure from the start of the task instead
+        return latest == 0 ? System.currentTimeMillis() : latest;
+    }
+
+    private boolean isServerWatching() throws IOException {
+        var watcherFile = getReloadWatcherFile().get().getAsFile().toPath();
+        if (!Files.isRegularFile(watcherFile)) {
+            return false;
+        }
+
+        try {
+            var pid = Long.parseLong(Files.readString(watcherFile).trim());
+            return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private Properties awaitResult(Path resultFile) throws IOException, InterruptedException {
+        var deadline = Instant.now().plus(getReloadTimeout().get());
+
+        while (Instant.now().isBefore(deadline)) {
+            if (Files.isRegularFile(resultFile)) {
+                var result = new Properties();
+                try (var reader = Files.newBufferedReader(resultFile)) {
+                    result.load(reader);
+                }
+
+                return result;
+            }
+
+            Thread.sleep(25);
+        }
+
+        return null;
+    }
+
+    private void recordTimings(long completed, long buildMillis, long reloadMillis) throws IOException {
+        var timingsFile = getReloadTimingsFile().get().getAsFile().toPath();
+        Files.createDirectories(timingsFile.toAbsolutePath().getParent());
+
+        var line = new StringBuilder();
+        if (!Files.exists(timingsFile)) {
+            line.append("completed,edit_to_reloaded_ms,build_ms,reload_ms\n");
+        }
+        line.append(Instant.ofEpochMilli(completed)).append(',')
+                .append(buildMillis + reloadMillis).append(',')
+                .append(buildMillis).append(',')
+                .append(reloadMillis).append('\n');
+
+        Files.writeString(timingsFile, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void atomicReplace(Path target, FileWriter writer) throws IOException {
+        var parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        var temporary = parent.resolve("." + target.getFileName() + ".tmp");
+        writer.write(temporary);
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @FunctionalInterface
+    private interface FileWriter {
+        void write(Path target) throws IOException;
+    }
+}
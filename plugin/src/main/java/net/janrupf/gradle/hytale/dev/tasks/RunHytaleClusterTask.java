@@ -0,0 +1,282 @@
+package net.janrupf.gradle.hytale.dev.tasks;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.work.DisableCachingByDefault;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Runs several Hytale servers at once.
+ * <p>
+ * All instances are launched together, each in its own working directory, which receives a copy
+ * of the mods of the run, and on its own port. Their output is forwarded line by line, prefixed
+ * with the instance name, and every instance tags the logs it sends over the bridge with its name.
+ * As soon as one instance exits, or the build is cancelled, the others are sent the stop command
+ * and killed if they do not exit within the shutdown timeout.
+ */
+@DisableCachingByDefault(because = "Runs servers")
+public abstract class RunHytaleClusterTask extends DefaultTask {
+    public static final String INSTANCE_PROPERTY = "hytale.dev.instance";
+
+    // Kill processes which ignore the termination signal after this long
+    private static final Duration KILL_TIMEOUT = Duration.ofSeconds(5);
+
+    @Nested
+    public abstract Property<JavaLauncher> getJavaLauncher();
+
+    @Classpath
+    public abstract ConfigurableFileCollection getClasspath();
+
+    @Input
+    public abstract Property<String> getMainClass();
+
+    @Input
+    public abstract ListProperty<String> getJvmArguments();
+
+    @Input
+    public abstract ListProperty<String> getArguments();
+
+    @Input
+    public abstract MapProperty<String, String> getEnvironment();
+
+    /**
+     * The mods directory of the run, copied into every instance before it starts.
+     *
+     * @return the mods directory property
+     */
+    @Internal
+    public abstract DirectoryProperty getModsDirectory();
+
+    @Input
+    public abstract Property<String> getAgentConfigurationEnvironmentVariable();
+
+    @Internal
+    public abstract RegularFileProperty getAgentConfigurationFile();
+
+    @Input
+    public abstract Property<String> getClusterName();
+
+    @Input
+    public abstract Property<Integer> getInstances();
+
+    @Input
+    public abstract Property<Integer> getBasePort();
+
+    @Internal
+    public abstract DirectoryProperty getWorkingDirectory();
+
+    @Input
+    public abstract Property<String> getStopCommand();
+
+    @Input
+    public abstract Property<Duration> getShutdownTimeout();
+
+    @TaskAction
+    public void run() throws IOException {
+        var instances = new ArrayList<Instance>();
+        var shutdownHook = new Thread(() -> shutdown(instances), "HytaleDev-ClusterShutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        var cancelled = false;
+        try {
+            for (int i = 0; i < getInstances().get(); i++) {
+                instances.add(start(i));
+            }
+
+            getLogger().lifecycle(
+                    "Started {} instances of cluster {} on ports {} to {}",
+                    instances.size(),
+                    getClusterName().get(),
+                    getBasePort().get(),
+                    getBasePort().get() + instances.size() - 1
+            );
+
+            CompletableFuture.anyOf(instances.stream().map((instance) -> instance.process().onExit()).toArray(CompletableFuture[]::new)).get();
+        } catch (InterruptedException e) {
+            getLogger().lifecycle("Build cancelled, stopping cluster {}", getClusterName().get());
+            cancelled = true;
+        } catch (ExecutionException e) {
+            throw new GradleException("Failed waiting for the cluster to exit", e.getCause());
+        } finally {
+            // Waiting for the instances to stop would return at once while interrupted, so the
+            // interrupt is only restored once the shutdown timeouts had their chance
+            var interrupted = Thread.interrupted() || cancelled;
+            shutdown(instances);
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Instances which crashed on their own, not those stopped because another one exited
+        var failed = instances.stream()
+                .filter((instance) -> !instance.stopRequested() && instance.process().exitValue() != 0)
+                .map((instance) -> instance.name() + " (exit code " + instance.process().exitValue() + ")")
+                .toList();
+        if (!failed.isEmpty()) {
+            throw new GradleException("Cluster instances failed: " + String.join(", ", failed));
+        }
+    }
+
+    private Instance start(int index) throws IOException {
+        var name = getClusterName().get() + "-" + (index + 1);
+        var port = getBasePort().get() + index;
+        var workingDirectory = getWorkingDirectory().get().dir(name).getAsFile();
+        Files.createDirectories(workingDirectory.toPath());
+        copyMods(workingDirectory.toPath().resolve("mods"));
+
+        var command = new ArrayList<String>();
+        command.add(getJavaLauncher().get().getExecutablePath().getAsFile().getAbsolutePath());
+        command.addAll(getJvmArguments().get());
+        command.add("-D" + INSTANCE_PROPERTY + "=" + name);
+        command.add("-cp");
+        command.add(getClasspath().getAsPath());
+        command.add(getMainClass().get());
+        command.addAll(getArguments().get());
+        command.add("--bind");
+        command.add("0.0.0.0:" + port);
+
+        var builder = new ProcessBuilder(command)
+                .directory(workingDirectory)
+                .redirectErrorStream(true);
+        builder.environment().putAll(getEnvironment().get());
+        builder.environment().put(
+                getAgentConfigurationEnvironmentVariable().get(),
+                getAgentConfigurationFile().get().getAsFile().getAbsolutePath()
+        );
+
+        var process = builder.start();
+        var instance = new Instance(name, process);
+
+        var pump = new Thread(() -> forwardOutput(instance), "HytaleDev-Cluster-" + name);
+        pump.setDaemon(true);
+        pump.start();
+
+        return instance;
+    }
+
+    private void copyMods(Path target) throws IOException {
+        var source = getModsDirectory().getAsFile().map(File::toPath).getOrNull();
+        if (source == null || !Files.isDirectory(source)) {
+            return;
+        }
+
+        Files.createDirectories(target);
+        try (Stream<Path> files = Files.list(source)) {
+            for (var file : (Iterable<Path>) files::iterator) {
+                if (Files.isRegularFile(file)) {
+                    Files.copy(file, target.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    private void forwardOutput(Instance instance) {
+        try (var reader = new BufferedReader(new InputStreamReader(instance.process().getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                getLogger().quiet("[{}] {}", instance.name(), line);
+            }
+        } catch (IOException e) {
+            // The process is gone, nothing left to forward
+        }
+    }
+
+    private void shutdown(List<Instance> instances) {
+        var alive = instances.stream().filter((instance) -> instance.process().isAlive()).toList();
+        if (alive.isEmpty()) {
+            return;
+        }
+
+        // Ask every instance at once, so the timeout applies to the cluster and not to each instance
+        var stopCommand = getStopCommand().get();
+        for (var instance : alive) {
+            instance.stopRequested = true;
+            try {
+                var writer = new OutputStreamWriter(instance.process().getOutputStream(), StandardCharsets.UTF_8);
+                writer.write(stopCommand + System.lineSeparator());
+                writer.flush();
+            } catch (IOException e) {
+                instance.process().destroy();
+            }
+        }
+
+        var exited = CompletableFuture.allOf(alive.stream().map((instance) -> instance.process().onExit()).toArray(CompletableFuture[]::new));
+        if (awaitQuietly(exited, getShutdownTimeout().get())) {
+            return;
+        }
+
+        for (var instance : alive) {
+            if (instance.process().isAlive()) {
+                getLogger().warn("Instance {} did not stop in time, terminating it", instance.name());
+                instance.process().destroy();
+            }
+        }
+
+        if (!awaitQuietly(exited, KILL_TIMEOUT)) {
+            alive.forEach((instance) -> instance.process().destroyForcibly());
+        }
+    }
+
+    private static boolean awaitQuietly(CompletableFuture<?> future, Duration timeout) {
+        try {
+            future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            // Interrupted while stopping, escalate to terminating right away and keep the interrupt
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class Instance {
+        private final String name;
+        private final Process process;
+        private volatile boolean stopRequested;
+
+        private Instance(String name, Process process) {
+            this.name = name;
+            this.process = process;
+        }
+
+        String name() {
+            return name;
+        }
+
+        Process process() {
+            return process;
+        }
+
+        boolean stopRequested() {
+            return stopRequested;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.janrupf.gradle.hytale.dev.tasks;
+
+import net.janrupf.gradle.hytale.dev.actions.TransformAssetsWorkAction;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.FileType;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.*;
+import org.gradle.work.ChangeType;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Shrinks plugin assets before they are packed into the plugin jar.
+ * <p>
+ * PNG files are optimized losslessly and JSON files are minified, see
+ * {@link net.janrupf.gradle.hytale.dev.assets.PngOptimizer} and
+ * {@link net.janrupf.gradle.hytale.dev.assets.JsonMinifier}. Only files which got smaller are
+ * written to the output directory, under the same relative path, and replace the original when
+ * resources are processed.
+ * <p>
+ * Changed files are transformed by workers in parallel, results are additionally cached by
+ * content hash in a cache directory shared between projects.
+ */
+@CacheableTask
+public abstract class TransformHytaleAssetsTask extends DefaultTask {
+    private static final int BATCH_SIZE = 32;
+
+    @Incremental
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getAssets();
+
+    /**
+     * Extensions of the files to transform, without the dot.
+     *
+     * @return the extensions, {@code png} and {@code json} are supported
+     */
+    @Input
+    public abstract ListProperty<String> getFileExtensions();
+
+    @Internal
+    public abstract DirectoryProperty getCacheDirectory();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    @Inject
+    public TransformHytaleAssetsTask() {
+        getFileExtensions().convention(List.of("png", "json"));
+    }
+
+    @TaskAction
+    public void transform(InputChanges inputChanges) throws IOException {
+        var outputDirectory = getOutputDirectory().get().getAsFile().toPath();
+        if (!inputChanges.isIncremental()) {
+            getFileSystemOperations().delete((spec) -> spec.delete(outputDirectory.toFile()));
+        }
+        Files.createDirectories(outputDirectory);
+
+        var extensions = getFileExtensions().get();
+        var sources = new ArrayList<File>();
+        var targets = new ArrayList<File>();
+
+        for (var change : inputChanges.getFileChanges(getAssets())) {
+            if (change.getFileType() == FileType.DIRECTORY) {
+                continue;
+            }
+
+            // A modified file may not shrink anymore, never keep the previous result
+            var target = outputDirectory.resolve(change.getNormalizedPath());
+            Files.deleteIfExists(target);
+
+            if (change.getChangeType() != ChangeType.REMOVED && extensions.contains(extension(change.getNormalizedPath()))) {
+                sources.add(change.getFile());
+                targets.add(target.toFile());
+            }
+        }
+
+        var queue = getWorkerExecutor().noIsolation();
+        for (int start = 0; start < sources.size(); start += BATCH_SIZE) {
+            int end = Math.min(start + BATCH_SIZE, sources.size());
+            var batchSources = sources.subList(start, end);
+            var batchTargets = targets.subList(start, end);
+
+            queue.submit(TransformAssetsWorkAction.class, (params) -> {
+                params.getSources().set(batchSources);
+                params.getTargets().set(batchTargets);
+                params.getCacheDirectory().set(getCacheDirectory());
+            });
+        }
+
+        queue.await();
+        getLogger().info("Transformed {} changed assets", sources.size());
+    }
+
+    private static String extension(String path) {
+        var dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') ? path.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,240 @@
+package net.janrupf.gradle.hytale.dev.tasks;
+
+import net.janrupf.gradle.hytale.dev.actions.ScanAssetReferencesWorkAction;
+import net.janrupf.gradle.hytale.dev.assets.AssetIndex;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.gradle.work.ChangeType;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Checks the references between the plugin's asset definitions and against the vanilla assets.
+ * <p>
+ * Definitions are JSON files below the {@code Server} root of the asset directories. They refer
+ * to other definitions by id, the file name without extension, and to resources by their path
+ * below the root. Since the schemas of the asset types are not known, a string value is taken as
+ * an id reference if its key, or the key of the array containing it, matches one of
+ * {@link #getIdReferenceKeys()}, and as a path reference if it ends with one of
+ * {@link #getPathReferenceExtensions()}.
+ * <p>
+ * Definitions are parsed in parallel by workers, which write the references of each definition to
+ * a file in the state directory. Only changed definitions are parsed again, the references of all
+ * definitions are then checked against the current set of known assets.
+ */
+@CacheableTask
+public abstract class ValidateHytaleAssetsTask extends DefaultTask {
+    private static final String DEFINITION_ROOT = "Server/";
+    private static final String RESOURCE_ROOT = "Common/";
+    private static final int BATCH_SIZE = 64;
+
+    @Incremental
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getAssets();
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getAssetIndex();
+
+    /**
+     * Key patterns of values holding definition ids, a leading {@code *} matches any prefix.
+     *
+     * @return the key patterns
+     */
+    @Input
+    public abstract ListProperty<String> getIdReferenceKeys();
+
+    /**
+     * File extensions of values holding resource paths, without the dot.
+     *
+     * @return the extensions
+     */
+    @Input
+    public abstract ListProperty<String> getPathReferenceExtensions();
+
+    @Input
+    public abstract Property<Boolean> getIgnoreFailures();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getStateDirectory();
+
+    @OutputFile
+    public abstract RegularFileProperty getReport();
+
+    @InputFiles
+    @Classpath
+    public abstract ConfigurableFileCollection getJacksonClasspath();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    @Inject
+    public ValidateHytaleAssetsTask() {
+        getIdReferenceKeys().convention(List.of("Parent", "*Id", "*Ids"));
+        getPathReferenceExtensions().convention(List.of("png", "ogg", "blockymodel", "blockyanim"));
+        getIgnoreFailures().convention(false);
+    }
+
+    @TaskAction
+    public void validate(InputChanges inputChanges) throws IOException {
+        var stateDirectory = getStateDirectory().get().getAsFile().toPath();
+        if (!inputChanges.isIncremental()) {
+            getFileSystemOperations().delete((spec) -> spec.delete(stateDirectory.toFile()));
+        }
+        Files.createDirectories(stateDirectory);
+
+        var sources = new ArrayList<File>();
+        var targets = new ArrayList<File>();
+
+        for (var change : inputChanges.getFileChanges(getAssets())) {
+            if (change.getFileType() == FileType.DIRECTORY || !isDefinition(change.getNormalizedPath())) {
+                continue;
+            }
+
+            var state = stateFile(stateDirectory, change.getNormalizedPath());
+            if (change.getChangeType() == ChangeType.REMOVED) {
+                Files.deleteIfExists(state);
+            } else {
+                sources.add(change.getFile());
+                targets.add(state.toFile());
+            }
+        }
+
+        if (!sources.isEmpty()) {
+            getLogger().info("Scanning {} changed asset definitions", sources.size());
+            scan(sources, targets);
+        }
+
+        var problems = findProblems(stateDirectory, knownAssets());
+        writeReport(problems);
+
+        if (problems.isEmpty()) {
+            return;
+        }
+
+        var message = problems.size() + " asset problem(s), see " + getReport().get().getAsFile() +
+                System.lineSeparator() + String.join(System.lineSeparator(), problems.subList(0, Math.min(problems.size(), 20)));
+        if (getIgnoreFailures().get()) {
+            getLogger().warn(message);
+        } else {
+            throw new GradleException(message);
+        }
+    }
+
+    private void scan(List<File> sources, List<File> targets) {
+        var queue = getWorkerExecutor().classLoaderIsolation(
+                (classLoader) -> classLoader.getClasspath().from(getJacksonClasspath())
+        );
+
+        for (int start = 0; start < sources.size(); start += BATCH_SIZE) {
+            int end = Math.min(start + BATCH_SIZE, sources.size());
+            var batchSources = sources.subList(start, end);
+            var batchTargets = targets.subList(start, end);
+
+            queue.submit(ScanAssetReferencesWorkAction.class, (params) -> {
+                params.getSources().set(batchSources);
+                params.getTargets().set(batchTargets);
+                params.getIdReferenceKeys().set(getIdReferenceKeys());
+                params.getPathReferenceExtensions().set(getPathReferenceExtensions());
+            });
+        }
+
+        queue.await();
+    }
+
+    private KnownAssets knownAssets() throws IOException {
+        var known = new KnownAssets(new HashSet<>(), new HashSet<>());
+
+        for (var entry : AssetIndex.read(getAssetIndex().get().getAsFile().toPath()).getEntries()) {
+            known.add(entry.name());
+        }
+
+        getAssets().getAsFileTree().visit((details) -> {
+            var path = details.getRelativePath().getPathString();
+            if (!details.isDirectory() && (path.startsWith(DEFINITION_ROOT) || path.startsWith(RESOURCE_ROOT))) {
+                known.add(path);
+            }
+        });
+
+        return known;
+    }
+
+    private static List<String> findProblems(Path stateDirectory, KnownAssets known) throws IOException {
+        var problems = new ArrayList<String>();
+
+        try (Stream<Path> states = Files.walk(stateDirectory)) {
+            for (var state : (Iterable<Path>) states.filter(Files::isRegularFile).sorted()::iterator) {
+                var definition = stateDirectory.relativize(state).toString().replace(File.separatorChar, '/');
+                definition = definition.substring(0, definition.length() - ".refs".length());
+
+                for (var line : Files.readAllLines(state, StandardCharsets.UTF_8)) {
+                    var fields = line.split("\t", 3);
+                    switch (fields[0]) {
+                        case "E" -> problems.add(definition + ": invalid JSON: " + fields[1]);
+                        case "I" -> {
+                            if (!known.ids().contains(fields[2])) {
+                                problems.add(definition + ": " + fields[1] + " refers to unknown asset '" + fields[2] + "'");
+                            }
+                        }
+                        case "P" -> {
+                            if (!known.paths().contains(fields[2])) {
+                                problems.add(definition + ": " + fields[1] + " refers to missing file '" + fields[2] + "'");
+                            }
+                        }
+                        default -> throw new IOException("Corrupt validation state " + state);
+                    }
+                }
+            }
+        }
+
+        return problems;
+    }
+
+    private void writeReport(List<String> problems) throws IOException {
+        var report = getReport().get().getAsFile().toPath();
+        Files.createDirectories(report.getParent());
+        Files.write(report, problems, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isDefinition(String path) {
+        return path.startsWith(DEFINITION_ROOT) && AssetIndex.isDefinition(path);
+    }
+
+    private static Path stateFile(Path stateDirectory, String normalizedPath) {
+        return stateDirectory.resolve(normalizedPath + ".refs");
+    }
+
+    private record KnownAssets(Set<String> ids, Set<String> paths) {
+        void add(String name) {
+            if (AssetIndex.isDefinition(name)) {
+                ids.add(AssetIndex.idOf(name));
+            }
+            paths.add(AssetIndex.pathBelowRoot(name));
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.tasks.*;
 import org.gradle.workers.WorkerExecutor;
 
@@ -34,13 +35,16 @@ public abstract class VineflowerDecompileTask extends DefaultTask {
     @Inject
     protected abstract WorkerExecutor getWorkerExecutor();
 
+    @Inject
+    protected abstract ProviderFactory getProviderFactory();
+
     @InputFiles
     @Classpath
     public abstract ConfigurableFileCollection getVineflowerClasspath();
 
     @Inject
     public VineflowerDecompileTask() {
-        getVineflowerPreferences().convention(VineflowerDecompilerWorkActionParams.defaultPreferencesProvider(getProject()));
+        getVineflowerPreferences().convention(VineflowerDecompilerWorkActionParams.defaultPreferencesProvider(getProviderFactory(), getLogger()));
         getMaxHeapSize().convention("4G");
     }
 
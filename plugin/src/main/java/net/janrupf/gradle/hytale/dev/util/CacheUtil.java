@@ -0,0 +1,61 @@
+package net.janrupf.gradle.hytale.dev.util;
+
+import org.gradle.api.Project;
+import org.gradle.api.file.Directory;
+import org.gradle.api.provider.Provider;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Helpers for the caches in the Gradle user home which are shared between projects and builds.
+ */
+public class CacheUtil {
+    private CacheUtil() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * The directory of a shared cache.
+     *
+     * @param project the project the cache is used by
+     * @param name    the name of the cache
+     * @return the directory below {@code caches/hytale-dev} in the Gradle user home
+     */
+    public static Provider<Directory> directory(Project project, String name) {
+        var directory = new File(project.getGradle().getGradleUserHomeDir(), "caches/hytale-dev/" + name);
+        return project.getLayout().dir(project.provider(() -> directory));
+    }
+
+    /**
+     * Write an entry of a shared cache.
+     * <p>
+     * Other builds and workers may populate the cache concurrently, so the entry is written to a
+     * temporary file next to it and moved into place atomically. Readers either see the previous
+     * entry or the complete new one.
+     *
+     * @param entry  the file of the entry
+     * @param writer writes the content to the temporary file it is given
+     * @throws IOException if the entry can not be written
+     */
+    public static void publish(Path entry, EntryWriter writer) throws IOException {
+        var directory = entry.getParent();
+        Files.createDirectories(directory);
+
+        var temporary = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+        try {
+            writer.write(temporary);
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryWriter {
+        void write(Path file) throws IOException;
+    }
+}
@@ -4,3 +4,4 @@ include(":plugin")
 include(":agent")
 include(":protocol")
 include(":bridge")
+include(":benchmarks")